@@ -1,7 +1,7 @@
 package org.xmlresolver;
 
 import org.xml.sax.InputSource;
-import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.catalog.entry.*;
 import org.xmlresolver.catalog.query.*;
 import org.xmlresolver.loaders.CatalogLoader;
 import org.xmlresolver.logging.ResolverLogger;
@@ -12,8 +12,20 @@ import org.xmlresolver.utils.URIUtils;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The <code>CatalogManager</code> manages a list of OASIS XML Catalogs
@@ -39,7 +51,10 @@ import java.util.List;
 public class CatalogManager implements XMLCatalogResolver {
     protected final ResolverLogger logger;
     protected final ResolverConfiguration resolverConfiguration;
-    protected CatalogLoader catalogLoader;
+    protected volatile CatalogLoader catalogLoader;
+    private volatile CompiledCatalogs compiledCatalogs = null;
+    private final Set<URI> prefetched = ConcurrentHashMap.newKeySet();
+    private volatile CompletableFuture<Map<URI, Duration>> eagerLoad = null;
 
     /** Construct a catalog manager for the specified configuration.
      *
@@ -62,6 +77,10 @@ public class CatalogManager implements XMLCatalogResolver {
         catalogLoader.setPreferPublic(config.getFeature(ResolverFeature.PREFER_PUBLIC));
         catalogLoader.setArchivedCatalogs(config.getFeature(ResolverFeature.ARCHIVED_CATALOGS));
         logger = resolverConfiguration.getFeature(ResolverFeature.RESOLVER_LOGGER);
+
+        if (config.getFeature(ResolverFeature.EAGER_CATALOG_LOADING)) {
+            eagerLoad = loadCatalogGraph();
+        }
     }
 
     /** Constructs a catalog manager from the current one and a configuration.
@@ -100,7 +119,8 @@ public class CatalogManager implements XMLCatalogResolver {
     /** Set the catalog loader.
      *
      * <p>This method sets the catalog loader that will be used by this manager
-     * if it attempts to load a catalog.</p>
+     * if it attempts to load a catalog. The catalogs, and the lookup results, cached with the
+     * previous loader are discarded.</p>
      *
      * @param loader the catalog loader.
      */
@@ -121,17 +141,275 @@ public class CatalogManager implements XMLCatalogResolver {
         return catlist;
     }
 
+    /**
+     * The compiled set of catalogs used by this configuration.
+     * <p>The catalog set is built from {@link #catalogs()} and reused until the list of catalogs
+     * in the configuration changes, until the catalog loader is changed, or until the catalog loader replaces
+     * a catalog it has already loaded (see {@link CatalogLoader#getGeneration()}). Searching a catalog set that has already been loaded
+     * doesn't require locking or allocation.</p>
+     * @return The catalog set.
+     */
+    public CatalogSet catalogSet() {
+        return compiled().catalogs;
+    }
+
+    private CompiledCatalogs compiled() {
+        CompletableFuture<Map<URI, Duration>> loading = eagerLoad;
+        if (loading != null) {
+            // Wait for the eager load to finish; it never completes exceptionally
+            loading.join();
+            eagerLoad = null;
+        }
+
+        CompiledCatalogs compiled = compiledCatalogs;
+        int version = -1;
+        List<String> files = null;
+        if (resolverConfiguration instanceof XMLResolverConfiguration) {
+            version = ((XMLResolverConfiguration) resolverConfiguration).getCatalogListVersion();
+        } else {
+            // Without a version, the only way to tell if the list has changed is to compare it
+            files = resolverConfiguration.getFeature(ResolverFeature.CATALOG_FILES);
+        }
+
+        // Cached lookup results also depend on these features
+        boolean mergeHttps = resolverConfiguration.getFeature(ResolverFeature.MERGE_HTTPS);
+        boolean uriForSystem = resolverConfiguration.getFeature(ResolverFeature.URI_FOR_SYSTEM);
+        int cacheSize = resolverConfiguration.getFeature(ResolverFeature.LOOKUP_CACHE_SIZE);
+
+        // Lookups already underway keep the catalogs they started with
+        CatalogLoader loader = catalogLoader;
+        loader.revalidateCatalogs(this::catalogExecutor);
+        long generation = loader.getGeneration();
+
+        if (compiled == null || compiled.loader != loader
+                || compiled.version != version || compiled.generation != generation
+                || (files != null && !files.equals(compiled.files))
+                || compiled.mergeHttps != mergeHttps || compiled.uriForSystem != uriForSystem
+                || compiled.cacheSize != cacheSize) {
+            if (compiled != null && (compiled.loader != loader || compiled.generation != generation)) {
+                // The catalogs that reloaded, or the new ones they refer to, haven't been prefetched
+                prefetched.clear();
+            }
+            LookupCache cache = cacheSize > 0 ? new LookupCache(cacheSize) : null;
+            compiled = new CompiledCatalogs(loader, version, generation, files, mergeHttps, uriForSystem, cacheSize,
+                    new CatalogSet(this, catalogs()), cache);
+            compiledCatalogs = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * Perform a lookup.
+     * @param lookup The lookup.
+     * @return The mapped value, or <code>null</code> if no matching entry is found.
+     */
+    URI search(Lookup lookup) {
+        CompiledCatalogs compiled = compiled();
+        if (compiled.cache == null) {
+            return lookup.query.search(this, compiled.catalogs).uri();
+        }
+        return compiled.cache.lookup(lookup.key, () -> lookup.query.search(this, compiled.catalogs).uri());
+    }
+
+    /**
+     * Perform several lookups with a single search of the catalogs.
+     * @param lookups The lookups.
+     * @return The mapped values, in the same order as the lookups. Each value is <code>null</code> if
+     * no matching entry was found for that lookup.
+     * @see QueryCatalog#search(CatalogManager, CatalogSet, List)
+     */
+    List<URI> search(List<Lookup> lookups) {
+        CompiledCatalogs compiled = compiled();
+        if (compiled.cache == null) {
+            return search(compiled, lookups);
+        }
+
+        ArrayList<LookupCache.Key> keys = new ArrayList<>();
+        for (Lookup lookup : lookups) {
+            keys.add(lookup.key);
+        }
+        return compiled.cache.lookup(keys, positions -> {
+            ArrayList<Lookup> uncached = new ArrayList<>();
+            for (int pos : positions) {
+                uncached.add(lookups.get(pos));
+            }
+            return search(compiled, uncached);
+        });
+    }
+
+    private List<URI> search(CompiledCatalogs compiled, List<Lookup> lookups) {
+        ArrayList<QueryCatalog> queries = new ArrayList<>();
+        for (Lookup lookup : lookups) {
+            queries.add(lookup.query);
+        }
+
+        ArrayList<URI> found = new ArrayList<>();
+        for (QueryResult result : QueryCatalog.search(this, compiled.catalogs, queries)) {
+            found.add(result.uri());
+        }
+        return found;
+    }
+
     /**
      * Load the specified catalog.
      *
      * <p>The manager maintains a set of the catalogs that it has loaded. If an attempt is
      * made to load a catalog twice, the previously loaded catalog is returned.</p>
      *
+     * <p>If {@link ResolverFeature#PREFETCH_CATALOGS} is true, the catalogs that this catalog
+     * refers to are loaded in the background.</p>
+     *
      * @param catalog The catalog URI.
      * @return The parsed catalog.
      */
     public EntryCatalog loadCatalog(URI catalog) {
-        return catalogLoader.loadCatalog(catalog);
+        EntryCatalog loaded = catalogLoader.loadCatalog(catalog);
+        if (resolverConfiguration.getFeature(ResolverFeature.PREFETCH_CATALOGS)) {
+            prefetch(loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Load every catalog that might be searched.
+     *
+     * <p>This method loads the catalogs in {@link #catalogs()} and, transitively, every catalog that
+     * they refer to with <code>nextCatalog</code>, <code>delegatePublic</code>, <code>delegateSystem</code>,
+     * or <code>delegateURI</code> entries. Each catalog is loaded by the catalog loader as soon as the
+     * catalog that refers to it has been loaded; independent catalogs are loaded in parallel on
+     * the {@link ResolverFeature#CATALOG_EXECUTOR}.</p>
+     *
+     * <p>The future completes when every catalog has been loaded, or has failed to load. Its value
+     * records how long each catalog took to load, in the order that they finished. Failures are
+     * logged by the loader and omitted. To block until the catalogs are loaded, call
+     * <code>join()</code> on the future.</p>
+     *
+     * <p>If {@link ResolverFeature#EAGER_CATALOG_LOADING} is true, the manager calls this method
+     * when it's created and the first lookup waits for it to finish.</p>
+     *
+     * @return A future for the time spent loading each catalog.
+     */
+    public CompletableFuture<Map<URI, Duration>> loadCatalogGraph() {
+        return new GraphLoader().load(catalogs());
+    }
+
+    private class GraphLoader {
+        private final Executor executor = catalogExecutor();
+        private final Set<URI> seen = ConcurrentHashMap.newKeySet();
+        private final Map<URI, Duration> times = new LinkedHashMap<>();
+        // The count starts at one so that the future can't complete before all the roots are submitted
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+        private final CompletableFuture<Map<URI, Duration>> result = new CompletableFuture<>();
+
+        private CompletableFuture<Map<URI, Duration>> load(List<URI> catalogs) {
+            for (URI catalog : catalogs) {
+                submit(catalog);
+            }
+            finished();
+            return result;
+        }
+
+        private void submit(URI catalog) {
+            if (!seen.add(catalog)) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            try {
+                executor.execute(() -> load(catalog));
+            } catch (RejectedExecutionException ex) {
+                load(catalog);
+            }
+        }
+
+        private void load(URI catalog) {
+            try {
+                long start = System.nanoTime();
+                EntryCatalog loaded = catalogLoader.loadCatalog(catalog);
+                Duration time = Duration.ofNanos(System.nanoTime() - start);
+                synchronized (times) {
+                    times.put(catalog, time);
+                }
+                logger.debug("Loaded catalog in %dms: %s", time.toMillis(), catalog);
+                for (URI referenced : referencedCatalogs(loaded)) {
+                    submit(referenced);
+                }
+            } catch (RuntimeException ex) {
+                logger.debug("Failed to load catalog: %s: %s", catalog, ex.getMessage());
+            } finally {
+                finished();
+            }
+        }
+
+        private void finished() {
+            if (outstanding.decrementAndGet() == 0) {
+                synchronized (times) {
+                    result.complete(Collections.unmodifiableMap(new LinkedHashMap<>(times)));
+                }
+            }
+        }
+    }
+
+    private void prefetch(EntryCatalog catalog) {
+        for (URI uri : referencedCatalogs(catalog)) {
+            if (!prefetched.add(uri)) {
+                continue;
+            }
+            try {
+                catalogExecutor().execute(() -> {
+                    try {
+                        loadCatalog(uri);
+                    } catch (RuntimeException ex) {
+                        // If the catalog is needed, the failure will be reported when it's searched
+                        logger.debug("Failed to prefetch catalog: %s: %s", uri, ex.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                prefetched.remove(uri);
+                logger.debug("Cannot prefetch catalog: %s: %s", uri, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The catalogs that a catalog refers to.
+     * @param catalog The catalog.
+     * @return The catalogs identified by its <code>nextCatalog</code>, <code>delegatePublic</code>,
+     * <code>delegateSystem</code>, and <code>delegateURI</code> entries, in that order.
+     */
+    static List<URI> referencedCatalogs(EntryCatalog catalog) {
+        ArrayList<URI> catalogs = new ArrayList<>();
+        for (Entry entry : catalog.entries(Entry.Type.NEXT_CATALOG)) {
+            catalogs.add(((EntryNextCatalog) entry).catalog);
+        }
+        for (Entry entry : catalog.entries(Entry.Type.DELEGATE_PUBLIC)) {
+            catalogs.add(((EntryDelegatePublic) entry).catalog);
+        }
+        for (Entry entry : catalog.entries(Entry.Type.DELEGATE_SYSTEM)) {
+            catalogs.add(((EntryDelegateSystem) entry).catalog);
+        }
+        for (Entry entry : catalog.entries(Entry.Type.DELEGATE_URI)) {
+            catalogs.add(((EntryDelegateUri) entry).catalog);
+        }
+        return catalogs;
+    }
+
+    /**
+     * The executor used to load catalogs in the background.
+     * @return The {@link ResolverFeature#CATALOG_EXECUTOR}, or a shared pool of daemon threads if it's null.
+     */
+    Executor catalogExecutor() {
+        Executor executor = resolverConfiguration.getFeature(ResolverFeature.CATALOG_EXECUTOR);
+        return executor == null ? SharedExecutor.POOL : executor;
+    }
+
+    // The pool isn't created until it's first used
+    private static class SharedExecutor {
+        private static final AtomicInteger count = new AtomicInteger();
+        private static final Executor POOL = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "xmlresolver-catalog-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -194,7 +472,31 @@ public class CatalogManager implements XMLCatalogResolver {
      * @return The mapped value, or <code>null</code> if no matching entry is found.
      */
     public URI lookupNamespaceURI(String uri, String nature, String purpose) {
-        return new QueryUri(uri, nature, purpose).search(this).uri();
+        return search(uriLookup(uri, nature, purpose));
+    }
+
+    Lookup uriLookup(String uri, String nature, String purpose) {
+        return new Lookup(new QueryUri(uri, nature, purpose), LookupCache.Kind.URI, normalizedForComparison(uri),
+                normalizedForComparison(nature), normalizedForComparison(purpose));
+    }
+
+    /**
+     * Lookup several URIs in the catalog.
+     *
+     * <p>Each request is looked up as if by {@link #lookupNamespaceURI(String, String, String)}
+     * with its URI, nature, and purpose, but the catalogs are searched once for all of them.</p>
+     *
+     * @param requests The requests.
+     *
+     * @return The mapped values, in the same order as the requests. Each value is
+     * <code>null</code> if no matching entry was found for that request.
+     */
+    public List<URI> lookupURIs(Collection<ResourceRequest> requests) {
+        ArrayList<Lookup> lookups = new ArrayList<>();
+        for (ResourceRequest request : requests) {
+            lookups.add(uriLookup(request.getURI(), request.getNature(), request.getPurpose()));
+        }
+        return search(lookups);
     }
 
     private String fixWindowsSystemIdentifier(String systemId) {
@@ -225,7 +527,8 @@ public class CatalogManager implements XMLCatalogResolver {
     public URI lookupPublic(String systemId, String publicId) {
         systemId = fixWindowsSystemIdentifier(systemId);
         ExternalIdentifiers external = normalizeExternalIdentifiers(systemId, publicId);
-        return new QueryPublic(external.systemId, external.publicId).search(this).uri();
+        return search(new Lookup(new QueryPublic(external.systemId, external.publicId), LookupCache.Kind.PUBLIC,
+                normalizedForComparison(external.systemId), external.publicId, null));
     }
 
     /**
@@ -250,7 +553,7 @@ public class CatalogManager implements XMLCatalogResolver {
             return null;
         }
 
-        return new QuerySystem(systemId).search(this).uri();
+        return search(new Lookup(new QuerySystem(systemId), LookupCache.Kind.SYSTEM, normalizedForComparison(systemId), null, null));
     }
 
     /**
@@ -270,9 +573,14 @@ public class CatalogManager implements XMLCatalogResolver {
      * @return The mapped value, or <code>null</code> if no matching entry is found.
      */
     public URI lookupDoctype(String entityName, String systemId, String publicId) {
+        return search(doctypeLookup(entityName, systemId, publicId));
+    }
+
+    Lookup doctypeLookup(String entityName, String systemId, String publicId) {
         systemId = fixWindowsSystemIdentifier(systemId);
         ExternalIdentifiers external = normalizeExternalIdentifiers(systemId, publicId);
-        return new QueryDoctype(entityName, external.systemId, external.publicId).search(this).uri();
+        return new Lookup(new QueryDoctype(entityName, external.systemId, external.publicId), LookupCache.Kind.DOCTYPE,
+                entityName, normalizedForComparison(external.systemId), external.publicId);
     }
 
     /**
@@ -301,9 +609,34 @@ public class CatalogManager implements XMLCatalogResolver {
      * @return The mapped value, or <code>null</code> if no matching entry is found.
      */
     public URI lookupEntity(String entityName, String systemId, String publicId) {
+        return search(entityLookup(entityName, systemId, publicId));
+    }
+
+    Lookup entityLookup(String entityName, String systemId, String publicId) {
         systemId = fixWindowsSystemIdentifier(systemId);
         ExternalIdentifiers external = normalizeExternalIdentifiers(systemId, publicId);
-        return new QueryEntity(entityName, external.systemId, external.publicId).search(this).uri();
+        return new Lookup(new QueryEntity(entityName, external.systemId, external.publicId), LookupCache.Kind.ENTITY,
+                entityName, normalizedForComparison(external.systemId), external.publicId);
+    }
+
+    /**
+     * Lookup several entities in the catalog.
+     *
+     * <p>Each request is looked up as if by {@link #lookupEntity(String, String, String)}
+     * with its entity name, system identifier, and public identifier, but the catalogs
+     * are searched once for all of them.</p>
+     *
+     * @param requests The requests.
+     *
+     * @return The mapped values, in the same order as the requests. Each value is
+     * <code>null</code> if no matching entry was found for that request.
+     */
+    public List<URI> lookupEntities(Collection<ResourceRequest> requests) {
+        ArrayList<Lookup> lookups = new ArrayList<>();
+        for (ResourceRequest request : requests) {
+            lookups.add(entityLookup(request.getEntityName(), request.getSystemId(), request.getPublicId()));
+        }
+        return search(lookups);
     }
 
     /**
@@ -322,7 +655,8 @@ public class CatalogManager implements XMLCatalogResolver {
     public URI lookupNotation(String notationName, String systemId, String publicId) {
         systemId = fixWindowsSystemIdentifier(systemId);
         ExternalIdentifiers external = normalizeExternalIdentifiers(systemId, publicId);
-        return new QueryNotation(notationName, external.systemId, external.publicId).search(this).uri();
+        return search(new Lookup(new QueryNotation(notationName, external.systemId, external.publicId), LookupCache.Kind.NOTATION,
+                notationName, normalizedForComparison(external.systemId), external.publicId));
     }
 
     private static class ExternalIdentifiers {
@@ -366,18 +700,55 @@ public class CatalogManager implements XMLCatalogResolver {
      * @return the URI normalized for comparison
      */
     public String normalizedForComparison(String uri) {
-        if (uri == null) {
-            return null;
+        return URIUtils.normalizedForComparison(uri, resolverConfiguration.getFeature(ResolverFeature.MERGE_HTTPS));
+    }
+
+    /**
+     * A lookup: the query to perform and the key under which its result may be cached.
+     * <p>Lookups are equal if their keys are equal; equal lookups always have the same result.</p>
+     */
+    static final class Lookup {
+        private final QueryCatalog query;
+        private final LookupCache.Key key;
+
+        private Lookup(QueryCatalog query, LookupCache.Kind kind, String first, String second, String third) {
+            this.query = query;
+            key = new LookupCache.Key(kind, first, second, third);
         }
 
-        if (uri.startsWith("classpath:/")) {
-            return "classpath:" + uri.substring(11);
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Lookup && key.equals(((Lookup) obj).key);
         }
 
-        if (resolverConfiguration.getFeature(ResolverFeature.MERGE_HTTPS) && uri.startsWith("http:")) {
-            return "https:" + uri.substring(5);
+        @Override
+        public int hashCode() {
+            return key.hashCode();
         }
+    }
 
-        return uri;
+    private static class CompiledCatalogs {
+        private final CatalogLoader loader;
+        private final int version;
+        private final long generation;
+        private final List<String> files;
+        private final boolean mergeHttps;
+        private final boolean uriForSystem;
+        private final int cacheSize;
+        private final CatalogSet catalogs;
+        private final LookupCache cache;
+
+        private CompiledCatalogs(CatalogLoader loader, int version, long generation, List<String> files, boolean mergeHttps,
+                                 boolean uriForSystem, int cacheSize, CatalogSet catalogs, LookupCache cache) {
+            this.loader = loader;
+            this.version = version;
+            this.generation = generation;
+            this.files = files;
+            this.mergeHttps = mergeHttps;
+            this.uriForSystem = uriForSystem;
+            this.cacheSize = cacheSize;
+            this.catalogs = catalogs;
+            this.cache = cache;
+        }
     }
 }
@@ -0,0 +1,376 @@
+package org.xmlresolver;
+
+import org.xmlresolver.logging.ResolverLogger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A persistent cache of the resources read over HTTP(S).
+ *
+ * <p>Each resource is stored in the cache directory as two files: the body, and a properties file
+ * with the URI, the URI it was redirected to, and the <code>ETag</code>, <code>Last-Modified</code>,
+ * <code>Content-Type</code> and <code>Cache-Control</code> headers of the response. A resource is
+ * fresh for the {@link ResolverFeature#HTTP_CACHE_TTL}, or the <code>max-age</code> of the response.
+ * A stale resource is revalidated with a conditional request; if the server says it hasn't changed,
+ * the cached copy is used, and if the server can't be reached, the stale copy is used.</p>
+ *
+ * <p>Files are written under temporary names and then moved into place, so several processes can
+ * share a cache directory. When the bodies in the cache are bigger than the maximum size, the
+ * resources used least recently (the bodies with the oldest modification times) are removed.</p>
+ */
+public class HttpCache {
+    private static final String BODY = ".body";
+    private static final String PROPERTIES = ".properties";
+    private static final List<String> HEADERS = Arrays.asList("content-type", "etag", "last-modified", "cache-control");
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*\"?(\\d+)");
+
+    private final File directory;
+    private final long maxSize;
+    private final long ttl;
+    private final ResolverLogger logger;
+
+    /**
+     * Create a cache.
+     * @param directory The cache directory. It's created if it doesn't exist.
+     * @param maxSize The maximum size of the cached bodies, in bytes.
+     * @param ttl How long, in seconds, resources are fresh if the server doesn't say.
+     * @param logger The logger.
+     * @throws IOException if the directory can't be created.
+     */
+    public HttpCache(File directory, long maxSize, long ttl, ResolverLogger logger) throws IOException {
+        Files.createDirectories(directory.toPath());
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.logger = logger;
+    }
+
+    /**
+     * The cache directory.
+     * @return The directory.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Can this request be answered from the cache?
+     * @param request The request.
+     * @param uri The resolved URI.
+     * @return True if the request is an unconditional request for an <code>http:</code> or
+     * <code>https:</code> resource.
+     */
+    boolean cacheable(ResourceRequest request, URI uri) {
+        return ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))
+                && request.isOpenStream()
+                && request.getIfNoneMatch() == null
+                && request.getIfModifiedSince() < 0;
+    }
+
+    /**
+     * Get a resource.
+     * <p>The connection returned reads the resource from the cache, or from the server. Any
+     * resource that the server returns successfully is cached.</p>
+     * @param config The configuration.
+     * @param uri The URI.
+     * @return The connection.
+     */
+    ResourceConnection get(ResolverConfiguration config, URI uri) {
+        String key = key(uri);
+        File body = new File(directory, key + BODY);
+        File properties = new File(directory, key + PROPERTIES);
+        long now = System.currentTimeMillis();
+
+        Properties stored = load(uri, properties, body);
+        if (stored != null && now < expires(stored)) {
+            ResourceConnection cached = fromDisk(uri, stored, body);
+            if (cached != null) {
+                logger.debug("HTTP cache: fresh: %s", uri);
+                return cached;
+            }
+            stored = null;
+        }
+
+        ResourceConnection connx = new ResourceConnection(uri);
+        if (stored != null) {
+            connx.setIfNoneMatch(stored.getProperty("header.etag"));
+            long lastModified = Long.parseLong(stored.getProperty("lastModified", "-1"));
+            if (lastModified > 0) {
+                connx.setIfModifiedSince(lastModified);
+            }
+        }
+        connx.get(config, false);
+
+        if (stored != null) {
+            if (connx.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                close(connx.getStream());
+                stored.setProperty("validated", Long.toString(now));
+                String cacheControl = header(connx, "cache-control");
+                if (cacheControl != null) {
+                    stored.setProperty("header.cache-control", cacheControl);
+                }
+                try {
+                    store(key, properties, stored);
+                } catch (IOException ex) {
+                    logger.debug("HTTP cache: failed to update %s: %s", uri, ex.getMessage());
+                }
+                ResourceConnection cached = fromDisk(uri, stored, body);
+                if (cached != null) {
+                    logger.debug("HTTP cache: not modified: %s", uri);
+                    return cached;
+                }
+                // It was removed from the cache after all; ask again
+                connx = new ResourceConnection(uri);
+                connx.get(config, false);
+            } else if (!connx.isConnected() && (connx.getStatusCode() < 0 || connx.getStatusCode() >= 500)) {
+                ResourceConnection cached = fromDisk(uri, stored, body);
+                if (cached != null) {
+                    logger.debug("HTTP cache: server unavailable, using stale copy: %s", uri);
+                    return cached;
+                }
+            }
+        }
+
+        if (!connx.isConnected() || connx.getStatusCode() != HttpURLConnection.HTTP_OK || connx.getStream() == null) {
+            return connx;
+        }
+
+        String cacheControl = header(connx, "cache-control");
+        if (cacheControl != null && cacheControl.toLowerCase().contains("no-store")) {
+            return connx;
+        }
+
+        try {
+            return save(uri, key, body, properties, connx, now);
+        } catch (IOException ex) {
+            // The response has been (partly) read; read it again without the cache
+            logger.debug("HTTP cache: failed to cache %s: %s", uri, ex.getMessage());
+            ResourceConnection retry = new ResourceConnection(uri);
+            retry.get(config, false);
+            return retry;
+        }
+    }
+
+    private ResourceConnection save(URI uri, String key, File body, File properties, ResourceConnection connx,
+                                    long now) throws IOException {
+        File temp = File.createTempFile(key, ".tmp", directory);
+        long length = 0;
+        try (InputStream in = connx.getStream(); OutputStream out = new FileOutputStream(temp)) {
+            byte[] buffer = new byte[8192];
+            int count = in.read(buffer);
+            while (count >= 0) {
+                out.write(buffer, 0, count);
+                length += count;
+                count = in.read(buffer);
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(temp.toPath());
+            throw ex;
+        }
+
+        if (length > maxSize) {
+            // Too big to cache; read it from the temporary file, and then remove that
+            logger.debug("HTTP cache: too big to cache: %s", uri);
+            connx.setStream(new FileInputStream(temp) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    Files.deleteIfExists(temp.toPath());
+                }
+            });
+            return connx;
+        }
+
+        Properties stored = new Properties();
+        stored.setProperty("uri", uri.toString());
+        if (connx.getRedirect() != null) {
+            stored.setProperty("redirect", connx.getRedirect().toString());
+        }
+        if (connx.getEncoding() != null) {
+            stored.setProperty("encoding", connx.getEncoding());
+        }
+        stored.setProperty("lastModified", Long.toString(connx.getLastModified()));
+        stored.setProperty("length", Long.toString(length));
+        stored.setProperty("validated", Long.toString(now));
+        for (String name : HEADERS) {
+            String value = header(connx, name);
+            if (value != null) {
+                stored.setProperty("header." + name, value);
+            }
+        }
+
+        move(temp, body);
+        store(key, properties, stored);
+        evict(body);
+        logger.debug("HTTP cache: cached %s", uri);
+
+        ResourceConnection cached = fromDisk(uri, stored, body);
+        if (cached == null) {
+            throw new FileNotFoundException(body.toString());
+        }
+        return cached;
+    }
+
+    private long expires(Properties stored) {
+        long validated = Long.parseLong(stored.getProperty("validated", "0"));
+        long maxAge = ttl;
+        String cacheControl = stored.getProperty("header.cache-control");
+        if (cacheControl != null) {
+            Matcher match = MAX_AGE.matcher(cacheControl.toLowerCase());
+            if (cacheControl.toLowerCase().contains("no-cache")) {
+                maxAge = 0;
+            } else if (match.find()) {
+                maxAge = Long.parseLong(match.group(1));
+            }
+        }
+        return validated + (maxAge * 1000);
+    }
+
+    private ResourceConnection fromDisk(URI uri, Properties stored, File body) {
+        ResourceConnection cached = new ResourceConnection(uri);
+        try {
+            cached.setStream(new FileInputStream(body));
+        } catch (FileNotFoundException ex) {
+            return null;
+        }
+
+        // The modification time of the body is the last time it was used
+        if (!body.setLastModified(System.currentTimeMillis())) {
+            logger.debug("HTTP cache: failed to touch %s", body);
+        }
+
+        cached.setConnected(true);
+        cached.setStatusCode(HttpURLConnection.HTTP_OK);
+        if (stored.getProperty("redirect") != null) {
+            cached.setRedirect(URI.create(stored.getProperty("redirect")));
+        }
+        cached.setContentType(stored.getProperty("header.content-type"));
+        cached.setEncoding(stored.getProperty("encoding"));
+        cached.setEtag(stored.getProperty("header.etag"));
+        cached.setLastModified(Long.parseLong(stored.getProperty("lastModified", "-1")));
+        for (String name : HEADERS) {
+            String value = stored.getProperty("header." + name);
+            if (value != null) {
+                cached.getHeaders().put(name, Collections.singletonList(value));
+            }
+        }
+        return cached;
+    }
+
+    private Properties load(URI uri, File properties, File body) {
+        Properties stored = new Properties();
+        try (InputStream in = new FileInputStream(properties)) {
+            stored.load(in);
+        } catch (IOException ex) {
+            return null;
+        }
+        // Check that it's this resource (and not a hash collision), and that the body is complete
+        if (!uri.toString().equals(stored.getProperty("uri"))
+                || !Long.toString(body.length()).equals(stored.getProperty("length"))) {
+            return null;
+        }
+        return stored;
+    }
+
+    private void store(String key, File properties, Properties stored) throws IOException {
+        File temp = File.createTempFile(key, ".tmp", directory);
+        try (OutputStream out = new FileOutputStream(temp)) {
+            stored.store(out, null);
+        } catch (IOException ex) {
+            Files.deleteIfExists(temp.toPath());
+            throw ex;
+        }
+        move(temp, properties);
+    }
+
+    private void move(File from, File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private synchronized void evict(File keep) {
+        File[] bodies = directory.listFiles((dir, name) -> name.endsWith(BODY));
+        if (bodies == null) {
+            return;
+        }
+
+        long size = 0;
+        ArrayList<File> files = new ArrayList<>();
+        for (File body : bodies) {
+            size += body.length();
+            if (!body.equals(keep)) {
+                files.add(body);
+            }
+        }
+
+        files.sort(Comparator.comparingLong(File::lastModified));
+        for (File body : files) {
+            if (size <= maxSize) {
+                break;
+            }
+            long length = body.length();
+            String name = body.getName();
+            File properties = new File(directory, name.substring(0, name.length() - BODY.length()) + PROPERTIES);
+            if (body.delete()) {
+                size -= length;
+            }
+            if (!properties.delete()) {
+                logger.debug("HTTP cache: failed to remove %s", properties);
+            }
+        }
+    }
+
+    private static String header(ResourceConnection connx, String name) {
+        List<String> values = connx.getHeaders().get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static void close(InputStream stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException ex) {
+                // ignore it
+            }
+        }
+    }
+
+    private static String key(URI uri) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest(uri.toString().getBytes(StandardCharsets.UTF_8))) {
+                key.append(String.format("%02x", b & 0xff));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.xmlresolver;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of catalog lookup results.
+ * <p>The cache is divided into independently locked segments so that concurrent lookups
+ * rarely contend. Each segment evicts its least recently used result when it's full.
+ * Lookups that find nothing are cached as well.</p>
+ */
+class LookupCache {
+    /** The kinds of lookup. */
+    enum Kind { URI, PUBLIC, SYSTEM, DOCTYPE, ENTITY, NOTATION }
+
+    private static final Object MISS = new Object();
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+
+    /**
+     * LookupCache constructor.
+     * @param size The maximum number of results to cache.
+     */
+    LookupCache(int size) {
+        int count = 1;
+        while (count < MAX_SEGMENTS && count * 64 < size) {
+            count *= 2;
+        }
+        segments = new Segment[count];
+        for (int pos = 0; pos < count; pos++) {
+            // The first segments absorb any remainder so that the total is exactly size
+            segments[pos] = new Segment(size / count + (pos < size % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Look up a result, performing the search if it isn't cached.
+     * @param key The key.
+     * @param search The search to perform if the result isn't cached.
+     * @return The result, or null if the lookup found nothing.
+     */
+    URI lookup(Key key, Supplier<URI> search) {
+        Object cached = get(key);
+        if (cached != null) {
+            return cached == MISS ? null : (URI) cached;
+        }
+
+        // Don't hold the lock while searching; if two threads race, they find the same result
+        URI result = search.get();
+        put(key, result);
+        return result;
+    }
+
+    /**
+     * Look up several results, performing one search for all of the results that aren't cached.
+     * @param keys The keys.
+     * @param search Given the positions of the keys that aren't cached, returns their results in the same order.
+     * @return The results, in the same order as the keys.
+     */
+    List<URI> lookup(List<Key> keys, Function<List<Integer>, List<URI>> search) {
+        ArrayList<URI> results = new ArrayList<>(keys.size());
+        ArrayList<Integer> uncached = new ArrayList<>();
+        for (int pos = 0; pos < keys.size(); pos++) {
+            Object cached = get(keys.get(pos));
+            if (cached == null) {
+                uncached.add(pos);
+            }
+            results.add(cached == null || cached == MISS ? null : (URI) cached);
+        }
+
+        if (!uncached.isEmpty()) {
+            List<URI> found = search.apply(uncached);
+            for (int pos = 0; pos < uncached.size(); pos++) {
+                int index = uncached.get(pos);
+                put(keys.get(index), found.get(pos));
+                results.set(index, found.get(pos));
+            }
+        }
+
+        return results;
+    }
+
+    private Segment segment(Key key) {
+        return segments[(key.hash ^ (key.hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private Object get(Key key) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    private void put(Key key, URI result) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, result == null ? MISS : result);
+        }
+    }
+
+    /**
+     * The number of results in the cache.
+     * @return The number of cached results.
+     */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static class Segment {
+        private final int capacity;
+        private final LinkedHashMap<Key, Object> results = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private Object get(Key key) {
+            return results.get(key);
+        }
+
+        private void put(Key key, Object result) {
+            results.put(key, result);
+            if (results.size() > capacity) {
+                Iterator<Key> iter = results.keySet().iterator();
+                iter.next();
+                iter.remove();
+            }
+        }
+
+        private int size() {
+            return results.size();
+        }
+    }
+
+    /** The key for a cached result. Two lookups with equal keys always have the same result. */
+    static final class Key {
+        private final Kind kind;
+        private final String first;
+        private final String second;
+        private final String third;
+        private final int hash;
+
+        /**
+         * Key constructor.
+         * @param kind The kind of lookup.
+         * @param first The first identifier in the query.
+         * @param second The second identifier in the query, may be null.
+         * @param third The third identifier in the query, may be null.
+         */
+        Key(Kind kind, String first, String second, String third) {
+            this.kind = kind;
+            this.first = first;
+            this.second = second;
+            this.third = third;
+            hash = Objects.hash(kind, first, second, third);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return kind == other.kind && hash == other.hash
+                    && Objects.equals(first, other.first)
+                    && Objects.equals(second, other.second)
+                    && Objects.equals(third, other.third);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
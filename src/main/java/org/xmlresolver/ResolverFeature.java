@@ -8,6 +8,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 /**
@@ -214,7 +215,10 @@ public class ResolverFeature<T> {
      * Identifies the catalog loader class.
      *
      * <p>The default catalog loader class is usually fine. The validating class can be used
-     * to enforce schema validity checks on loaded catalogs.</p>
+     * to enforce schema validity checks on loaded catalogs. The
+     * {@link org.xmlresolver.loaders.SnapshotLoader} reads catalogs from precompiled snapshots
+     * when they're up-to-date. The {@link org.xmlresolver.loaders.StaxLoader} reads catalogs
+     * with StAX, which is faster and allocates less than SAX for large catalogs.</p>
      */
     public static final ResolverFeature<String> CATALOG_LOADER_CLASS = new ResolverFeature<>(
             "http://xmlresolver.org/feature/catalog-loader-class", "org.xmlresolver.loaders.XmlLoader");
@@ -364,7 +368,9 @@ public class ResolverFeature<T> {
      * Configure the default XML reader.
      *
      * <p>The default supplier is obtained with <code>SAXParserFactory.newInstance()</code> and
-     * the global mechanisms that it uses.</p>
+     * the global mechanisms that it uses. If the supplier hasn't been changed, catalogs and RDDL
+     * documents are parsed with reusable parsers from the {@link org.xmlresolver.utils.SaxParserPool}
+     * instead.</p>
      *
      * <p>This feature and the {@link #SAXPARSERFACTORY_CLASS} are different mechanisms for
      * configuring the same underlying feature: how does the resolver get an XML parser if it needs one? (The
@@ -403,5 +409,175 @@ public class ResolverFeature<T> {
     public static final ResolverFeature<Boolean> FIX_WINDOWS_SYSTEM_IDENTIFIERS = new ResolverFeature<>(
             "http://xmlresolver.org/feature/fix-windows-system-identifiers", false);
 
+    /**
+     * Cache the results of catalog lookups?
+     * <p>If this feature is greater than zero, the catalog manager keeps a cache of the
+     * results of <code>lookupURI</code>, <code>lookupNamespaceURI</code>, <code>lookupPublic</code>,
+     * <code>lookupSystem</code>, <code>lookupDoctype</code>, <code>lookupEntity</code>, and
+     * <code>lookupNotation</code>. The value is the maximum number of results that will be cached.
+     * Lookups that find nothing are cached too. The cache is discarded whenever the list of
+     * catalogs changes.</p>
+     */
+    public static final ResolverFeature<Integer> LOOKUP_CACHE_SIZE = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/lookup-cache-size", 0);
+
+    /**
+     * Load next and delegated catalogs in the background?
+     * <p>If this feature is true, whenever the catalog manager loads a catalog, it starts loading
+     * the catalogs identified by its <code>nextCatalog</code>, <code>delegatePublic</code>,
+     * <code>delegateSystem</code>, and <code>delegateURI</code> entries on the {@link #CATALOG_EXECUTOR}.
+     * Later lookups that need those catalogs are more likely to find them already loaded.</p>
+     * <p>Prefetching may load catalogs that would never have been searched.</p>
+     */
+    public static final ResolverFeature<Boolean> PREFETCH_CATALOGS = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/prefetch-catalogs", false);
+
+    /**
+     * The executor used to load catalogs in the background.
+     * <p>If this feature is <code>null</code>, a shared pool of daemon threads is used.</p>
+     */
+    public static final ResolverFeature<Executor> CATALOG_EXECUTOR = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/catalog-executor", (Executor) null);
+
+    /**
+     * Load all of the catalogs when the catalog manager is created?
+     * <p>If this feature is true, the catalog manager starts loading every catalog it might search
+     * as soon as it's created: the catalog files and, transitively, all of the catalogs that they refer to
+     * with <code>nextCatalog</code>, <code>delegatePublic</code>, <code>delegateSystem</code>, and
+     * <code>delegateURI</code> entries. Catalogs are loaded in parallel on the {@link #CATALOG_EXECUTOR}.
+     * The first lookup waits until they've all been loaded.
+     * See {@link CatalogManager#loadCatalogGraph()}.</p>
+     */
+    public static final ResolverFeature<Boolean> EAGER_CATALOG_LOADING = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/eager-catalog-loading", false);
+
+    /**
+     * Reload catalog files when they change?
+     * <p>If this feature is true, the catalog loader watches the directory of every <code>file:</code>
+     * catalog that it loads. When a catalog file changes, it's parsed again on a background thread and
+     * replaces the catalog that was loaded before. Lookups that are already underway finish with the
+     * catalogs they started with; later lookups use the new catalog, and any cached lookup results
+     * are discarded. If the changed catalog can't be read, the old one is kept.</p>
+     * <p>This feature is read when the catalog loader is created.</p>
+     */
+    public static final ResolverFeature<Boolean> WATCH_CATALOGS = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/watch-catalogs", false);
+
+    /**
+     * How long, in seconds, a catalog loaded over HTTP(S) is used before it's revalidated.
+     * <p>If this feature is greater than zero, the catalog loader checks <code>http:</code> and
+     * <code>https:</code> catalogs for changes once they're this old. The check is made in the
+     * background, on the {@link #CATALOG_EXECUTOR}, with a conditional request that uses the
+     * <code>ETag</code> and <code>Last-Modified</code> headers from the last response. If the catalog
+     * hasn't changed, the catalog already loaded is kept. Otherwise, the new catalog is parsed and
+     * replaces it, and any cached lookup results are discarded. Lookups use the old catalog until
+     * the new one is ready. The {@link org.xmlresolver.loaders.ValidatingXmlLoader} only replaces
+     * a catalog if the new one is valid.</p>
+     * <p>If this feature is zero, catalogs are never revalidated. This feature is read when the
+     * catalog loader is created.</p>
+     */
+    public static final ResolverFeature<Integer> REMOTE_CATALOG_TTL = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/remote-catalog-ttl", 0);
+
+    /**
+     * Share parsed catalogs across the whole JVM?
+     * <p>If this feature is true, the {@link org.xmlresolver.loaders.XmlLoader} keeps the catalogs
+     * that it parses in a cache shared by every loader in the JVM. A loader that needs a catalog
+     * another loader has already parsed, with the same {@link #PREFER_PUBLIC},
+     * {@link #ARCHIVED_CATALOGS}, {@link #MERGE_HTTPS}, {@link #FIX_WINDOWS_SYSTEM_IDENTIFIERS},
+     * and {@link #LAZY_ENTRY_URIS} settings, uses that catalog instead of parsing it again. This is
+     * useful when many configurations use the same large catalogs.</p>
+     * <p>A shared catalog doesn't belong to any one configuration, so it's built with an internal
+     * configuration that has only those settings. Messages about the content of shared catalogs,
+     * such as invalid entries, are sent to the default logger (see {@link #RESOLVER_LOGGER_CLASS},
+     * configured from the system properties), not to the {@link #RESOLVER_LOGGER} of the configuration.
+     * Messages about loading them are sent to the configuration's logger as usual.</p>
+     * <p>Catalogs aren't shared if {@link #WATCH_CATALOGS} is true or {@link #REMOTE_CATALOG_TTL}
+     * is greater than zero, because those loaders replace their catalogs independently. Shared
+     * catalogs are held softly: one that no loader is using may be discarded if memory is short.
+     * {@link org.xmlresolver.loaders.XmlLoader#clearSharedCatalogs()} discards them all. This
+     * feature is read when the catalog loader is created.</p>
+     */
+    public static final ResolverFeature<Boolean> SHARE_CATALOGS = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/share-catalogs", false);
 
+    /**
+     * Resolve the URIs in catalog entries lazily?
+     * <p>If this feature is true, the <code>uri</code> of each public, system, systemSuffix, uri,
+     * and uriSuffix entry isn't resolved against its base URI when the catalog is loaded. The entry
+     * keeps the URI as written and resolves it the first time it matches. In a very large catalog,
+     * where only a few entries are ever used, this makes loading the catalog faster and the catalog
+     * smaller. The public <code>uri</code> fields of those entries are null; use their
+     * <code>getUri()</code> methods instead. An entry with a URI that can't be resolved isn't
+     * reported until it matches.</p>
+     * <p>This feature is read when a catalog is created.</p>
+     */
+    public static final ResolverFeature<Boolean> LAZY_ENTRY_URIS = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/lazy-entry-uris", false);
+
+    /**
+     * Cache the resources that are read?
+     * <p>If this feature is greater than zero, resources that are read with the URI schemes listed in
+     * {@link #RESOURCE_CACHE_SCHEMES} are kept in memory, and later requests for the same resolved URI
+     * are read from memory. The value is the maximum number of bytes cached; when it's exceeded, the
+     * least recently used resources are discarded. Resources bigger than the cache aren't cached.</p>
+     * <p>The cache is created when the configuration first reads a resource; changing this
+     * feature after that has no effect. The hit and miss counts are available from
+     * {@link XMLResolverConfiguration#getResourceCache()}.</p>
+     */
+    public static final ResolverFeature<Integer> RESOURCE_CACHE_SIZE = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/resource-cache-size", 0);
+
+    /**
+     * The URI schemes of the resources that are cached.
+     * <p>A comma separated list of schemes, used if the {@link #RESOURCE_CACHE_SIZE} is greater than zero.
+     * A cached <code>file:</code> resource, or an entry in a <code>jar:file:</code> archive, is read again
+     * if the file has changed. Resources with other schemes, such as <code>classpath:</code>, are assumed not
+     * to change; <code>http:</code> and <code>https:</code> resources are only cached if they're listed,
+     * and then they're never revalidated. Conditional requests are never answered from the cache.</p>
+     */
+    public static final ResolverFeature<String> RESOURCE_CACHE_SCHEMES = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/resource-cache-schemes", "file,jar,classpath");
+
+    /**
+     * The directory where resources read over HTTP(S) are cached.
+     * <p>If this feature is set, the bodies of <code>http:</code> and <code>https:</code> resources are
+     * stored in this directory, with their <code>ETag</code>, <code>Last-Modified</code>, and
+     * <code>Content-Type</code> headers and the URI they were redirected to. The cache persists from
+     * one run to the next, and can be shared by several processes. A resource is read from the cache
+     * while it's fresh (see {@link #HTTP_CACHE_TTL}); after that, a conditional request checks if it
+     * has changed. If the server can't be reached, a stale copy is used. When the cache is bigger than
+     * the {@link #HTTP_CACHE_SIZE}, the resources used least recently are removed.</p>
+     * <p>Responses with <code>Cache-Control: no-store</code> aren't cached. Conditional requests
+     * (for example, the ones the catalog loader makes for {@link #REMOTE_CATALOG_TTL}) are always
+     * sent to the server. If this feature is null, nothing is cached on disk.</p>
+     */
+    public static final ResolverFeature<String> HTTP_CACHE_DIRECTORY = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/http-cache-directory", null);
+
+    /**
+     * The maximum size, in bytes, of the {@link #HTTP_CACHE_DIRECTORY}.
+     * <p>Only the resource bodies are counted. A resource bigger than the cache isn't cached.</p>
+     */
+    public static final ResolverFeature<Integer> HTTP_CACHE_SIZE = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/http-cache-size", 100 * 1024 * 1024);
+
+    /**
+     * How long, in seconds, a resource in the {@link #HTTP_CACHE_DIRECTORY} is fresh.
+     * <p>If the response had a <code>Cache-Control</code> header with <code>max-age</code> or
+     * <code>no-cache</code>, that's used instead. A resource that isn't fresh is revalidated
+     * before it's used. If this feature is zero, every use is revalidated.</p>
+     */
+    public static final ResolverFeature<Integer> HTTP_CACHE_TTL = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/http-cache-ttl", 3600);
+
+    /**
+     * A catalog snapshot for the {@link org.xmlresolver.loaders.SnapshotLoader} to read catalogs from.
+     * <p>The snapshot is in addition to the one the loader looks for next to each catalog. It can be
+     * any URI the resolver can read, for example a <code>classpath:</code> URI for a snapshot shipped
+     * in a jar; a relative URI is resolved against the current directory. Other loaders ignore this
+     * feature. If it's null, only the snapshots next to the catalogs are read.</p>
+     */
+    public static final ResolverFeature<String> CATALOG_SNAPSHOT = new ResolverFeature<>(
+            "http://xmlresolver.org/feature/catalog-snapshot", null);
 }
@@ -5,8 +5,10 @@ import org.xmlresolver.spi.SchemeResolver;
 import org.xmlresolver.spi.SchemeResolverManager;
 import org.xmlresolver.spi.SchemeResolverProvider;
 import org.xmlresolver.utils.URIUtils;
+import org.xmlresolver.utils.ZipArchive;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
@@ -24,14 +26,43 @@ public class ResourceAccess {
     protected final ResolverLogger logger;
     final Map<String, ArrayList<SchemeResolver>> schemeResolvers = new HashMap<>();
     private boolean loadedSPI = false;
+    private final ResourceCache cache;
+    private final HttpCache httpCache;
 
     /**
      * Make a new ResourceAccess object with the specified configuration.
-     * <p>The configuration is used to determine the appropriate {@link ResolverLogger}.</p>
+     * <p>The configuration is used to determine the appropriate {@link ResolverLogger}, and
+     * whether resources are cached.</p>
      * @param config The XML Resolver configuration to use.
      */
     public ResourceAccess(XMLResolverConfiguration config) {
         logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
+        int cacheSize = config.getFeature(ResolverFeature.RESOURCE_CACHE_SIZE);
+        if (cacheSize > 0) {
+            cache = new ResourceCache(cacheSize, config.getFeature(ResolverFeature.RESOURCE_CACHE_SCHEMES));
+        } else {
+            cache = null;
+        }
+
+        HttpCache diskCache = null;
+        String directory = config.getFeature(ResolverFeature.HTTP_CACHE_DIRECTORY);
+        if (directory != null) {
+            try {
+                diskCache = new HttpCache(new File(directory), config.getFeature(ResolverFeature.HTTP_CACHE_SIZE),
+                        config.getFeature(ResolverFeature.HTTP_CACHE_TTL), logger);
+            } catch (IOException ex) {
+                logger.warn("Cannot use HTTP cache directory %s: %s", directory, ex.getMessage());
+            }
+        }
+        httpCache = diskCache;
+    }
+
+    /**
+     * The resource cache.
+     * @return The cache, or null if the {@link ResolverFeature#RESOURCE_CACHE_SIZE} is zero.
+     */
+    public ResourceCache getCache() {
+        return cache;
     }
 
     /**
@@ -107,6 +138,28 @@ public class ResourceAccess {
     }
 
     private ResourceResponse getResourceFromURI(ResourceRequest request, URI uri) throws URISyntaxException, IOException {
+        if (cache == null || !cache.cacheable(request, uri)) {
+            return readResource(request, uri);
+        }
+
+        ResourceResponse cached = cache.get(request, uri);
+        if (cached != null) {
+            String scheme = uri.getScheme();
+            boolean schemeResolved;
+            synchronized (schemeResolvers) {
+                schemeResolved = schemeResolvers.containsKey(scheme) && !schemeResolvers.get(scheme).isEmpty();
+            }
+            if (!"jar".equals(scheme) && !"classpath".equals(scheme) && !schemeResolved) {
+                // The access rules still apply to resources that have already been read
+                checkAccess(request, uri);
+            }
+            return cached;
+        }
+
+        return cache.put(request, uri, readResource(request, uri));
+    }
+
+    private ResourceResponse readResource(ResourceRequest request, URI uri) throws URISyntaxException, IOException {
         switch (uri.getScheme()) {
             case "data":
                 return getDataResource(request, uri);
@@ -242,8 +295,17 @@ public class ResourceAccess {
     private static ResourceResponse getJarResource(ResourceRequest request, URI resourceURI) {
         try {
             ResourceResponseImpl resp = new ResourceResponseImpl(request, resourceURI);
-            JarURLConnection conn = (JarURLConnection) resourceURI.toURL().openConnection();
             resp.setUri(request.getAbsoluteURI());
+            ZipArchive archive = ZipArchive.open(resourceURI);
+            if (archive != null) {
+                // Read from the archive that's already open instead of opening it again
+                String name = ZipArchive.entryName(resourceURI);
+                resp.setInputStream(archive.getInputStream(name));
+                String contentType = URLConnection.guessContentTypeFromName(name);
+                resp.setContentType(contentType == null ? "content/unknown" : contentType);
+                return resp;
+            }
+            JarURLConnection conn = (JarURLConnection) resourceURI.toURL().openConnection();
             resp.setInputStream(conn.getInputStream());
             resp.setEncoding(conn.getContentEncoding());
             resp.setContentType(conn.getContentType());
@@ -261,7 +323,36 @@ public class ResourceAccess {
         }
     }
 
-    private static ResourceResponse getNetResource(ResourceRequest request, URI resourceURI) {
+    private ResourceResponse getNetResource(ResourceRequest request, URI resourceURI) {
+        checkAccess(request, resourceURI);
+
+        ResourceConnection connx;
+        if (httpCache != null && httpCache.cacheable(request, resourceURI)) {
+            connx = httpCache.get(request.getConfiguration(), resourceURI);
+        } else {
+            connx = new ResourceConnection(resourceURI);
+            connx.setIfNoneMatch(request.getIfNoneMatch());
+            connx.setIfModifiedSince(request.getIfModifiedSince());
+            connx.get(request.getConfiguration(), !request.isOpenStream());
+        }
+        URI redirect = connx.getRedirect();
+        URI uri = redirect == null ? resourceURI : redirect;
+        ResourceResponseImpl resp = new ResourceResponseImpl(request, uri);
+        resp.setResolved(connx.isConnected());
+        resp.setResolvedURI(uri);
+        resp.setConnection(connx);
+        resp.setInputStream(connx.getStream());
+        resp.setHeaders(connx.getHeaders());
+        resp.setContentType(connx.getContentType());
+        resp.setEncoding(connx.getEncoding());
+        resp.setStatusCode(connx.getStatusCode());
+        if (connx.getStatusCode() >= 400) {
+            resp.setResolved(false);
+        }
+        return resp;
+    }
+
+    private static void checkAccess(ResourceRequest request, URI resourceURI) {
         ResolverConfiguration config = request.getConfiguration();
         ResolverLogger logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
 
@@ -286,25 +377,5 @@ public class ResourceAccess {
                 throw new IllegalArgumentException("resolveURI, access denied: " + resourceURI);
             }
         }
-
-        ResourceConnection connx = new ResourceConnection(resourceURI);
-        connx.get(request.getConfiguration(), !request.isOpenStream());
-        URI redirect = connx.getRedirect();
-        URI uri = redirect == null ? resourceURI : redirect;
-        ResourceResponseImpl resp = new ResourceResponseImpl(request, uri);
-        resp.setResolved(connx.isConnected());
-        resp.setResolvedURI(uri);
-        resp.setConnection(connx);
-        resp.setInputStream(connx.getStream());
-        resp.setHeaders(connx.getHeaders());
-        resp.setContentType(connx.getContentType());
-        resp.setEncoding(connx.getEncoding());
-        resp.setStatusCode(connx.getStatusCode());
-        if (connx.getStatusCode() >= 400) {
-            resp.setResolved(false);
-        }
-        return resp;
     }
 }
-
-
@@ -0,0 +1,291 @@
+package org.xmlresolver;
+
+import org.xmlresolver.utils.ZipArchive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory cache of the resources read by {@link ResourceAccess}.
+ *
+ * <p>Resources are cached by their resolved URI. The cache holds at most a fixed number of bytes;
+ * when it's full, the least recently used resources are discarded. Only the URI schemes in the
+ * {@link ResolverFeature#RESOURCE_CACHE_SCHEMES} are cached. A <code>file:</code> resource, or an
+ * entry in a <code>jar:file:</code> archive, is read again if the modification time or the size
+ * of the file has changed.</p>
+ *
+ * <p>Cached resources are returned with a new {@link ByteArrayInputStream} for each request.</p>
+ */
+public class ResourceCache {
+    private final long maxSize;
+    private final Set<String> schemes;
+    private final LinkedHashMap<URI, CachedResource> resources = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    /**
+     * Create a cache.
+     * @param maxSize The maximum number of bytes cached.
+     * @param schemes A comma separated list of the URI schemes that are cached.
+     */
+    public ResourceCache(long maxSize, String schemes) {
+        this.maxSize = maxSize;
+        this.schemes = new HashSet<>();
+        for (String scheme : schemes.split(",")) {
+            if (!scheme.trim().isEmpty()) {
+                this.schemes.add(scheme.trim().toLowerCase());
+            }
+        }
+    }
+
+    /**
+     * Is this request for a resource that can be cached?
+     * @param request The request.
+     * @param uri The resolved URI.
+     * @return True if the response can come from the cache.
+     */
+    boolean cacheable(ResourceRequest request, URI uri) {
+        // Conditional requests want to know about the resource, not the cache
+        return schemes.contains(uri.getScheme().toLowerCase())
+                && request.getIfNoneMatch() == null
+                && request.getIfModifiedSince() < 0;
+    }
+
+    /**
+     * Get a cached resource.
+     * @param request The request.
+     * @param uri The resolved URI.
+     * @return A response that reads the cached resource, or null if it isn't cached.
+     * @throws URISyntaxException if the request URI is invalid.
+     */
+    ResourceResponse get(ResourceRequest request, URI uri) throws URISyntaxException {
+        CachedResource cached;
+        synchronized (resources) {
+            cached = resources.get(uri);
+            if (cached != null && !cached.isCurrent()) {
+                resources.remove(uri);
+                size -= cached.body.length;
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return cached.response(request);
+    }
+
+    /**
+     * Cache a resource.
+     * <p>If the response is successful, its stream is read into memory and cached, and a
+     * response that reads the cached bytes is returned. If the resource is too big, it isn't
+     * cached, and the response returned reads it from where it is.</p>
+     * @param request The request.
+     * @param uri The resolved URI.
+     * @param resp The response.
+     * @return The response to return to the caller.
+     * @throws IOException if the resource can't be read.
+     * @throws URISyntaxException if the request URI is invalid.
+     */
+    ResourceResponse put(ResourceRequest request, URI uri, ResourceResponse resp) throws IOException, URISyntaxException {
+        if (!resp.isResolved() || resp.getInputStream() == null || resp.getStatusCode() >= 300) {
+            return resp;
+        }
+
+        // Look at the file before it's read; if it changes while it's being read, the next request notices
+        File file = validationFile(uri);
+        if (file == null && ("file".equals(uri.getScheme()) || ZipArchive.entryName(uri) != null)) {
+            return resp;
+        }
+        long modified = file == null ? 0 : file.lastModified();
+        long length = file == null ? 0 : file.length();
+
+        InputStream stream = resp.getInputStream();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int count = stream.read(chunk);
+        while (count >= 0) {
+            buffer.write(chunk, 0, count);
+            if (buffer.size() > maxSize) {
+                // Too big; read the rest from where it is
+                ResourceResponseImpl uncached = copy(resp);
+                uncached.setInputStream(new SequenceInputStream(new ByteArrayInputStream(buffer.toByteArray()), stream));
+                return uncached;
+            }
+            count = stream.read(chunk);
+        }
+        stream.close();
+
+        CachedResource cached = new CachedResource(request, resp, buffer.toByteArray(), file, modified, length);
+        synchronized (resources) {
+            CachedResource replaced = resources.put(uri, cached);
+            if (replaced != null) {
+                size -= replaced.body.length;
+            }
+            size += cached.body.length;
+            Iterator<CachedResource> iter = resources.values().iterator();
+            while (size > maxSize && iter.hasNext()) {
+                size -= iter.next().body.length;
+                iter.remove();
+            }
+        }
+        return cached.response(request);
+    }
+
+    /**
+     * Discard everything in the cache.
+     */
+    public void clear() {
+        synchronized (resources) {
+            resources.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * The number of requests answered from the cache.
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * The number of cacheable requests that weren't answered from the cache.
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * The number of bytes cached.
+     * @return The size of the cached resources.
+     */
+    public long getSize() {
+        synchronized (resources) {
+            return size;
+        }
+    }
+
+    /**
+     * The maximum number of bytes cached.
+     * @return The maximum size.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * The number of resources cached.
+     * @return The number of resources.
+     */
+    public int getResourceCount() {
+        synchronized (resources) {
+            return resources.size();
+        }
+    }
+
+    private static File validationFile(URI uri) {
+        try {
+            if ("file".equals(uri.getScheme())) {
+                return new File(uri);
+            }
+            if (ZipArchive.entryName(uri) != null) {
+                String spec = uri.getRawSchemeSpecificPart();
+                return new File(URI.create(spec.substring(0, spec.indexOf("!/"))));
+            }
+        } catch (IllegalArgumentException ex) {
+            // For example, a file: URI with an authority or a query
+        }
+        return null;
+    }
+
+    private static ResourceResponseImpl copy(ResourceResponse resp) {
+        ResourceResponseImpl copy = new ResourceResponseImpl(resp.getRequest(), resp.getUnmaskedURI());
+        copy.setUri(resp.getURI());
+        copy.setResolved(resp.isResolved());
+        copy.setConnection(resp.getConnection());
+        copy.setHeaders(resp.getHeaders());
+        copy.setContentType(resp.getContentType());
+        copy.setEncoding(resp.getEncoding());
+        copy.setStatusCode(resp.getStatusCode());
+        return copy;
+    }
+
+    private static class CachedResource {
+        private final URI uri;
+        private final URI resolvedURI;
+        private final boolean requestURI;
+        private final Map<String, List<String>> headers;
+        private final String contentType;
+        private final String encoding;
+        private final int statusCode;
+        private final ResourceConnection connection;
+        private final byte[] body;
+        private final File file;
+        private final long modified;
+        private final long length;
+
+        private CachedResource(ResourceRequest request, ResourceResponse resp, byte[] body,
+                               File file, long modified, long length) throws URISyntaxException {
+            uri = resp.getURI();
+            resolvedURI = resp.getUnmaskedURI();
+            // Some responses report the URI of the request; later requests may have a different one
+            requestURI = uri != null && uri.equals(request.getAbsoluteURI());
+            headers = new HashMap<>(resp.getHeaders());
+            contentType = resp.getContentType();
+            encoding = resp.getEncoding();
+            statusCode = resp.getStatusCode();
+            connection = resp.getConnection();
+            this.body = body;
+            this.file = file;
+            this.modified = modified;
+            this.length = length;
+        }
+
+        private boolean isCurrent() {
+            return file == null || (file.lastModified() == modified && file.length() == length);
+        }
+
+        private ResourceResponse response(ResourceRequest request) throws URISyntaxException {
+            ResourceResponseImpl resp = new ResourceResponseImpl(request, resolvedURI);
+            resp.setUri(requestURI ? request.getAbsoluteURI() : uri);
+            resp.setHeaders(headers);
+            resp.setContentType(contentType);
+            resp.setEncoding(encoding);
+            resp.setStatusCode(statusCode);
+            resp.setInputStream(new ByteArrayInputStream(body));
+            if (connection != null) {
+                // The validators of the response, but not its stream
+                ResourceConnection detached = new ResourceConnection(connection.getUri());
+                detached.setRedirect(connection.getRedirect());
+                detached.setStatusCode(connection.getStatusCode());
+                detached.setHeaders(connection.getHeaders());
+                detached.setContentType(connection.getContentType());
+                detached.setEncoding(connection.getEncoding());
+                detached.setEtag(connection.getEtag());
+                detached.setLastModified(connection.getLastModified());
+                detached.setDate(connection.getDate());
+                resp.setConnection(detached);
+            }
+            return resp;
+        }
+    }
+}
@@ -37,6 +37,8 @@ public class ResourceConnection {
     private String etag = null;
     private Long lastModified = -1L;
     private Long date = -1L;
+    private String ifNoneMatch = null;
+    private long ifModifiedSince = -1;
     private final Map<String,List<String>> headers = new HashMap<> ();
     private boolean connected = false;
 
@@ -92,6 +94,12 @@ public class ResourceConnection {
                     } else {
                         httpConnection.setRequestMethod("GET");
                     }
+                    if (ifNoneMatch != null) {
+                        httpConnection.setRequestProperty("If-None-Match", ifNoneMatch);
+                    }
+                    if (ifModifiedSince >= 0) {
+                        httpConnection.setIfModifiedSince(ifModifiedSince);
+                    }
                     httpConnection.connect();
 
                     statusCode = httpConnection.getResponseCode();
@@ -237,6 +245,26 @@ public class ResourceConnection {
         this.etag = etag;
     }
 
+    /**
+     * Make the request conditional on the entity tag.
+     * <p>If the resource is retrieved over HTTP(S), the request includes an <code>If-None-Match</code>
+     * header. If the resource hasn't changed, the status code is 304 and the stream is empty.</p>
+     * @param etag The entity tag of the resource previously retrieved, or null for an unconditional request.
+     */
+    public void setIfNoneMatch(String etag) {
+        ifNoneMatch = etag;
+    }
+
+    /**
+     * Make the request conditional on the last modified time.
+     * <p>If the resource is retrieved over HTTP(S), the request includes an <code>If-Modified-Since</code>
+     * header. If the resource hasn't changed, the status code is 304 and the stream is empty.</p>
+     * @param time The last modified time of the resource previously retrieved, or -1 for an unconditional request.
+     */
+    public void setIfModifiedSince(long time) {
+        ifModifiedSince = time;
+    }
+
     /**
      * Get the URI of the request.
      * @return The URI of the request.
@@ -323,6 +351,15 @@ public class ResourceConnection {
         return connected;
     }
 
+    /**
+     * Set the connected status.
+     * <p>This is used by the {@link HttpCache} when it provides the stream.</p>
+     * @param connected The status.
+     */
+    void setConnected(boolean connected) {
+        this.connected = connected;
+    }
+
     private String getEncoding(String contentType) {
         // text/plain; charset=iso-8859-1
         if (contentType != null) {
@@ -180,4 +180,26 @@ public interface ResourceRequest {
      * @param open true if the open stream should be returned
      */
     void setOpenStream(boolean open);
+
+    /**
+     * The entity tag for a conditional request.
+     * <p>If this is not null, and the resource is retrieved over HTTP(S), the request includes
+     * an <code>If-None-Match</code> header with this value. If the resource hasn't changed, the
+     * response has the status code 304 and an empty stream.</p>
+     * @return the entity tag; the default implementation returns null.
+     */
+    default String getIfNoneMatch() {
+        return null;
+    }
+
+    /**
+     * The last modified time for a conditional request.
+     * <p>If this is not negative, and the resource is retrieved over HTTP(S), the request includes
+     * an <code>If-Modified-Since</code> header with this value. If the resource hasn't changed, the
+     * response has the status code 304 and an empty stream.</p>
+     * @return the time, in milliseconds since the epoch; the default implementation returns -1.
+     */
+    default long getIfModifiedSince() {
+        return -1;
+    }
 }
@@ -24,6 +24,8 @@ public class ResourceRequestImpl implements ResourceRequest {
     private boolean openStream = true;
     private boolean resolveAsEntity = false;
     private boolean alwaysResolve = false;
+    private String ifNoneMatch = null;
+    private long ifModifiedSince = -1;
 
     /**
      * ResourceRequest constructor.
@@ -200,6 +202,34 @@ public class ResourceRequestImpl implements ResourceRequest {
         return openStream;
     }
 
+    @Override
+    public String getIfNoneMatch() {
+        return ifNoneMatch;
+    }
+
+    /**
+     * Make the request conditional on the entity tag.
+     * See {@link #getIfNoneMatch()}.
+     * @param etag The entity tag of the resource previously retrieved, or null.
+     */
+    public void setIfNoneMatch(String etag) {
+        ifNoneMatch = etag;
+    }
+
+    @Override
+    public long getIfModifiedSince() {
+        return ifModifiedSince;
+    }
+
+    /**
+     * Make the request conditional on the last modified time.
+     * See {@link #getIfModifiedSince()}.
+     * @param time The last modified time of the resource previously retrieved, or -1.
+     */
+    public void setIfModifiedSince(long time) {
+        ifModifiedSince = time;
+    }
+
     @Override
     public String toString() {
         String str = entityName == null ? "" : entityName + ": ";
@@ -7,17 +7,24 @@ import org.xml.sax.helpers.DefaultHandler;
 import org.xmlresolver.adapters.*;
 import org.xmlresolver.logging.ResolverLogger;
 import org.xmlresolver.sources.ResolverSAXSource;
+import org.xmlresolver.utils.SaxParserPool;
 import org.xmlresolver.utils.URIUtils;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Source;
 import javax.xml.transform.URIResolver;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Stack;
+import java.util.function.Supplier;
 
 /**
  * The XML Resolver.
@@ -425,6 +432,63 @@ public class XMLResolver {
         return new ResourceResponseImpl(request, resolved);
     }
 
+    /**
+     * Lookup several resource requests in the catalog.
+     * <p>Each request is looked up as if by {@link #lookup(ResourceRequest)}, but the catalog
+     * lookups for all of the requests are performed together. The catalogs are searched once
+     * for the first lookup that each request needs, once more for the requests that need
+     * a second lookup (for example, with a URI made absolute), and so on. The delegated and
+     * next catalogs are loaded and searched once for the whole batch.</p>
+     * <p>If looking up any of the requests would throw an exception, that exception is thrown.</p>
+     * <p>This method does not attempt to resolve the resources beyond finding them in the catalog.</p>
+     * @param requests The requests.
+     * @return The responses, in the same order as the requests.
+     */
+    public List<ResourceResponse> lookup(Collection<ResourceRequest> requests) {
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        ArrayList<RequestLookups> batch = new ArrayList<>();
+        for (ResourceRequest request : requests) {
+            batch.add(new RequestLookups(request, manager));
+        }
+
+        HashMap<CatalogManager.Lookup, URI> found = new HashMap<>();
+        CatalogManager.Lookup[] pending = new CatalogManager.Lookup[batch.size()];
+        boolean searching = true;
+        while (searching) {
+            // Collect the next lookup that each unfinished request needs
+            LinkedHashSet<CatalogManager.Lookup> needed = new LinkedHashSet<>();
+            for (int pos = 0; pos < batch.size(); pos++) {
+                pending[pos] = batch.get(pos).next();
+                if (pending[pos] != null && !found.containsKey(pending[pos])) {
+                    needed.add(pending[pos]);
+                }
+            }
+
+            if (!needed.isEmpty()) {
+                ArrayList<CatalogManager.Lookup> lookups = new ArrayList<>(needed);
+                List<URI> results = manager.search(lookups);
+                for (int pos = 0; pos < lookups.size(); pos++) {
+                    found.put(lookups.get(pos), results.get(pos));
+                }
+            }
+
+            // Then move each request on to its next step
+            searching = false;
+            for (int pos = 0; pos < batch.size(); pos++) {
+                if (pending[pos] != null) {
+                    batch.get(pos).found(found.get(pending[pos]));
+                    searching = true;
+                }
+            }
+        }
+
+        ArrayList<ResourceResponse> result = new ArrayList<>();
+        for (RequestLookups lookups : batch) {
+            result.add(lookups.response());
+        }
+        return result;
+    }
+
     /**
      * Attempts to resolve a request.
      * <p>This method searches for the resource identified by the request in the catalog.</p>
@@ -507,11 +571,6 @@ public class XMLResolver {
 
     private URI checkRddl(URI uri, String nature, String purpose) {
         try {
-            SAXParserFactory spf = SAXParserFactory.newInstance();
-            spf.setNamespaceAware(true);
-            spf.setValidating(false);
-            spf.setXIncludeAware(false);
-
             ResourceRequest req = new ResourceRequestImpl(config, nature, purpose);
             req.setURI(uri.toString());
 
@@ -524,8 +583,13 @@ public class XMLResolver {
                     || contentType.startsWith("application/xhtml+xml"))) {
                 InputSource source = new InputSource(rsrc.getInputStream());
                 RddlQuery handler = new RddlQuery(rsrc.getURI(), nature, purpose);
-                SAXParser parser = spf.newSAXParser();
-                parser.parse(source, handler);
+                SaxParserPool pool = SaxParserPool.getDefault();
+                SAXParser parser = pool.acquire();
+                try {
+                    parser.parse(source, handler);
+                } finally {
+                    pool.release(parser);
+                }
                 return handler.href();
             } else {
                 return null;
@@ -632,6 +696,216 @@ public class XMLResolver {
         return null;
     }
 
+    /**
+     * The catalog lookups that answer a request in a batch, one step at a time.
+     *
+     * <p>{@link #next()} returns the next lookup the request needs, and {@link #found(URI)} gives
+     * it the result. When <code>next()</code> returns null, the {@link #response()} is ready. The
+     * first lookup that finds something answers the request.</p>
+     *
+     * <p>The steps are the same as those of {@link #lookup(ResourceRequest)}: a URI lookup, an entity
+     * lookup, and a document type lookup, depending on the nature of the request. Each part tries the
+     * URI as given, and then made absolute. A later part is only started if the earlier ones didn't
+     * resolve the request. Access checks, and the exceptions they throw, happen when the step that
+     * needs them is reached.</p>
+     */
+    private class RequestLookups {
+        private final ResourceRequest request;
+        private final CatalogManager manager;
+        private final ArrayDeque<Runnable> parts = new ArrayDeque<>();
+        private final ArrayDeque<Supplier<CatalogManager.Lookup>> steps = new ArrayDeque<>();
+        private Supplier<ResourceResponse> otherwise = null;
+        private String label = null;
+        private URI absolute = null;
+        private ResourceResponse response = null;
+
+        private RequestLookups(ResourceRequest request, CatalogManager manager) {
+            this.request = request;
+            this.manager = manager;
+            if (ResolverConstants.DTD_NATURE.equals(request.getNature())) {
+                parts.add(this::lookupDtd);
+            } else if (ResolverConstants.EXTERNAL_ENTITY_NATURE.equals(request.getNature())) {
+                parts.add(this::lookupEntity);
+            } else {
+                parts.add(this::lookupUri);
+                if (request.getNature() == null) { // == ResolverConstants.ANY_NATURE :-(
+                    // What about an entity?
+                    parts.add(this::lookupEntity);
+                    if (request.getEntityName() != null) {
+                        // What about a DTD then?
+                        parts.add(this::lookupDtd);
+                    }
+                }
+            }
+        }
+
+        /**
+         * The next lookup.
+         * @return The next lookup the request needs, or null if the response is ready.
+         */
+        private CatalogManager.Lookup next() {
+            while (response == null) {
+                if (!steps.isEmpty()) {
+                    CatalogManager.Lookup lookup = steps.remove().get();
+                    if (lookup != null) {
+                        return lookup;
+                    }
+                } else if (otherwise != null) {
+                    ResourceResponse unresolved = otherwise.get();
+                    otherwise = null;
+                    if (unresolved.isResolved() || parts.isEmpty()) {
+                        response = unresolved;
+                    }
+                } else {
+                    parts.remove().run();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * The result of the last lookup.
+         * @param found The URI found, or null if the lookup didn't find anything.
+         */
+        private void found(URI found) {
+            if (found != null) {
+                logger.debug("%s: %s", label, found);
+                response = new ResourceResponseImpl(request, found);
+            }
+        }
+
+        private ResourceResponse response() {
+            return response;
+        }
+
+        private void lookupDtd() {
+            String name = request.getEntityName();
+            String publicId = request.getPublicId();
+            String systemId = request.getSystemId();
+            String baseUri = request.getBaseURI();
+
+            if (name == null) {
+                throw new NullPointerException("Name must not be null for DTD lookup");
+            }
+
+            logger.debug( "lookupDoctype: %s %s (baseURI: %s, publicId: %s)", name, systemId, baseUri, publicId);
+
+            label = "lookupDoctype";
+            absolute = null;
+            steps.add(() -> manager.doctypeLookup(name, systemId, publicId));
+            if (baseUri != null) {
+                steps.add(() -> {
+                    URI absuri = makeAbsolute(request);
+                    return absuri == null ? null : manager.doctypeLookup(name, absuri.toString(), publicId);
+                });
+            }
+            otherwise = () -> {
+                logger.debug("lookupDoctype: null");
+                return new ResourceResponseImpl(request);
+            };
+        }
+
+        private void lookupEntity() {
+            String name = request.getEntityName();
+            String publicId = request.getPublicId();
+            String systemId = request.getSystemId();
+            String baseUri = request.getBaseURI();
+
+            String allowed = config.getFeature(ResolverFeature.ACCESS_EXTERNAL_ENTITY);
+            boolean uriForSystem = config.getFeature(ResolverFeature.URI_FOR_SYSTEM);
+
+            label = "lookupEntity";
+            absolute = null;
+            otherwise = this::unresolved;
+
+            if (name == null && publicId == null && systemId == null && baseUri == null) {
+                return;
+            }
+
+            URI systemIdURI = makeUri(systemId);
+            if (systemIdURI != null) {
+                if (systemIdURI.isAbsolute()) {
+                    if (URIUtils.forbidAccess(allowed, systemId, config.getFeature(ResolverFeature.MERGE_HTTPS))) {
+                        logger.debug("lookupEntity (access denied): %s", systemIdURI.toString());
+                        throw new IllegalArgumentException("lookupEntity (access denied): " + systemIdURI);
+                    }
+                }
+            }
+
+            logger.debug("lookupEntity: %s%s (baseURI: %s, publicId: %s)", (name == null ? "" : name + " "), systemId, baseUri, publicId);
+
+            steps.add(() -> manager.entityLookup(name, systemId, publicId));
+            if (systemId != null && uriForSystem) {
+                steps.add(() -> manager.uriLookup(systemId, null, null));
+            }
+            steps.add(() -> {
+                absolute = makeAbsolute(request);
+                if (absolute == null) {
+                    return null;
+                }
+                if (URIUtils.forbidAccess(allowed, absolute.toString(), config.getFeature(ResolverFeature.MERGE_HTTPS))) {
+                    logger.debug("lookupEntity: (access denied): " + absolute);
+                    throw new IllegalArgumentException("lookupEntity (access denied): " + absolute);
+                }
+                return manager.entityLookup(name, absolute.toString(), publicId);
+            });
+            if (uriForSystem) {
+                steps.add(() -> absolute == null ? null : manager.uriLookup(absolute.toString(), null, null));
+            }
+        }
+
+        private void lookupUri() {
+            String systemId = request.getSystemId();
+            String baseUri = request.getBaseURI();
+
+            String allowed = config.getFeature(ResolverFeature.ACCESS_EXTERNAL_DOCUMENT);
+
+            label = "lookupUri";
+            absolute = null;
+            otherwise = this::unresolved;
+
+            if (systemId == null && baseUri == null) {
+                return;
+            }
+
+            String uri = systemId == null ? baseUri : systemId;
+
+            URI systemIdURI = makeUri(uri);
+            if (systemIdURI != null) {
+                if (systemIdURI.isAbsolute()) {
+                    if (URIUtils.forbidAccess(allowed, uri, config.getFeature(ResolverFeature.MERGE_HTTPS))) {
+                        logger.debug("lookupUri (access denied): " + uri);
+                        throw new IllegalArgumentException("lookupUri (access denied): " + uri);
+                    }
+                }
+            }
+
+            logger.debug("lookupUri: %s (baseURI: %s)", uri, baseUri);
+
+            steps.add(() -> manager.uriLookup(uri, request.getNature(), request.getPurpose()));
+            steps.add(() -> {
+                absolute = makeAbsolute(request);
+                if (absolute == null) {
+                    return null;
+                }
+                if (URIUtils.forbidAccess(allowed, absolute.toString(), config.getFeature(ResolverFeature.MERGE_HTTPS))) {
+                    logger.debug("lookupUri (access denied): " + absolute);
+                    throw new IllegalArgumentException("lookupUri (access denied): " + absolute);
+                }
+                return manager.uriLookup(absolute.toString(), request.getNature(), request.getPurpose());
+            });
+        }
+
+        private ResourceResponse unresolved() {
+            if (request.isAlwaysResolve() && absolute != null) {
+                logger.debug("%s: %s", label, absolute);
+                return new ResourceResponseImpl(request, absolute);
+            }
+            logger.debug("%s: null", label);
+            return new ResourceResponseImpl(request);
+        }
+    }
+
     private static class RddlQuery extends DefaultHandler {
         private final String nature;
         private final String purpose;
@@ -22,6 +22,7 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 /**
@@ -78,6 +79,11 @@ import java.util.function.Supplier;
  * <td>catalog-additions</td>
  * <td>List of strings²</td>
  * </tr>
+ * <tr><th>{@link ResolverFeature#CATALOG_EXECUTOR}</th>
+ * <td>-</td>
+ * <td>-</td>
+ * <td>Executor</td>
+ * </tr>
  * <tr><th>{@link ResolverFeature#CATALOG_FILES}</th>
  * <td>xml.catalog.files</td>
  * <td>catalogs</td>
@@ -88,16 +94,51 @@ import java.util.function.Supplier;
  * <td>catalog-loader-class</td>
  * <td>String</td>
  * </tr>
+ * <tr><th>{@link ResolverFeature#CATALOG_SNAPSHOT}</th>
+ * <td>xml.catalog.snapshot</td>
+ * <td>catalog-snapshot</td>
+ * <td>String</td>
+ * </tr>
  * <tr><th>{@link ResolverFeature#CLASSPATH_CATALOGS}</th>
  * <td>xml.catalog.classpathCatalogs</td>
  * <td>classpath-catalogs</td>
  * <td>String</td>
  * </tr>
+ * <tr><th>{@link ResolverFeature#EAGER_CATALOG_LOADING}</th>
+ * <td>xml.catalog.eagerCatalogLoading</td>
+ * <td>eager-catalog-loading</td>
+ * <td>Boolean¹</td>
+ * </tr>
+ * <tr><th>{@link ResolverFeature#HTTP_CACHE_DIRECTORY}</th>
+ * <td>xml.catalog.httpCacheDirectory</td>
+ * <td>http-cache-directory</td>
+ * <td>String</td>
+ * </tr>
+ * <tr><th>{@link ResolverFeature#HTTP_CACHE_SIZE}</th>
+ * <td>xml.catalog.httpCacheSize</td>
+ * <td>http-cache-size</td>
+ * <td>Integer</td>
+ * </tr>
+ * <tr><th>{@link ResolverFeature#HTTP_CACHE_TTL}</th>
+ * <td>xml.catalog.httpCacheTtl</td>
+ * <td>http-cache-ttl</td>
+ * <td>Integer</td>
+ * </tr>
+ * <tr><th>{@link ResolverFeature#LAZY_ENTRY_URIS}</th>
+ * <td>xml.catalog.lazyEntryUris</td>
+ * <td>lazy-entry-uris</td>
+ * <td>Boolean¹</td>
+ * </tr>
  * <tr><th>{@link ResolverFeature#LOGGER_LOG_LEVEL}</th>
  * <td>xml.catalog.defaultLoggerLogLevel</td>
  * <td>default-logger-log-level</td>
  * <td>String</td>
  * </tr>
+ * <tr><th>{@link ResolverFeature#LOOKUP_CACHE_SIZE}</th>
+ * <td>xml.catalog.lookupCacheSize</td>
+ * <td>lookup-cache-size</td>
+ * <td>Integer</td>
+ * </tr>
  * <tr><th>{@link ResolverFeature#MASK_JAR_URIS}</th>
  * <td>xml.catalog.maskJarUris</td>
  * <td>mask-jar-uris</td>
@@ -123,16 +164,41 @@ import java.util.function.Supplier;
  * <td>prefer</td>
  * <td>"<code>public</code>" or "<code>system</code>"³</td>
  * </tr>
+ * <tr><th>{@link ResolverFeature#PREFETCH_CATALOGS}</th>
+ * <td>xml.catalog.prefetchCatalogs</td>
+ * <td>prefetch-catalogs</td>
+ * <td>Boolean¹</td>
+ * </tr>
+ * <tr><th>{@link ResolverFeature#REMOTE_CATALOG_TTL}</th>
+ * <td>xml.catalog.remoteCatalogTtl</td>
+ * <td>remote-catalog-ttl</td>
+ * <td>Integer</td>
+ * </tr>
  * <tr><th>{@link ResolverFeature#RESOLVER_LOGGER_CLASS}</th>
  * <td>xml.catalog.resolverLoggerClass</td>
  * <td>resolver-logger-class</td>
  * <td>String</td>
  * </tr>
+ * <tr><th>{@link ResolverFeature#RESOURCE_CACHE_SCHEMES}</th>
+ * <td>xml.catalog.resourceCacheSchemes</td>
+ * <td>resource-cache-schemes</td>
+ * <td>String</td>
+ * </tr>
+ * <tr><th>{@link ResolverFeature#RESOURCE_CACHE_SIZE}</th>
+ * <td>xml.catalog.resourceCacheSize</td>
+ * <td>resource-cache-size</td>
+ * <td>Integer</td>
+ * </tr>
  * <tr><th>{@link ResolverFeature#SAXPARSERFACTORY_CLASS}</th>
  * <td>xml.catalog.saxParserFactoryClass</td>
  * <td>saxparserfactory-class</td>
  * <td>String</td>
  * </tr>
+ * <tr><th>{@link ResolverFeature#SHARE_CATALOGS}</th>
+ * <td>xml.catalog.shareCatalogs</td>
+ * <td>share-catalogs</td>
+ * <td>Boolean¹</td>
+ * </tr>
  * <tr><th>{@link ResolverFeature#THROW_URI_EXCEPTIONS}</th>
  * <td>xml.catalog.throwUriExceptions</td>
  * <td>throw-uri-exceptions</td>
@@ -143,6 +209,11 @@ import java.util.function.Supplier;
  * <td>uri-for-system</td>
  * <td>Boolean¹</td>
  * </tr>
+ * <tr><th>{@link ResolverFeature#WATCH_CATALOGS}</th>
+ * <td>xml.catalog.watchCatalogs</td>
+ * <td>watch-catalogs</td>
+ * <td>Boolean¹</td>
+ * </tr>
  * <tr><th>{@link ResolverFeature#XMLREADER_SUPPLIER}</th>
  * <td>-</td>
  * <td>-</td>
@@ -178,12 +249,27 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
             ResolverFeature.LOGGER_LOG_LEVEL,
             ResolverFeature.ACCESS_EXTERNAL_ENTITY, ResolverFeature.ACCESS_EXTERNAL_DOCUMENT,
             ResolverFeature.SAXPARSERFACTORY_CLASS, ResolverFeature.XMLREADER_SUPPLIER,
-            ResolverFeature.FIX_WINDOWS_SYSTEM_IDENTIFIERS};
+            ResolverFeature.FIX_WINDOWS_SYSTEM_IDENTIFIERS,
+            ResolverFeature.LOOKUP_CACHE_SIZE,
+            ResolverFeature.PREFETCH_CATALOGS,
+            ResolverFeature.CATALOG_EXECUTOR,
+            ResolverFeature.EAGER_CATALOG_LOADING,
+            ResolverFeature.WATCH_CATALOGS,
+            ResolverFeature.REMOTE_CATALOG_TTL,
+            ResolverFeature.SHARE_CATALOGS,
+            ResolverFeature.LAZY_ENTRY_URIS,
+            ResolverFeature.RESOURCE_CACHE_SIZE,
+            ResolverFeature.RESOURCE_CACHE_SCHEMES,
+            ResolverFeature.HTTP_CACHE_DIRECTORY,
+            ResolverFeature.HTTP_CACHE_SIZE,
+            ResolverFeature.HTTP_CACHE_TTL,
+            ResolverFeature.CATALOG_SNAPSHOT};
 
     private static List<String> classpathCatalogList = null;
 
     private final List<String> catalogs;
     private final List<String> additionalCatalogs;
+    private volatile int catalogListVersion = 0;
     private Boolean preferPublic = ResolverFeature.PREFER_PUBLIC.getDefaultValue();
     private Boolean preferPropertyFile = ResolverFeature.PREFER_PROPERTY_FILE.getDefaultValue();
     private Boolean allowCatalogPI = ResolverFeature.ALLOW_CATALOG_PI.getDefaultValue();
@@ -206,6 +292,20 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
     private String saxParserFactoryClass = ResolverFeature.SAXPARSERFACTORY_CLASS.getDefaultValue();
     private Supplier<XMLReader> xmlReaderSupplier = ResolverFeature.XMLREADER_SUPPLIER.getDefaultValue();
     private Boolean fixWindowsSystemIdentifiers = ResolverFeature.FIX_WINDOWS_SYSTEM_IDENTIFIERS.getDefaultValue();
+    private Integer lookupCacheSize = ResolverFeature.LOOKUP_CACHE_SIZE.getDefaultValue();
+    private Boolean prefetchCatalogs = ResolverFeature.PREFETCH_CATALOGS.getDefaultValue();
+    private Executor catalogExecutor = ResolverFeature.CATALOG_EXECUTOR.getDefaultValue();
+    private Boolean eagerCatalogLoading = ResolverFeature.EAGER_CATALOG_LOADING.getDefaultValue();
+    private Boolean watchCatalogs = ResolverFeature.WATCH_CATALOGS.getDefaultValue();
+    private Integer remoteCatalogTtl = ResolverFeature.REMOTE_CATALOG_TTL.getDefaultValue();
+    private Boolean shareCatalogs = ResolverFeature.SHARE_CATALOGS.getDefaultValue();
+    private Boolean lazyEntryUris = ResolverFeature.LAZY_ENTRY_URIS.getDefaultValue();
+    private Integer resourceCacheSize = ResolverFeature.RESOURCE_CACHE_SIZE.getDefaultValue();
+    private String resourceCacheSchemes = ResolverFeature.RESOURCE_CACHE_SCHEMES.getDefaultValue();
+    private String httpCacheDirectory = ResolverFeature.HTTP_CACHE_DIRECTORY.getDefaultValue();
+    private Integer httpCacheSize = ResolverFeature.HTTP_CACHE_SIZE.getDefaultValue();
+    private Integer httpCacheTtl = ResolverFeature.HTTP_CACHE_TTL.getDefaultValue();
+    private String catalogSnapshot = ResolverFeature.CATALOG_SNAPSHOT.getDefaultValue();
 
     private boolean externalResolverLogger = false;
     private ResolverLogger resolverLogger = null;
@@ -308,6 +408,20 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
         config.saxParserFactoryClass = saxParserFactoryClass;
         config.xmlReaderSupplier = xmlReaderSupplier;
         config.fixWindowsSystemIdentifiers = fixWindowsSystemIdentifiers;
+        config.lookupCacheSize = lookupCacheSize;
+        config.prefetchCatalogs = prefetchCatalogs;
+        config.catalogExecutor = catalogExecutor;
+        config.eagerCatalogLoading = eagerCatalogLoading;
+        config.watchCatalogs = watchCatalogs;
+        config.remoteCatalogTtl = remoteCatalogTtl;
+        config.shareCatalogs = shareCatalogs;
+        config.lazyEntryUris = lazyEntryUris;
+        config.resourceCacheSize = resourceCacheSize;
+        config.resourceCacheSchemes = resourceCacheSchemes;
+        config.httpCacheDirectory = httpCacheDirectory;
+        config.httpCacheSize = httpCacheSize;
+        config.httpCacheTtl = httpCacheTtl;
+        config.catalogSnapshot = catalogSnapshot;
 
         if (manager != null) {
             config.manager = new CatalogManager(manager, config);
@@ -557,6 +671,84 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
             showConfigChange("Fix windows system identifiers: %s", property);
             fixWindowsSystemIdentifiers = isTrue(property);
         }
+
+        property = getConfigProperty("xml.catalog.lookupCacheSize");
+        if (property != null) {
+            showConfigChange("Lookup cache size: %s", property);
+            lookupCacheSize = integerProperty("lookup cache size", property, lookupCacheSize);
+        }
+
+        property = getConfigProperty("xml.catalog.prefetchCatalogs");
+        if (property != null) {
+            showConfigChange("Prefetch catalogs: %s", property);
+            prefetchCatalogs = isTrue(property);
+        }
+
+        property = getConfigProperty("xml.catalog.eagerCatalogLoading");
+        if (property != null) {
+            showConfigChange("Eager catalog loading: %s", property);
+            eagerCatalogLoading = isTrue(property);
+        }
+
+        property = getConfigProperty("xml.catalog.watchCatalogs");
+        if (property != null) {
+            showConfigChange("Watch catalogs: %s", property);
+            watchCatalogs = isTrue(property);
+        }
+
+        property = getConfigProperty("xml.catalog.remoteCatalogTtl");
+        if (property != null) {
+            showConfigChange("Remote catalog TTL: %s", property);
+            remoteCatalogTtl = integerProperty("remote catalog TTL", property, remoteCatalogTtl);
+        }
+
+        property = getConfigProperty("xml.catalog.shareCatalogs");
+        if (property != null) {
+            showConfigChange("Share catalogs: %s", property);
+            shareCatalogs = isTrue(property);
+        }
+
+        property = getConfigProperty("xml.catalog.lazyEntryUris");
+        if (property != null) {
+            showConfigChange("Lazy entry URIs: %s", property);
+            lazyEntryUris = isTrue(property);
+        }
+
+        property = getConfigProperty("xml.catalog.resourceCacheSize");
+        if (property != null) {
+            showConfigChange("Resource cache size: %s", property);
+            resourceCacheSize = integerProperty("resource cache size", property, resourceCacheSize);
+        }
+
+        property = getConfigProperty("xml.catalog.resourceCacheSchemes");
+        if (property != null) {
+            showConfigChange("Resource cache schemes: %s", property);
+            resourceCacheSchemes = property;
+        }
+
+        property = getConfigProperty("xml.catalog.httpCacheDirectory");
+        if (property != null) {
+            showConfigChange("HTTP cache directory: %s", property);
+            httpCacheDirectory = property;
+        }
+
+        property = getConfigProperty("xml.catalog.httpCacheSize");
+        if (property != null) {
+            showConfigChange("HTTP cache size: %s", property);
+            httpCacheSize = integerProperty("HTTP cache size", property, httpCacheSize);
+        }
+
+        property = getConfigProperty("xml.catalog.httpCacheTtl");
+        if (property != null) {
+            showConfigChange("HTTP cache TTL: %s", property);
+            httpCacheTtl = integerProperty("HTTP cache TTL", property, httpCacheTtl);
+        }
+
+        property = getConfigProperty("xml.catalog.snapshot");
+        if (property != null) {
+            showConfigChange("Catalog snapshot: %s", property);
+            catalogSnapshot = property;
+        }
     }
 
     private void loadPropertiesConfiguration(URL propertiesURL, Properties properties) {
@@ -703,6 +895,84 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
             showConfigChange("Fix windows system identifiers: %s", property);
             fixWindowsSystemIdentifiers = isTrue(property);
         }
+
+        property = properties.getProperty("lookup-cache-size");
+        if (property != null) {
+            showConfigChange("Lookup cache size: %s", property);
+            lookupCacheSize = integerProperty("lookup cache size", property, lookupCacheSize);
+        }
+
+        property = properties.getProperty("prefetch-catalogs");
+        if (property != null) {
+            showConfigChange("Prefetch catalogs: %s", property);
+            prefetchCatalogs = isTrue(property);
+        }
+
+        property = properties.getProperty("eager-catalog-loading");
+        if (property != null) {
+            showConfigChange("Eager catalog loading: %s", property);
+            eagerCatalogLoading = isTrue(property);
+        }
+
+        property = properties.getProperty("watch-catalogs");
+        if (property != null) {
+            showConfigChange("Watch catalogs: %s", property);
+            watchCatalogs = isTrue(property);
+        }
+
+        property = properties.getProperty("remote-catalog-ttl");
+        if (property != null) {
+            showConfigChange("Remote catalog TTL: %s", property);
+            remoteCatalogTtl = integerProperty("remote catalog TTL", property, remoteCatalogTtl);
+        }
+
+        property = properties.getProperty("share-catalogs");
+        if (property != null) {
+            showConfigChange("Share catalogs: %s", property);
+            shareCatalogs = isTrue(property);
+        }
+
+        property = properties.getProperty("lazy-entry-uris");
+        if (property != null) {
+            showConfigChange("Lazy entry URIs: %s", property);
+            lazyEntryUris = isTrue(property);
+        }
+
+        property = properties.getProperty("resource-cache-size");
+        if (property != null) {
+            showConfigChange("Resource cache size: %s", property);
+            resourceCacheSize = integerProperty("resource cache size", property, resourceCacheSize);
+        }
+
+        property = properties.getProperty("resource-cache-schemes");
+        if (property != null) {
+            showConfigChange("Resource cache schemes: %s", property);
+            resourceCacheSchemes = property;
+        }
+
+        property = properties.getProperty("http-cache-directory");
+        if (property != null) {
+            showConfigChange("HTTP cache directory: %s", property);
+            httpCacheDirectory = property;
+        }
+
+        property = properties.getProperty("http-cache-size");
+        if (property != null) {
+            showConfigChange("HTTP cache size: %s", property);
+            httpCacheSize = integerProperty("HTTP cache size", property, httpCacheSize);
+        }
+
+        property = properties.getProperty("http-cache-ttl");
+        if (property != null) {
+            showConfigChange("HTTP cache TTL: %s", property);
+            httpCacheTtl = integerProperty("HTTP cache TTL", property, httpCacheTtl);
+        }
+
+        property = properties.getProperty("catalog-snapshot");
+        if (property != null) {
+            showConfigChange("Catalog snapshot: %s", property);
+            catalogSnapshot = property;
+        }
     }
 
     private void addCatalogsFromTokens(URI propertiesURI, boolean relative, StringTokenizer tokens) {
@@ -741,6 +1011,20 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
         resolverLogger.debug("SAXParserFactory class: %s", saxParserFactoryClass);
         resolverLogger.debug("XMLReader supplier: %s", xmlReaderSupplier);
         resolverLogger.debug("Fix Windows system identifiers: %s", fixWindowsSystemIdentifiers);
+        resolverLogger.debug("Lookup cache size: %s", lookupCacheSize);
+        resolverLogger.debug("Prefetch catalogs: %s", prefetchCatalogs);
+        resolverLogger.debug("Catalog executor: %s", catalogExecutor);
+        resolverLogger.debug("Eager catalog loading: %s", eagerCatalogLoading);
+        resolverLogger.debug("Watch catalogs: %s", watchCatalogs);
+        resolverLogger.debug("Remote catalog TTL: %s", remoteCatalogTtl);
+        resolverLogger.debug("Share catalogs: %s", shareCatalogs);
+        resolverLogger.debug("Lazy entry URIs: %s", lazyEntryUris);
+        resolverLogger.debug("Resource cache size: %s", resourceCacheSize);
+        resolverLogger.debug("Resource cache schemes: %s", resourceCacheSchemes);
+        resolverLogger.debug("HTTP cache directory: %s", httpCacheDirectory);
+        resolverLogger.debug("HTTP cache size: %s", httpCacheSize);
+        resolverLogger.debug("HTTP cache TTL: %s", httpCacheTtl);
+        resolverLogger.debug("Catalog snapshot: %s", catalogSnapshot);
 
         resolverLogger.debug("Default logger log level: %s", loggerLogLevel);
         for (String catalog: catalogs) {
@@ -775,6 +1059,21 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
         return accessor.getResource(response);
     }
 
+    /**
+     * Get the resource cache.
+     * <p>The cache is only created if the {@link ResolverFeature#RESOURCE_CACHE_SIZE} is greater than zero
+     * when the configuration first reads a resource, or when this method is first called.</p>
+     * @return The cache, or null if resources aren't cached.
+     */
+    public ResourceCache getResourceCache() {
+        synchronized (accessorLock) {
+            if (accessor == null) {
+                accessor = new ResourceAccess(this);
+            }
+        }
+        return accessor.getCache();
+    }
+
     /**
      * Register a scheme resolver for the specified scheme.
      * <p>The most convenient way to make a scheme resolver available is often through the service
@@ -809,6 +1108,7 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
         if (catalog != null) {
             synchronized (catalogs) {
                 catalogs.add(catalog);
+                catalogListVersion++;
             }
         }
     }
@@ -836,6 +1136,7 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
                 manager = getFeature(ResolverFeature.CATALOG_MANAGER);
             }
             manager.loadCatalog(uri, data);
+            catalogListVersion++;
         }
     }
 
@@ -848,10 +1149,26 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
      */
     public boolean removeCatalog(String catalog) {
         synchronized (catalogs) {
-            return catalogs.remove(catalog);
+            boolean removed = catalogs.remove(catalog);
+            if (removed) {
+                catalogListVersion++;
+            }
+            return removed;
         }
     }
 
+    /** Get the catalog list version.
+     *
+     * <p>The version changes whenever the list of catalogs returned for
+     * {@link ResolverFeature#CATALOG_FILES} might have changed. A catalog manager can use it to
+     * tell if a search order it computed earlier is still current without copying the list.</p>
+     *
+     * @return The catalog list version.
+     */
+    public int getCatalogListVersion() {
+        return catalogListVersion;
+    }
+
     /** Set a configuration feature.
      *
      * <p>Sets the specified feature to the specified value. Unknown features are ignored.</p>
@@ -877,6 +1194,7 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
                         }
                     }
                 }
+                catalogListVersion++;
             }
             return;
         } else if (feature == ResolverFeature.CATALOG_ADDITIONS) {
@@ -892,6 +1210,7 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
                         }
                     }
                 }
+                catalogListVersion++;
             }
             return;
         } else if (feature == ResolverFeature.CLASSLOADER) {
@@ -901,6 +1220,16 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
             }
             showConfigChange("Catalog loader: %s", classLoader);
             return;
+        } else if (feature == ResolverFeature.HTTP_CACHE_DIRECTORY) {
+            // Null turns the cache off
+            httpCacheDirectory = (String) value;
+            showConfigChange("HTTP cache directory: %s", httpCacheDirectory);
+            return;
+        } else if (feature == ResolverFeature.CATALOG_SNAPSHOT) {
+            // Null means there's no snapshot other than the ones next to the catalogs
+            catalogSnapshot = (String) value;
+            showConfigChange("Catalog snapshot: %s", catalogSnapshot);
+            return;
         }
 
         if (value == null) {
@@ -938,7 +1267,10 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
             parseRddl = (Boolean) value;
             showConfigChange("Use RDDL: %s", parseRddl);
         } else if (feature == ResolverFeature.CLASSPATH_CATALOGS) {
-            classpathCatalogs = (Boolean) value;
+            synchronized (catalogs) {
+                classpathCatalogs = (Boolean) value;
+                catalogListVersion++;
+            }
             showConfigChange("Classpath catalogs: %s", classpathCatalogs);
         } else if (feature == ResolverFeature.ARCHIVED_CATALOGS) {
             archivedCatalogs = (Boolean) value;
@@ -1008,6 +1340,42 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
         } else if (feature == ResolverFeature.FIX_WINDOWS_SYSTEM_IDENTIFIERS) {
             fixWindowsSystemIdentifiers = (Boolean) value;
             showConfigChange("Fix windows system identifiers: %s", fixWindowsSystemIdentifiers);
+        } else if (feature == ResolverFeature.LOOKUP_CACHE_SIZE) {
+            lookupCacheSize = (Integer) value;
+            showConfigChange("Lookup cache size: %s", lookupCacheSize);
+        } else if (feature == ResolverFeature.PREFETCH_CATALOGS) {
+            prefetchCatalogs = (Boolean) value;
+            showConfigChange("Prefetch catalogs: %s", prefetchCatalogs);
+        } else if (feature == ResolverFeature.CATALOG_EXECUTOR) {
+            catalogExecutor = (Executor) value;
+            showConfigChange("Catalog executor: %s", catalogExecutor);
+        } else if (feature == ResolverFeature.EAGER_CATALOG_LOADING) {
+            eagerCatalogLoading = (Boolean) value;
+            showConfigChange("Eager catalog loading: %s", eagerCatalogLoading);
+        } else if (feature == ResolverFeature.WATCH_CATALOGS) {
+            watchCatalogs = (Boolean) value;
+            showConfigChange("Watch catalogs: %s", watchCatalogs);
+        } else if (feature == ResolverFeature.REMOTE_CATALOG_TTL) {
+            remoteCatalogTtl = (Integer) value;
+            showConfigChange("Remote catalog TTL: %s", remoteCatalogTtl);
+        } else if (feature == ResolverFeature.SHARE_CATALOGS) {
+            shareCatalogs = (Boolean) value;
+            showConfigChange("Share catalogs: %s", shareCatalogs);
+        } else if (feature == ResolverFeature.LAZY_ENTRY_URIS) {
+            lazyEntryUris = (Boolean) value;
+            showConfigChange("Lazy entry URIs: %s", lazyEntryUris);
+        } else if (feature == ResolverFeature.RESOURCE_CACHE_SIZE) {
+            resourceCacheSize = (Integer) value;
+            showConfigChange("Resource cache size: %s", resourceCacheSize);
+        } else if (feature == ResolverFeature.RESOURCE_CACHE_SCHEMES) {
+            resourceCacheSchemes = (String) value;
+            showConfigChange("Resource cache schemes: %s", resourceCacheSchemes);
+        } else if (feature == ResolverFeature.HTTP_CACHE_SIZE) {
+            httpCacheSize = (Integer) value;
+            showConfigChange("HTTP cache size: %s", httpCacheSize);
+        } else if (feature == ResolverFeature.HTTP_CACHE_TTL) {
+            httpCacheTtl = (Integer) value;
+            showConfigChange("HTTP cache TTL: %s", httpCacheTtl);
         } else {
             resolverLogger.error("Ignoring unknown feature: %s", feature.getName());
         }
@@ -1185,6 +1553,34 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
             return (T) xmlReaderSupplier;
         } else if (feature == ResolverFeature.FIX_WINDOWS_SYSTEM_IDENTIFIERS) {
             return (T) fixWindowsSystemIdentifiers;
+        } else if (feature == ResolverFeature.LOOKUP_CACHE_SIZE) {
+            return (T) lookupCacheSize;
+        } else if (feature == ResolverFeature.PREFETCH_CATALOGS) {
+            return (T) prefetchCatalogs;
+        } else if (feature == ResolverFeature.CATALOG_EXECUTOR) {
+            return (T) catalogExecutor;
+        } else if (feature == ResolverFeature.EAGER_CATALOG_LOADING) {
+            return (T) eagerCatalogLoading;
+        } else if (feature == ResolverFeature.WATCH_CATALOGS) {
+            return (T) watchCatalogs;
+        } else if (feature == ResolverFeature.REMOTE_CATALOG_TTL) {
+            return (T) remoteCatalogTtl;
+        } else if (feature == ResolverFeature.SHARE_CATALOGS) {
+            return (T) shareCatalogs;
+        } else if (feature == ResolverFeature.LAZY_ENTRY_URIS) {
+            return (T) lazyEntryUris;
+        } else if (feature == ResolverFeature.RESOURCE_CACHE_SIZE) {
+            return (T) resourceCacheSize;
+        } else if (feature == ResolverFeature.RESOURCE_CACHE_SCHEMES) {
+            return (T) resourceCacheSchemes;
+        } else if (feature == ResolverFeature.HTTP_CACHE_DIRECTORY) {
+            return (T) httpCacheDirectory;
+        } else if (feature == ResolverFeature.HTTP_CACHE_SIZE) {
+            return (T) httpCacheSize;
+        } else if (feature == ResolverFeature.HTTP_CACHE_TTL) {
+            return (T) httpCacheTtl;
+        } else if (feature == ResolverFeature.CATALOG_SNAPSHOT) {
+            return (T) catalogSnapshot;
         } else {
             resolverLogger.error("Ignoring unknown feature: %s", feature.getName());
             return null;
@@ -1200,6 +1596,15 @@ public class XMLResolverConfiguration implements ResolverConfiguration {
          return Arrays.stream(knownFeatures).iterator();
     }
 
+    private Integer integerProperty(String name, String property, Integer current) {
+        try {
+            return Integer.parseInt(property.trim());
+        } catch (NumberFormatException ex) {
+            resolverLogger.warn("Ignoring invalid %s: %s", name, property);
+            return current;
+        }
+    }
+
     private static boolean isTrue(String aString) {
         if (aString == null) {
             return false;
@@ -5,15 +5,18 @@ import org.xmlresolver.ResolverFeature;
 import org.xmlresolver.logging.ResolverLogger;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
  * An (abstract) entry in an XML Catalog.
  * <p>All entries have a base URI, may have an ID, and have a (possibly empty) set of extension attributes.</p>
+ * <p>A large catalog may have hundreds of thousands of entries, so entries are kept small: the map of
+ * extension attributes is only allocated for entries that have them.</p>
  */
 public abstract class Entry {
-    protected final ResolverLogger logger;
     protected final ResolverConfiguration config;
 
     /** Catalog entries have a type. */
@@ -35,7 +38,7 @@ public abstract class Entry {
     /** The (XML) id of the catalog entry. */
     public final String id;
 
-    private final HashMap<String,String> extra = new HashMap<>();
+    private HashMap<String,String> extra = null;
 
     /**
      * Entry constructor.
@@ -51,7 +54,6 @@ public abstract class Entry {
             throw new IllegalArgumentException("Base URI of catalog entry must be absolute: " + baseURI);
         }
         this.config = config;
-        logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
     }
 
     /**
@@ -65,8 +67,12 @@ public abstract class Entry {
             throw new NullPointerException("Cannot set a property with a null name");
         }
         if (NCNAME_RE.matcher(name).matches()) {
+            if (extra == null) {
+                extra = new HashMap<>();
+            }
             extra.put(name, value == null ? "" : value);
         } else {
+            ResolverLogger logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
             logger.error("Property name invalid: " + name);
         }
     }
@@ -81,7 +87,18 @@ public abstract class Entry {
         if (name == null) {
             throw new NullPointerException("Cannot get a property with a null name");
         }
-        return extra.getOrDefault(name, null);
+        return extra == null ? null : extra.get(name);
+    }
+
+    /**
+     * Get all of the extension properties.
+     * @return The properties, an unmodifiable map from name to value.
+     */
+    public Map<String, String> getProperties() {
+        if (extra == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(extra);
     }
 
     /**
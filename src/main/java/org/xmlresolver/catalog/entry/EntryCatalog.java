@@ -2,6 +2,8 @@ package org.xmlresolver.catalog.entry;
 
 import org.xml.sax.Locator;
 import org.xmlresolver.ResolverConfiguration;
+import org.xmlresolver.ResolverFeature;
+import org.xmlresolver.logging.ResolverLogger;
 
 import java.net.URI;
 import java.util.*;
@@ -9,16 +11,34 @@ import java.util.*;
 /**
  * A Catalog entry.
  * <p>The catalog entry is usually the root of a catalog file.</p>
+ * <p>While a catalog is being constructed, its accessors are synchronized. Once it has been
+ * {@link #freeze() frozen}, entries can no longer be added or removed and the accessors
+ * read from immutable, array-backed copies without locking.</p>
  */
 
 public class EntryCatalog extends Entry {
     /** Are public entries preferred over system ones? */
     public final boolean preferPublic;
+    protected final ResolverLogger logger;
+    private final boolean lazyUris;
 
     protected static final ArrayList<Entry> none = new ArrayList<>();
+    private static final EnumSet<Type> prefixTypes = EnumSet.of(Type.REWRITE_URI, Type.REWRITE_SYSTEM,
+            Type.DELEGATE_URI, Type.DELEGATE_SYSTEM, Type.DELEGATE_PUBLIC);
+    private static final EnumSet<Type> suffixTypes = EnumSet.of(Type.URI_SUFFIX, Type.SYSTEM_SUFFIX);
+    private static final EnumSet<Type> exactTypes = EnumSet.of(Type.URI, Type.SYSTEM, Type.PUBLIC,
+            Type.DOCTYPE, Type.ENTITY, Type.NOTATION);
+    private static final EnumSet<Type> foldedTypes = EnumSet.of(Type.SYSTEM, Type.REWRITE_SYSTEM,
+            Type.DELEGATE_SYSTEM, Type.SYSTEM_SUFFIX);
     protected final ArrayList<Entry> entries = new ArrayList<> ();
     protected final HashMap<Type, ArrayList<Entry>> typedEntries = new HashMap<>();
+    protected final HashMap<Type, HashMap<String, ArrayList<Entry>>> keyedEntries = new HashMap<>();
+    private final HashMap<Type, EntryTrie> tries = new HashMap<>();
+    private final HashMap<Type, EntryTrie> foldedTries = new HashMap<>();
+    private EntryFilter filter = null;
+    private volatile Frozen frozen = null;
     protected Locator locator = null;
+    private HashMap<URI, URI> baseURIs = new HashMap<>();
 
     /**
      * EntryCatalog constructor.
@@ -30,6 +50,8 @@ public class EntryCatalog extends Entry {
     public EntryCatalog(ResolverConfiguration config, URI baseURI, String id, boolean prefer) {
         super(config, baseURI, id);
         this.preferPublic = prefer;
+        logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
+        lazyUris = config.getFeature(ResolverFeature.LAZY_ENTRY_URIS);
     }
 
     @Override
@@ -41,8 +63,14 @@ public class EntryCatalog extends Entry {
      * Get all the entries in this catalog.
      * @return The entries.
      */
-    public synchronized List<Entry> entries() {
-        return Collections.unmodifiableList(entries);
+    public List<Entry> entries() {
+        Frozen current = frozen;
+        if (current != null) {
+            return current.entries;
+        }
+        synchronized (this) {
+            return Collections.unmodifiableList(entries);
+        }
     }
 
     /**
@@ -50,24 +78,485 @@ public class EntryCatalog extends Entry {
      * @param type The entry type.
      * @return The entries.
      */
-    public synchronized List<Entry> entries(Type type) {
-        return Collections.unmodifiableList(typedEntries.getOrDefault(type, none));
+    public List<Entry> entries(Type type) {
+        Frozen current = frozen;
+        if (current != null) {
+            return current.typedEntries.getOrDefault(type, Collections.emptyList());
+        }
+        synchronized (this) {
+            return Collections.unmodifiableList(typedEntries.getOrDefault(type, none));
+        }
+    }
+
+    /**
+     * Get the entries of a particular type that might match an identifier.
+     * <p>The uri, system, and public entries are indexed by identifier when they're added to the catalog.
+     * For those types, this method returns only the entries whose identifier has the same index key
+     * as the identifier provided, in document order. The index key merges <code>http:</code>
+     * and <code>https:</code> URIs and, for system identifiers, ignores case, so the caller must
+     * still compare each entry to decide if it's an actual match. For all other types,
+     * this method returns all of the entries of that type.</p>
+     * @param type The entry type.
+     * @param identifier The identifier (URI, system identifier, or public identifier) to match.
+     * @return The candidate entries.
+     */
+    public List<Entry> entries(Type type, String identifier) {
+        Frozen current = frozen;
+        if (current != null) {
+            HashMap<String, List<Entry>> index = current.keyedEntries.get(type);
+            if (index == null) {
+                return entries(type);
+            }
+            return index.getOrDefault(indexKey(type, identifier), Collections.emptyList());
+        }
+
+        synchronized (this) {
+            HashMap<String, ArrayList<Entry>> index = keyedEntries.get(type);
+            if (index == null) {
+                return entries(type);
+            }
+            return Collections.unmodifiableList(index.getOrDefault(indexKey(type, identifier), none));
+        }
+    }
+
+    /**
+     * Get the entries of a particular type whose start string might be a prefix of an identifier.
+     * <p>This is the same as {@link #prefixEntries(Type, String, boolean)} without ignoring case.</p>
+     * @param type The entry type.
+     * @param identifier The identifier.
+     * @return The candidate entries, longest start string first.
+     */
+    public List<Entry> prefixEntries(Type type, String identifier) {
+        return prefixEntries(type, identifier, false);
+    }
+
+    /**
+     * Get the entries of a particular type whose start string might be a prefix of an identifier.
+     * <p>The rewriteURI, rewriteSystem, delegateURI, delegateSystem, and delegatePublic entries are
+     * stored in a trie keyed by their start string. The trie is built the first time it's needed.
+     * The candidates are returned longest start string first; entries with the same start string are
+     * returned in document order. As with {@link #entries(Type, String)}, the key merges <code>http:</code>
+     * and <code>https:</code> URIs, so the caller must still compare each entry to decide if it's an actual
+     * match. If <code>ignoreCase</code> is true, a trie with case-folded keys is used instead.
+     * Public identifiers are always compared exactly.</p>
+     * @param type The entry type.
+     * @param identifier The identifier.
+     * @param ignoreCase Should candidates that differ only in case be returned?
+     * @return The candidate entries, longest start string first.
+     * @throws IllegalArgumentException if the type isn't one of the types indexed by start string.
+     */
+    public List<Entry> prefixEntries(Type type, String identifier, boolean ignoreCase) {
+        if (!prefixTypes.contains(type)) {
+            throw new IllegalArgumentException("Entries of type " + type + " are not indexed by start string");
+        }
+
+        boolean foldCase = ignoreCase && type != Type.DELEGATE_PUBLIC;
+        return matches(type, indexKey(type, identifier, foldCase), foldCase);
+    }
+
+    /**
+     * Get the entries of a particular type whose suffix might be a suffix of an identifier.
+     * <p>This is the same as {@link #suffixEntries(Type, String, boolean)} without ignoring case.</p>
+     * @param type The entry type.
+     * @param identifier The identifier.
+     * @return The candidate entries, longest suffix first.
+     */
+    public List<Entry> suffixEntries(Type type, String identifier) {
+        return suffixEntries(type, identifier, false);
+    }
+
+    /**
+     * Get the entries of a particular type whose suffix might be a suffix of an identifier.
+     * <p>The uriSuffix and systemSuffix entries are stored in a reversed trie keyed by their suffix.
+     * The trie is built the first time it's needed. The candidates are returned longest suffix first;
+     * entries with the same suffix are returned in document order. Each entry is stored under
+     * its suffix as written and as normalized by {@link #entries(Type, String)}, so the caller must
+     * still compare each entry to decide if it's an actual match. If <code>ignoreCase</code> is true,
+     * a trie with case-folded keys is used instead.</p>
+     * @param type The entry type.
+     * @param identifier The identifier.
+     * @param ignoreCase Should candidates that differ only in case be returned?
+     * @return The candidate entries, longest suffix first.
+     * @throws IllegalArgumentException if the type isn't one of the types indexed by suffix.
+     */
+    public List<Entry> suffixEntries(Type type, String identifier, boolean ignoreCase) {
+        if (!suffixTypes.contains(type)) {
+            throw new IllegalArgumentException("Entries of type " + type + " are not indexed by suffix");
+        }
+
+        String key = identifier;
+        if (ignoreCase) {
+            key = foldCase(key);
+        }
+        return matches(type, key, ignoreCase);
+    }
+
+    private List<Entry> matches(Type type, String key, boolean foldCase) {
+        Frozen current = frozen;
+        if (current != null) {
+            EntryTrie trie = (foldCase ? current.foldedTries : current.tries).get(type);
+            if (trie != null) {
+                return trie.matches(key);
+            }
+        }
+        synchronized (this) {
+            return trie(type, foldCase).matches(key);
+        }
+    }
+
+    /**
+     * Might an entry of a particular type match an identifier?
+     * <p>This is a fast, negative test. If it returns false, no entry of that type in this catalog
+     * can match the identifier, so the caller doesn't have to look. If it returns true, an entry might match.
+     * The identifier must be normalized for comparison (see {@link org.xmlresolver.utils.URIUtils#normalizedForComparison(String, boolean)}),
+     * with or without merging <code>http:</code> and <code>https:</code> URIs. System identifiers are
+     * tested without regard to case.</p>
+     * <p>For uri, system, public, doctype, entity, and notation entries, the identifier is tested
+     * against the entry's identifier or name. For rewrite and delegate entries, it's tested against
+     * the start strings; for suffix entries, against the suffixes. The keys are held in a
+     * Bloom filter that's built the first time it's needed. For any other type, this method only
+     * tests if the catalog has entries of that type.</p>
+     * @param type The entry type.
+     * @param identifier The identifier.
+     * @return False if no entry of that type can match the identifier.
+     */
+    public boolean mightMatch(Type type, String identifier) {
+        Frozen current = frozen;
+        if (current != null) {
+            return mightMatch(current.filter, current.typedEntries.containsKey(type), type, identifier);
+        }
+        synchronized (this) {
+            boolean present = !typedEntries.getOrDefault(type, none).isEmpty();
+            if (present && filter == null) {
+                filter = filter();
+            }
+            return mightMatch(filter, present, type, identifier);
+        }
+    }
+
+    private static boolean mightMatch(EntryFilter filter, boolean present, Type type, String identifier) {
+        if (!present) {
+            return false;
+        }
+        if (!exactTypes.contains(type) && !prefixTypes.contains(type) && !suffixTypes.contains(type)) {
+            return true;
+        }
+        if (identifier == null) {
+            // No entry has a null identifier
+            return false;
+        }
+
+        boolean fold = foldedTypes.contains(type);
+        if (prefixTypes.contains(type)) {
+            return filter.mightStartWith(type, identifier, fold);
+        }
+        if (suffixTypes.contains(type)) {
+            return filter.mightEndWith(type, identifier, fold);
+        }
+        return filter.mightContain(type, identifier, fold);
+    }
+
+    private EntryFilter filter() {
+        // Most entries contribute two keys, one with http: and https: merged and one without
+        EntryFilter filter = new EntryFilter(entries.size() * 2);
+        for (Entry entry : entries) {
+            Type type = entry.getType();
+            boolean fold = foldedTypes.contains(type);
+            switch (type) {
+                case URI:
+                    filter.add(type, ((EntryUri) entry).compareName(false), fold);
+                    filter.add(type, ((EntryUri) entry).compareName(true), fold);
+                    break;
+                case SYSTEM:
+                    filter.add(type, ((EntrySystem) entry).compareSystemId(false), fold);
+                    filter.add(type, ((EntrySystem) entry).compareSystemId(true), fold);
+                    break;
+                case PUBLIC:
+                    filter.add(type, ((EntryPublic) entry).publicId, fold);
+                    break;
+                case DOCTYPE:
+                    filter.add(type, ((EntryDoctype) entry).name, fold);
+                    break;
+                case ENTITY:
+                    filter.add(type, ((EntryEntity) entry).name, fold);
+                    break;
+                case NOTATION:
+                    filter.add(type, ((EntryNotation) entry).name, fold);
+                    break;
+                case REWRITE_URI:
+                    filter.addPrefix(type, ((EntryRewriteUri) entry).compareUriStart(false), fold);
+                    filter.addPrefix(type, ((EntryRewriteUri) entry).compareUriStart(true), fold);
+                    break;
+                case DELEGATE_URI:
+                    filter.addPrefix(type, ((EntryDelegateUri) entry).compareUriStart(false), fold);
+                    filter.addPrefix(type, ((EntryDelegateUri) entry).compareUriStart(true), fold);
+                    break;
+                case REWRITE_SYSTEM:
+                    filter.addPrefix(type, ((EntryRewriteSystem) entry).compareSystemIdStart(false), fold);
+                    filter.addPrefix(type, ((EntryRewriteSystem) entry).compareSystemIdStart(true), fold);
+                    break;
+                case DELEGATE_SYSTEM:
+                    filter.addPrefix(type, ((EntryDelegateSystem) entry).compareSystemIdStart(false), fold);
+                    filter.addPrefix(type, ((EntryDelegateSystem) entry).compareSystemIdStart(true), fold);
+                    break;
+                case DELEGATE_PUBLIC:
+                    filter.addPrefix(type, ((EntryDelegatePublic) entry).publicIdStart, fold);
+                    break;
+                case URI_SUFFIX:
+                    filter.addSuffix(type, ((EntryUriSuffix) entry).compareUriSuffix(false), fold);
+                    filter.addSuffix(type, ((EntryUriSuffix) entry).compareUriSuffix(true), fold);
+                    break;
+                case SYSTEM_SUFFIX:
+                    filter.addSuffix(type, ((EntrySystemSuffix) entry).compareSystemIdSuffix(false), fold);
+                    filter.addSuffix(type, ((EntrySystemSuffix) entry).compareSystemIdSuffix(true), fold);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return filter;
+    }
+
+    private EntryTrie trie(Type type, boolean foldCase) {
+        HashMap<Type, EntryTrie> map = foldCase ? foldedTries : tries;
+        EntryTrie trie = map.get(type);
+        if (trie == null) {
+            boolean suffix = suffixTypes.contains(type);
+            trie = new EntryTrie(suffix);
+            for (Entry entry : typedEntries.getOrDefault(type, none)) {
+                if (suffix) {
+                    // A suffix only changes when it's normalized if it begins with http: or classpath:/,
+                    // so the identifier might end with either form.
+                    String key = foldCase ? foldCase(suffix(entry)) : suffix(entry);
+                    String normalized = indexKey(type, suffix(entry), foldCase);
+                    trie.add(key, entry);
+                    if (!normalized.equals(key)) {
+                        trie.add(normalized, entry);
+                    }
+                } else {
+                    trie.add(indexKey(type, startString(entry), foldCase), entry);
+                }
+            }
+            map.put(type, trie);
+        }
+        return trie;
+    }
+
+    /**
+     * Freeze the catalog.
+     * <p>After a catalog is frozen, no more entries can be added to it, or removed from it. Its indexes
+     * are built immediately and its accessors no longer need to synchronize. The loader freezes a catalog
+     * when it has finished reading it. Freezing a catalog that's already frozen has no effect.</p>
+     */
+    public synchronized void freeze() {
+        if (frozen != null) {
+            return;
+        }
+
+        EnumMap<Type, List<Entry>> frozenTyped = new EnumMap<>(Type.class);
+        for (Map.Entry<Type, ArrayList<Entry>> typed : typedEntries.entrySet()) {
+            if (!typed.getValue().isEmpty()) {
+                frozenTyped.put(typed.getKey(), freeze(typed.getValue()));
+            }
+        }
+
+        EnumMap<Type, HashMap<String, List<Entry>>> frozenKeyed = new EnumMap<>(Type.class);
+        for (Map.Entry<Type, HashMap<String, ArrayList<Entry>>> keyed : keyedEntries.entrySet()) {
+            HashMap<String, List<Entry>> index = new HashMap<>();
+            for (Map.Entry<String, ArrayList<Entry>> key : keyed.getValue().entrySet()) {
+                index.put(key.getKey(), freeze(key.getValue()));
+            }
+            frozenKeyed.put(keyed.getKey(), index);
+        }
+
+        // Case folded tries are only built in advance for the types that may ignore case
+        EnumMap<Type, EntryTrie> frozenTries = new EnumMap<>(Type.class);
+        EnumMap<Type, EntryTrie> frozenFoldedTries = new EnumMap<>(Type.class);
+        for (Type type : frozenTyped.keySet()) {
+            if (prefixTypes.contains(type) || suffixTypes.contains(type)) {
+                frozenTries.put(type, trie(type, false));
+                if (foldedTypes.contains(type)) {
+                    frozenFoldedTries.put(type, trie(type, true));
+                }
+            }
+        }
+
+        if (filter == null) {
+            filter = filter();
+        }
+
+        frozen = new Frozen(freeze(entries), frozenTyped, frozenKeyed, frozenTries, frozenFoldedTries, filter);
+
+        // Errors are only reported while entries are added, and the locator may hold the whole parser
+        locator = null;
+        baseURIs = null;
+    }
+
+    /**
+     * Is this catalog frozen?
+     * @return True if the catalog has been frozen.
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return frozen != null;
+    }
+
+    private static List<Entry> freeze(List<Entry> list) {
+        return Collections.unmodifiableList(Arrays.asList(list.toArray(new Entry[0])));
+    }
+
+    /**
+     * Share equal base URIs.
+     * <p>Entries with an <code>xml:base</code> attribute each get their own base URI. Entries with
+     * the same base URI share a single instance of it instead.</p>
+     * @param baseURI The base URI.
+     * @return An equal base URI, shared with the other entries in this catalog.
+     */
+    private synchronized URI shared(URI baseURI) {
+        if (baseURIs == null) {
+            // It's frozen, so the entry can't be added anyway
+            return baseURI;
+        }
+        URI shared = baseURIs.putIfAbsent(baseURI, baseURI);
+        return shared == null ? baseURI : shared;
     }
 
     protected synchronized void add(Entry entry) {
+        if (frozen != null) {
+            throw new IllegalStateException("Cannot add entries to a frozen catalog: " + baseURI);
+        }
         entries.add(entry);
 
         if (!typedEntries.containsKey(entry.getType())) {
             typedEntries.put(entry.getType(), new ArrayList<>());
         }
         typedEntries.get(entry.getType()).add(entry);
+
+        String identifier = indexedIdentifier(entry);
+        if (identifier != null) {
+            if (!keyedEntries.containsKey(entry.getType())) {
+                keyedEntries.put(entry.getType(), new HashMap<>());
+            }
+            keyedEntries.get(entry.getType())
+                    .computeIfAbsent(indexKey(entry.getType(), identifier), k -> new ArrayList<>())
+                    .add(entry);
+        }
+
+        if (prefixTypes.contains(entry.getType()) || suffixTypes.contains(entry.getType())) {
+            tries.remove(entry.getType());
+            foldedTries.remove(entry.getType());
+        }
+        filter = null;
     }
 
     protected synchronized void remove(Entry entry) {
+        if (frozen != null) {
+            throw new IllegalStateException("Cannot remove entries from a frozen catalog: " + baseURI);
+        }
         entries.remove(entry);
         if (typedEntries.containsKey(entry.getType())) {
             typedEntries.get(entry.getType()).remove(entry);
         }
+
+        String identifier = indexedIdentifier(entry);
+        if (identifier != null && keyedEntries.containsKey(entry.getType())) {
+            String key = indexKey(entry.getType(), identifier);
+            ArrayList<Entry> list = keyedEntries.get(entry.getType()).get(key);
+            if (list != null) {
+                list.remove(entry);
+                if (list.isEmpty()) {
+                    keyedEntries.get(entry.getType()).remove(key);
+                }
+            }
+        }
+
+        if (prefixTypes.contains(entry.getType()) || suffixTypes.contains(entry.getType())) {
+            tries.remove(entry.getType());
+            foldedTries.remove(entry.getType());
+        }
+        filter = null;
+    }
+
+    private static String indexedIdentifier(Entry entry) {
+        switch (entry.getType()) {
+            case URI:
+                return ((EntryUri) entry).name;
+            case SYSTEM:
+                return ((EntrySystem) entry).systemId;
+            case PUBLIC:
+                return ((EntryPublic) entry).publicId;
+            default:
+                return null;
+        }
+    }
+
+    private static String startString(Entry entry) {
+        switch (entry.getType()) {
+            case REWRITE_URI:
+                return ((EntryRewriteUri) entry).uriStart;
+            case REWRITE_SYSTEM:
+                return ((EntryRewriteSystem) entry).systemIdStart;
+            case DELEGATE_URI:
+                return ((EntryDelegateUri) entry).uriStart;
+            case DELEGATE_SYSTEM:
+                return ((EntryDelegateSystem) entry).systemIdStart;
+            case DELEGATE_PUBLIC:
+                return ((EntryDelegatePublic) entry).publicIdStart;
+            default:
+                return null;
+        }
+    }
+
+    private static String suffix(Entry entry) {
+        switch (entry.getType()) {
+            case URI_SUFFIX:
+                return ((EntryUriSuffix) entry).uriSuffix;
+            case SYSTEM_SUFFIX:
+                return ((EntrySystemSuffix) entry).systemIdSuffix;
+            default:
+                return null;
+        }
+    }
+
+    private static String indexKey(Type type, String identifier) {
+        // System identifiers may be compared without regard to case
+        return indexKey(type, identifier, type == Type.SYSTEM);
+    }
+
+    private static String indexKey(Type type, String identifier, boolean foldCase) {
+        if (identifier == null) {
+            return null;
+        }
+
+        if (type == Type.PUBLIC || type == Type.DELEGATE_PUBLIC) {
+            // Public identifiers are compared exactly
+            return identifier;
+        }
+
+        // The key must never distinguish identifiers that a query might consider the same,
+        // so it's normalized as if MERGE_HTTPS was always true. The query
+        // makes the final comparison with the real setting.
+        String key = identifier;
+        if (key.startsWith("classpath:/")) {
+            key = "classpath:" + key.substring(11);
+        } else if (key.startsWith("http:")) {
+            key = "https:" + key.substring(5);
+        }
+
+        if (foldCase) {
+            key = foldCase(key);
+        }
+
+        return key;
+    }
+
+    private static String foldCase(String identifier) {
+        char[] chars = identifier.toCharArray();
+        for (int pos = 0; pos < chars.length; pos++) {
+            // This is the same per-character test that String.equalsIgnoreCase() uses
+            chars[pos] = Character.toLowerCase(Character.toUpperCase(chars[pos]));
+        }
+        return new String(chars);
     }
 
     /**
@@ -105,7 +594,7 @@ public class EntryCatalog extends Entry {
      * @return the entry added.
      */
     public EntryGroup addGroup(URI baseURI, String id, boolean prefer) {
-        EntryGroup entry = new EntryGroup(config, baseURI, id, prefer);
+        EntryGroup entry = new EntryGroup(config, shared(baseURI), id, prefer);
         add(entry);
         return entry;
     }
@@ -122,7 +611,7 @@ public class EntryCatalog extends Entry {
     public EntryPublic addPublic(URI baseURI, String id, String publicId, String uri, boolean prefer) {
         EntryPublic entry = null;
         if (publicId != null && uri != null) {
-            entry = new EntryPublic(config, baseURI, id, publicId, uri, prefer);
+            entry = new EntryPublic(config, shared(baseURI), id, publicId, uri, prefer, lazyUris);
             add(entry);
         } else {
             error("Invalid public entry (missing publicId or uri attribute)");
@@ -141,7 +630,7 @@ public class EntryCatalog extends Entry {
     public EntrySystem addSystem(URI baseURI, String id, String systemId, String uri) {
         EntrySystem entry = null;
         if (systemId != null && uri != null) {
-            entry = new EntrySystem(config, baseURI, id, systemId, uri);
+            entry = new EntrySystem(config, shared(baseURI), id, systemId, uri, lazyUris);
             add(entry);
         } else {
             error("Invalid system entry (missing systemId or uri attribute)");
@@ -160,7 +649,7 @@ public class EntryCatalog extends Entry {
     public EntrySystemSuffix addSystemSuffix(URI baseURI, String id, String suffix, String uri) {
         EntrySystemSuffix entry = null;
         if (suffix != null && uri != null) {
-            entry = new EntrySystemSuffix(config, baseURI, id, suffix, uri);
+            entry = new EntrySystemSuffix(config, shared(baseURI), id, suffix, uri, lazyUris);
             add(entry);
         } else {
             error("Invalid systemSuffix entry (missing systemIdSuffix or uri attribute)");
@@ -179,7 +668,7 @@ public class EntryCatalog extends Entry {
     public EntryRewriteSystem addRewriteSystem(URI baseURI, String id, String startString, String prefix) {
         EntryRewriteSystem entry = null;
         if (startString != null && prefix != null) {
-            entry = new EntryRewriteSystem(config, baseURI, id, startString, prefix);
+            entry = new EntryRewriteSystem(config, shared(baseURI), id, startString, prefix);
             add(entry);
         } else {
             error("Invalid rewriteSystem entry (missing systemIdStartString or prefix attribute)");
@@ -198,7 +687,7 @@ public class EntryCatalog extends Entry {
     public EntryDelegateSystem addDelegateSystem(URI baseURI, String id, String startString, String catalog) {
         EntryDelegateSystem entry = null;
         if (startString != null && catalog != null) {
-            entry = new EntryDelegateSystem(config, baseURI, id, startString, catalog);
+            entry = new EntryDelegateSystem(config, shared(baseURI), id, startString, catalog);
             add(entry);
         } else {
             error("Invalid delegateSystem entry (missing systemIdStartString or catalog attribute)");
@@ -218,7 +707,7 @@ public class EntryCatalog extends Entry {
     public EntryDelegatePublic addDelegatePublic(URI baseURI, String id, String startString, String catalog, boolean prefer) {
         EntryDelegatePublic entry = null;
         if (startString != null && catalog != null) {
-            entry = new EntryDelegatePublic(config, baseURI, id, startString, catalog, prefer);
+            entry = new EntryDelegatePublic(config, shared(baseURI), id, startString, catalog, prefer);
             add(entry);
         } else {
             error("Invalid delegatePublic entry (missing publicIdStartString or catalog attribute)");
@@ -238,7 +727,7 @@ public class EntryCatalog extends Entry {
     public EntryUri addUri(URI baseURI, String id, String name, String uri, String nature, String purpose) {
         EntryUri entry = null;
         if (name != null && uri != null) {
-            entry = new EntryUri(config, baseURI, id, name, uri, nature, purpose);
+            entry = new EntryUri(config, shared(baseURI), id, name, uri, nature, purpose, lazyUris);
             add(entry);
         } else {
             error("Invalid uri entry (missing name or uri attribute)");
@@ -257,7 +746,7 @@ public class EntryCatalog extends Entry {
     public EntryRewriteUri addRewriteUri(URI baseURI, String id, String startString, String prefix) {
         EntryRewriteUri entry = null;
         if (startString != null && prefix != null) {
-            entry = new EntryRewriteUri(config, baseURI, id, startString, prefix);
+            entry = new EntryRewriteUri(config, shared(baseURI), id, startString, prefix);
             add(entry);
         } else {
             error("Invalid rewriteURI entry (missing uriStartString or prefix attribute)");
@@ -276,7 +765,7 @@ public class EntryCatalog extends Entry {
     public EntryUriSuffix addUriSuffix(URI baseURI, String id, String endString, String uri) {
         EntryUriSuffix entry = null;
         if (endString != null && uri != null) {
-            entry = new EntryUriSuffix(config, baseURI, id, endString, uri);
+            entry = new EntryUriSuffix(config, shared(baseURI), id, endString, uri, lazyUris);
             add(entry);
         } else {
             error("Invalid uriSuffix entry (missing uriStartString or uri attribute)");
@@ -295,7 +784,7 @@ public class EntryCatalog extends Entry {
     public EntryDelegateUri addDelegateUri(URI baseURI, String id, String startString, String catalog) {
         EntryDelegateUri entry = null;
         if (startString != null && catalog != null) {
-            entry = new EntryDelegateUri(config, baseURI, id, startString, catalog);
+            entry = new EntryDelegateUri(config, shared(baseURI), id, startString, catalog);
             add(entry);
         } else {
             error("Invalid delegateURI entry (missing uriStartString or catalog attribute)");
@@ -313,7 +802,7 @@ public class EntryCatalog extends Entry {
     public EntryNextCatalog addNextCatalog(URI baseURI, String id, String catalog) {
         EntryNextCatalog entry = null;
         if (catalog != null) {
-            entry = new EntryNextCatalog(config, baseURI, id, catalog);
+            entry = new EntryNextCatalog(config, shared(baseURI), id, catalog);
             add(entry);
         } else {
             error("Invalid nextCatalog entry (missing catalog attribute)");
@@ -332,7 +821,7 @@ public class EntryCatalog extends Entry {
     public EntryDoctype addDoctype(URI baseURI, String id, String name, String uri) {
         EntryDoctype entry = null;
         if (name != null && uri != null) {
-            entry = new EntryDoctype(config, baseURI, id, name, uri);
+            entry = new EntryDoctype(config, shared(baseURI), id, name, uri);
             add(entry);
         } else {
             error("Invalid doctype entry (missing name or uri attribute)");
@@ -350,7 +839,7 @@ public class EntryCatalog extends Entry {
     public EntryDocument addDocument(URI baseURI, String id, String uri) {
         EntryDocument entry = null;
         if (uri != null) {
-            entry = new EntryDocument(config, baseURI, id, uri);
+            entry = new EntryDocument(config, shared(baseURI), id, uri);
             add(entry);
         } else {
             error("Invalid document entry (missing uri attribute)");
@@ -369,7 +858,7 @@ public class EntryCatalog extends Entry {
     public EntryDtdDecl addDtdDecl(URI baseURI, String id, String publicId, String uri) {
         EntryDtdDecl entry = null;
         if (publicId != null && uri != null) {
-            entry = new EntryDtdDecl(config, baseURI, id, publicId, uri);
+            entry = new EntryDtdDecl(config, shared(baseURI), id, publicId, uri);
             add(entry);
         } else {
             error("Invalid dtddecl entry (missing publicId or uri attribute)");
@@ -388,7 +877,7 @@ public class EntryCatalog extends Entry {
     public EntryEntity addEntity(URI baseURI, String id, String name, String uri) {
         EntryEntity entry = null;
         if (name != null && uri != null) {
-            entry = new EntryEntity(config, baseURI, id, name, uri);
+            entry = new EntryEntity(config, shared(baseURI), id, name, uri);
             add(entry);
         } else {
             error("Invalid entity entry (missing name or uri attribute)");
@@ -407,7 +896,7 @@ public class EntryCatalog extends Entry {
     public EntryLinktype addLinktype(URI baseURI, String id, String name, String uri) {
         EntryLinktype entry = null;
         if (name != null && uri != null) {
-            entry = new EntryLinktype(config, baseURI, id, name, uri);
+            entry = new EntryLinktype(config, shared(baseURI), id, name, uri);
             add(entry);
         } else {
             error("Invalid linktype entry (missing name or uri attribute)");
@@ -426,7 +915,7 @@ public class EntryCatalog extends Entry {
     public EntryNotation addNotation(URI baseURI, String id, String name, String uri) {
         EntryNotation entry = null;
         if (name != null && uri != null) {
-            entry = new EntryNotation(config, baseURI, id, name, uri);
+            entry = new EntryNotation(config, shared(baseURI), id, name, uri);
             add(entry);
         } else {
             error("Invalid notation entry (missing name or uri attribute)");
@@ -444,7 +933,7 @@ public class EntryCatalog extends Entry {
     public EntrySgmldecl addSgmlDecl(URI baseURI, String id, String uri) {
         EntrySgmldecl entry = null;
         if (uri != null) {
-            entry = new EntrySgmldecl(config, baseURI, id, uri);
+            entry = new EntrySgmldecl(config, shared(baseURI), id, uri);
             add(entry);
         } else {
             error("Invalid sgmldecl entry (uri attribute)");
@@ -456,4 +945,24 @@ public class EntryCatalog extends Entry {
     public String toString() {
         return "catalog prefer=" + (preferPublic ? "public" : "system");
     }
+
+    private static class Frozen {
+        private final List<Entry> entries;
+        private final EnumMap<Type, List<Entry>> typedEntries;
+        private final EnumMap<Type, HashMap<String, List<Entry>>> keyedEntries;
+        private final EnumMap<Type, EntryTrie> tries;
+        private final EnumMap<Type, EntryTrie> foldedTries;
+        private final EntryFilter filter;
+
+        private Frozen(List<Entry> entries, EnumMap<Type, List<Entry>> typedEntries,
+                       EnumMap<Type, HashMap<String, List<Entry>>> keyedEntries,
+                       EnumMap<Type, EntryTrie> tries, EnumMap<Type, EntryTrie> foldedTries, EntryFilter filter) {
+            this.entries = entries;
+            this.typedEntries = typedEntries;
+            this.keyedEntries = keyedEntries;
+            this.tries = tries;
+            this.foldedTries = foldedTries;
+            this.filter = filter;
+        }
+    }
 }
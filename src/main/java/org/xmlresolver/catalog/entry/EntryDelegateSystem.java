@@ -11,6 +11,7 @@ import java.net.URI;
 public class EntryDelegateSystem extends Entry {
     /** The system identifier prefix to match. */
     public final String systemIdStart;
+    private final String mergedSystemIdStart;
     /** The delegated catalog. */
     public final URI catalog;
 
@@ -33,9 +34,20 @@ public class EntryDelegateSystem extends Entry {
             systemIdStart = startString;
         }
 
+        mergedSystemIdStart = URIUtils.normalizedForComparison(systemIdStart, true);
         this.catalog = URIUtils.resolve(baseURI, catalog);
     }
 
+    /**
+     * The system identifier prefix, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized system identifier prefix.
+     * @see org.xmlresolver.utils.URIUtils#normalizedForComparison(String, boolean)
+     */
+    public String compareSystemIdStart(boolean mergeHttps) {
+        return mergeHttps ? mergedSystemIdStart : systemIdStart;
+    }
+
     @Override
     public Type getType() {
         return Type.DELEGATE_SYSTEM;
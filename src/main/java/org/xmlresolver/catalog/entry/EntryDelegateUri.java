@@ -11,6 +11,7 @@ import java.net.URI;
 public class EntryDelegateUri extends Entry {
     /** The URI prefix to match. */
     public final String uriStart;
+    private final String mergedUriStart;
     /** The delegated catalog. */
     public final URI catalog;
 
@@ -33,9 +34,20 @@ public class EntryDelegateUri extends Entry {
             uriStart = startString;
         }
 
+        mergedUriStart = URIUtils.normalizedForComparison(uriStart, true);
         this.catalog = URIUtils.resolve(baseURI, catalog);
     }
 
+    /**
+     * The URI prefix, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized URI prefix.
+     * @see org.xmlresolver.utils.URIUtils#normalizedForComparison(String, boolean)
+     */
+    public String compareUriStart(boolean mergeHttps) {
+        return mergeHttps ? mergedUriStart : uriStart;
+    }
+
     @Override
     public Type getType() {
         return Type.DELEGATE_URI;
@@ -0,0 +1,148 @@
+package org.xmlresolver.catalog.entry;
+
+/**
+ * A Bloom filter over the keys of a catalog.
+ * <p>The filter records exact keys, and fingerprints of prefix and suffix keys, for each entry type.
+ * It can say that no entry of a given type could match an identifier; it can't say that one will.
+ * Prefix and suffix keys are fingerprinted by (at most) their first or last {@link #MAX_LENGTH}
+ * characters. The filter remembers which lengths occur, so a probe hashes the identifier
+ * incrementally and tests only those lengths.</p>
+ * <p>If keys are folded, each character is compared without regard to case,
+ * in the same way as {@link String#equalsIgnoreCase(String)}.</p>
+ */
+class EntryFilter {
+    private static final int MAX_LENGTH = 63;
+    private static final int PROBES = 5;
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int SUFFIX = 2;
+
+    private final long[] bits;
+    private final int mask;
+    private final long[] prefixLengths = new long[Entry.Type.values().length];
+    private final long[] suffixLengths = new long[Entry.Type.values().length];
+
+    /**
+     * EntryFilter constructor.
+     * @param keys The (approximate) number of keys that will be added.
+     */
+    EntryFilter(int keys) {
+        // About ten bits per key gives a false positive rate of around one percent
+        int size = 64;
+        while (size < keys * 10 && size < (1 << 30)) {
+            size <<= 1;
+        }
+        bits = new long[size / 64];
+        mask = size - 1;
+    }
+
+    void add(Entry.Type type, String key, boolean fold) {
+        int hash = seed(type, EXACT);
+        for (int pos = 0; pos < key.length(); pos++) {
+            hash = step(hash, key.charAt(pos), fold);
+        }
+        set(hash, key.length());
+    }
+
+    void addPrefix(Entry.Type type, String key, boolean fold) {
+        int length = Math.min(key.length(), MAX_LENGTH);
+        prefixLengths[type.ordinal()] |= 1L << length;
+        int hash = seed(type, PREFIX);
+        for (int pos = 0; pos < length; pos++) {
+            hash = step(hash, key.charAt(pos), fold);
+        }
+        set(hash, length);
+    }
+
+    void addSuffix(Entry.Type type, String key, boolean fold) {
+        int length = Math.min(key.length(), MAX_LENGTH);
+        suffixLengths[type.ordinal()] |= 1L << length;
+        int hash = seed(type, SUFFIX);
+        for (int pos = 0; pos < length; pos++) {
+            hash = step(hash, key.charAt(key.length() - pos - 1), fold);
+        }
+        set(hash, length);
+    }
+
+    boolean mightContain(Entry.Type type, String identifier, boolean fold) {
+        int hash = seed(type, EXACT);
+        for (int pos = 0; pos < identifier.length(); pos++) {
+            hash = step(hash, identifier.charAt(pos), fold);
+        }
+        return test(hash, identifier.length());
+    }
+
+    boolean mightStartWith(Entry.Type type, String identifier, boolean fold) {
+        long lengths = prefixLengths[type.ordinal()];
+        int max = Math.min(identifier.length(), MAX_LENGTH);
+        int hash = seed(type, PREFIX);
+        for (int length = 0; lengths != 0; length++) {
+            if ((lengths & (1L << length)) != 0 && test(hash, length)) {
+                return true;
+            }
+            if (length == max) {
+                break;
+            }
+            hash = step(hash, identifier.charAt(length), fold);
+        }
+        return false;
+    }
+
+    boolean mightEndWith(Entry.Type type, String identifier, boolean fold) {
+        long lengths = suffixLengths[type.ordinal()];
+        int max = Math.min(identifier.length(), MAX_LENGTH);
+        int hash = seed(type, SUFFIX);
+        for (int length = 0; lengths != 0; length++) {
+            if ((lengths & (1L << length)) != 0 && test(hash, length)) {
+                return true;
+            }
+            if (length == max) {
+                break;
+            }
+            hash = step(hash, identifier.charAt(identifier.length() - length - 1), fold);
+        }
+        return false;
+    }
+
+    private void set(int hash, int length) {
+        int h1 = mix(hash ^ length);
+        int h2 = mix(h1 ^ 0x85ebca6b) | 1;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int bit = (h1 + probe * h2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean test(int hash, int length) {
+        int h1 = mix(hash ^ length);
+        int h2 = mix(h1 ^ 0x85ebca6b) | 1;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int bit = (h1 + probe * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int seed(Entry.Type type, int kind) {
+        return mix(type.ordinal() * 3 + kind + 1);
+    }
+
+    private static int step(int hash, char ch, boolean fold) {
+        if (fold) {
+            ch = Character.toLowerCase(Character.toUpperCase(ch));
+        }
+        return (hash ^ ch) * 0x01000193;
+    }
+
+    private static int mix(int hash) {
+        // The MurmurHash3 finalizer
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -13,8 +13,10 @@ public class EntryPublic extends Entry {
     public final String publicId;
     /** Are public identifiers preferred? */
     public final boolean preferPublic;
-    /** The entry URI. */
+    /** The entry URI, or null if it's resolved lazily. See {@link #getUri()}. */
     public final URI uri;
+    private final String lazyUri;
+    private volatile URI resolvedUri = null;
 
     /**
      * EntryPublic constructor.
@@ -26,10 +28,39 @@ public class EntryPublic extends Entry {
      * @param prefer Are public identifiers preferred?
      */
     public EntryPublic(ResolverConfiguration config, URI baseURI, String id, String publicId, String uri, boolean prefer) {
+        this(config, baseURI, id, publicId, uri, prefer, false);
+    }
+
+    EntryPublic(ResolverConfiguration config, URI baseURI, String id, String publicId, String uri, boolean prefer, boolean lazy) {
         super(config, baseURI, id);
         this.publicId = publicId;
         this.preferPublic = prefer;
-        this.uri = URIUtils.resolve(baseURI, uri);
+        if (lazy) {
+            this.uri = null;
+            lazyUri = uri;
+        } else {
+            this.uri = URIUtils.resolve(baseURI, uri);
+            lazyUri = null;
+        }
+    }
+
+    /**
+     * The entry URI.
+     * <p>If the catalog resolves entry URIs lazily (see {@link org.xmlresolver.ResolverFeature#LAZY_ENTRY_URIS}),
+     * the URI is resolved against the base URI the first time it's needed, and remembered.</p>
+     * @return The entry URI.
+     * @throws IllegalArgumentException if the URI is resolved lazily and can't be resolved.
+     */
+    public URI getUri() {
+        if (uri != null) {
+            return uri;
+        }
+        URI resolved = resolvedUri;
+        if (resolved == null) {
+            resolved = URIUtils.resolve(baseURI, lazyUri);
+            resolvedUri = resolved;
+        }
+        return resolved;
     }
 
     @Override
@@ -39,6 +70,6 @@ public class EntryPublic extends Entry {
 
     @Override
     public String toString() {
-        return "public " + publicId + Entry.rarr + uri;
+        return "public " + publicId + Entry.rarr + getUri();
     }
 }
@@ -11,6 +11,7 @@ import java.net.URI;
 public class EntryRewriteSystem extends Entry {
     /** The system identifier start string to match. */
     public final String systemIdStart;
+    private final String mergedSystemIdStart;
     /** The prefix to use when rewriting the system identifier. */
     public final URI rewritePrefix;
 
@@ -33,9 +34,20 @@ public class EntryRewriteSystem extends Entry {
             systemIdStart = startString;
         }
 
+        mergedSystemIdStart = URIUtils.normalizedForComparison(systemIdStart, true);
         rewritePrefix = URIUtils.resolve(baseURI, rewrite);
     }
 
+    /**
+     * The system identifier start string, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized system identifier start string.
+     * @see org.xmlresolver.utils.URIUtils#normalizedForComparison(String, boolean)
+     */
+    public String compareSystemIdStart(boolean mergeHttps) {
+        return mergeHttps ? mergedSystemIdStart : systemIdStart;
+    }
+
     @Override
     public Type getType() {
         return Type.REWRITE_SYSTEM;
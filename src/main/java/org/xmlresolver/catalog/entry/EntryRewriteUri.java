@@ -11,6 +11,7 @@ import java.net.URI;
 public class EntryRewriteUri extends Entry {
     /** The URI start string to match. */
     public final String uriStart;
+    private final String mergedUriStart;
     /** The prefix to use when rewriting the URI. */
     public final URI rewritePrefix;
 
@@ -33,9 +34,20 @@ public class EntryRewriteUri extends Entry {
             uriStart = startString;
         }
 
+        mergedUriStart = URIUtils.normalizedForComparison(uriStart, true);
         rewritePrefix = URIUtils.resolve(baseURI, rewrite);
     }
 
+    /**
+     * The URI start string, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized URI start string.
+     * @see org.xmlresolver.utils.URIUtils#normalizedForComparison(String, boolean)
+     */
+    public String compareUriStart(boolean mergeHttps) {
+        return mergeHttps ? mergedUriStart : uriStart;
+    }
+
     @Override
     public Type getType() {
         return Type.REWRITE_URI;
@@ -11,8 +11,11 @@ import java.net.URI;
 public class EntrySystem extends Entry {
     /** The system identifier. */
     public final String systemId;
-    /** The entry URI. */
+    private final String mergedSystemId;
+    /** The entry URI, or null if it's resolved lazily. See {@link #getUri()}. */
     public final URI uri;
+    private final String lazyUri;
+    private volatile URI resolvedUri = null;
 
     /**
      * EntrySystem constructor.
@@ -23,6 +26,10 @@ public class EntrySystem extends Entry {
      * @param uri The entry URI.
      */
     public EntrySystem(ResolverConfiguration config, URI baseURI, String id, String systemId, String uri) {
+        this(config, baseURI, id, systemId, uri, false);
+    }
+
+    EntrySystem(ResolverConfiguration config, URI baseURI, String id, String systemId, String uri, boolean lazy) {
         super(config, baseURI, id);
 
         if (systemId.startsWith("classpath:/")) {
@@ -33,7 +40,43 @@ public class EntrySystem extends Entry {
             this.systemId = systemId;
         }
 
-        this.uri = URIUtils.resolve(baseURI, uri);
+        mergedSystemId = URIUtils.normalizedForComparison(this.systemId, true);
+        if (lazy) {
+            this.uri = null;
+            lazyUri = uri;
+        } else {
+            this.uri = URIUtils.resolve(baseURI, uri);
+            lazyUri = null;
+        }
+    }
+
+    /**
+     * The system identifier, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized system identifier.
+     * @see org.xmlresolver.utils.URIUtils#normalizedForComparison(String, boolean)
+     */
+    public String compareSystemId(boolean mergeHttps) {
+        return mergeHttps ? mergedSystemId : systemId;
+    }
+
+    /**
+     * The entry URI.
+     * <p>If the catalog resolves entry URIs lazily (see {@link org.xmlresolver.ResolverFeature#LAZY_ENTRY_URIS}),
+     * the URI is resolved against the base URI the first time it's needed, and remembered.</p>
+     * @return The entry URI.
+     * @throws IllegalArgumentException if the URI is resolved lazily and can't be resolved.
+     */
+    public URI getUri() {
+        if (uri != null) {
+            return uri;
+        }
+        URI resolved = resolvedUri;
+        if (resolved == null) {
+            resolved = URIUtils.resolve(baseURI, lazyUri);
+            resolvedUri = resolved;
+        }
+        return resolved;
     }
 
     @Override
@@ -43,6 +86,6 @@ public class EntrySystem extends Entry {
 
     @Override
     public String toString() {
-        return "system " + systemId + Entry.rarr + uri;
+        return "system " + systemId + Entry.rarr + getUri();
     }
 }
@@ -7,12 +7,57 @@ import java.net.URI;
 
 public class EntrySystemSuffix extends Entry {
     public final String systemIdSuffix;
+    private final String normalizedSystemIdSuffix;
+    private final String mergedSystemIdSuffix;
+    /** The entry URI, or null if it's resolved lazily. See {@link #getUri()}. */
     public final URI uri;
+    private final String lazyUri;
+    private volatile URI resolvedUri = null;
 
     public EntrySystemSuffix(ResolverConfiguration config, URI baseURI, String id, String suffix, String uri) {
+        this(config, baseURI, id, suffix, uri, false);
+    }
+
+    EntrySystemSuffix(ResolverConfiguration config, URI baseURI, String id, String suffix, String uri, boolean lazy) {
         super(config, baseURI, id);
         this.systemIdSuffix = suffix;
-        this.uri = URIUtils.resolve(baseURI, uri);
+        normalizedSystemIdSuffix = URIUtils.normalizedForComparison(suffix, false);
+        mergedSystemIdSuffix = URIUtils.normalizedForComparison(suffix, true);
+        if (lazy) {
+            this.uri = null;
+            lazyUri = uri;
+        } else {
+            this.uri = URIUtils.resolve(baseURI, uri);
+            lazyUri = null;
+        }
+    }
+
+    /**
+     * The system identifier suffix, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized suffix.
+     */
+    public String compareSystemIdSuffix(boolean mergeHttps) {
+        return mergeHttps ? mergedSystemIdSuffix : normalizedSystemIdSuffix;
+    }
+
+    /**
+     * The entry URI.
+     * <p>If the catalog resolves entry URIs lazily (see {@link org.xmlresolver.ResolverFeature#LAZY_ENTRY_URIS}),
+     * the URI is resolved against the base URI the first time it's needed, and remembered.</p>
+     * @return The entry URI.
+     * @throws IllegalArgumentException if the URI is resolved lazily and can't be resolved.
+     */
+    public URI getUri() {
+        if (uri != null) {
+            return uri;
+        }
+        URI resolved = resolvedUri;
+        if (resolved == null) {
+            resolved = URIUtils.resolve(baseURI, lazyUri);
+            resolvedUri = resolved;
+        }
+        return resolved;
     }
 
     @Override
@@ -22,6 +67,6 @@ public class EntrySystemSuffix extends Entry {
 
     @Override
     public String toString() {
-        return "systemSuffix " + systemIdSuffix + Entry.rarr + uri;
+        return "systemSuffix " + systemIdSuffix + Entry.rarr + getUri();
     }
 }
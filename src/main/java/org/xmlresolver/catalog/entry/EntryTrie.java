@@ -0,0 +1,117 @@
+package org.xmlresolver.catalog.entry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A trie of catalog entries keyed by string.
+ * <p>The trie finds all of the keys that are a prefix of an identifier in time
+ * proportional to the length of the identifier, rather than the number of entries.
+ * A reversed trie stores its keys back to front, so it finds all of the keys that
+ * are a suffix of an identifier.
+ * Entries are returned longest key first; entries with the same key are returned in
+ * the order they were added (document order).</p>
+ */
+class EntryTrie {
+    private final Node root = new Node();
+    private final boolean reversed;
+
+    /**
+     * EntryTrie constructor.
+     * @param reversed If true, the trie matches suffixes instead of prefixes.
+     */
+    EntryTrie(boolean reversed) {
+        this.reversed = reversed;
+    }
+
+    /**
+     * Add an entry to the trie.
+     * @param key The key.
+     * @param entry The entry.
+     */
+    void add(String key, Entry entry) {
+        Node node = root;
+        for (int pos = 0; pos < key.length(); pos++) {
+            node = node.child(charAt(key, pos), true);
+        }
+        if (node.entries == null) {
+            node.entries = new ArrayList<>();
+        }
+        node.entries.add(entry);
+    }
+
+    /**
+     * Find the entries whose key is a prefix (or suffix, if the trie is reversed) of the identifier.
+     * @param identifier The identifier, already normalized in the same way as the keys.
+     * @return The matching entries, longest key first.
+     */
+    List<Entry> matches(String identifier) {
+        ArrayList<ArrayList<Entry>> found = null;
+        Node node = root;
+        int pos = 0;
+        while (node != null) {
+            if (node.entries != null) {
+                if (found == null) {
+                    found = new ArrayList<>();
+                }
+                found.add(node.entries);
+            }
+            node = pos < identifier.length() ? node.child(charAt(identifier, pos), false) : null;
+            pos++;
+        }
+
+        if (found == null) {
+            return Collections.emptyList();
+        }
+
+        if (found.size() == 1) {
+            return Collections.unmodifiableList(found.get(0));
+        }
+
+        ArrayList<Entry> result = new ArrayList<>();
+        for (int index = found.size() - 1; index >= 0; index--) {
+            result.addAll(found.get(index));
+        }
+        return result;
+    }
+
+    private char charAt(String key, int pos) {
+        return reversed ? key.charAt(key.length() - pos - 1) : key.charAt(pos);
+    }
+
+    private static class Node {
+        private static final char[] noKeys = new char[0];
+        private static final Node[] noChildren = new Node[0];
+
+        private char[] keys = noKeys;
+        private Node[] children = noChildren;
+        private ArrayList<Entry> entries = null;
+
+        private Node child(char ch, boolean create) {
+            int index = Arrays.binarySearch(keys, ch);
+            if (index >= 0) {
+                return children[index];
+            }
+            if (!create) {
+                return null;
+            }
+
+            index = -(index + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+
+            Node node = new Node();
+            newKeys[index] = ch;
+            newChildren[index] = node;
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+}
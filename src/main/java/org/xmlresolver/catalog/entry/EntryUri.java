@@ -11,12 +11,19 @@ import java.net.URI;
 public class EntryUri extends Entry {
     /** The entry name, the URI of the resource to be matched. */
     public final String name;
+    private final String mergedName;
     /** The RDDL nature of the entry. */
     public final String nature;
     /** The RDDL purpose of the entry. */
     public final String purpose;
-    /** The entry URI. */
+    private final String normalizedNature;
+    private final String mergedNature;
+    private final String normalizedPurpose;
+    private final String mergedPurpose;
+    /** The entry URI, or null if it's resolved lazily. See {@link #getUri()}. */
     public final URI uri;
+    private final String lazyUri;
+    private volatile URI resolvedUri = null;
 
     /**
      * EntryUri constructor.
@@ -29,6 +36,10 @@ public class EntryUri extends Entry {
      * @param purpose The RDDL purpose of the resource, may be null.
      */
     public EntryUri(ResolverConfiguration config, URI baseURI, String id, String name, String uri, String nature, String purpose) {
+        this(config, baseURI, id, name, uri, nature, purpose, false);
+    }
+
+    EntryUri(ResolverConfiguration config, URI baseURI, String id, String name, String uri, String nature, String purpose, boolean lazy) {
         super(config, baseURI, id);
 
         if (name.startsWith("classpath:/")) {
@@ -39,9 +50,72 @@ public class EntryUri extends Entry {
             this.name = name;
         }
 
-        this.nature = nature;
-        this.purpose = purpose;
-        this.uri = URIUtils.resolve(baseURI, uri);
+        mergedName = URIUtils.normalizedForComparison(this.name, true);
+        // There are only a few natures and purposes, so every entry that has the same one shares it
+        this.nature = intern(nature);
+        this.purpose = intern(purpose);
+        normalizedNature = intern(URIUtils.normalizedForComparison(nature, false));
+        mergedNature = intern(URIUtils.normalizedForComparison(nature, true));
+        normalizedPurpose = intern(URIUtils.normalizedForComparison(purpose, false));
+        mergedPurpose = intern(URIUtils.normalizedForComparison(purpose, true));
+        if (lazy) {
+            this.uri = null;
+            lazyUri = uri;
+        } else {
+            this.uri = URIUtils.resolve(baseURI, uri);
+            lazyUri = null;
+        }
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    /**
+     * The entry name, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized entry name.
+     * @see org.xmlresolver.utils.URIUtils#normalizedForComparison(String, boolean)
+     */
+    public String compareName(boolean mergeHttps) {
+        return mergeHttps ? mergedName : name;
+    }
+
+    /**
+     * The RDDL nature, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized nature, or null if the entry has no nature.
+     */
+    public String compareNature(boolean mergeHttps) {
+        return mergeHttps ? mergedNature : normalizedNature;
+    }
+
+    /**
+     * The RDDL purpose, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized purpose, or null if the entry has no purpose.
+     */
+    public String comparePurpose(boolean mergeHttps) {
+        return mergeHttps ? mergedPurpose : normalizedPurpose;
+    }
+
+    /**
+     * The entry URI.
+     * <p>If the catalog resolves entry URIs lazily (see {@link org.xmlresolver.ResolverFeature#LAZY_ENTRY_URIS}),
+     * the URI is resolved against the base URI the first time it's needed, and remembered.</p>
+     * @return The entry URI.
+     * @throws IllegalArgumentException if the URI is resolved lazily and can't be resolved.
+     */
+    public URI getUri() {
+        if (uri != null) {
+            return uri;
+        }
+        URI resolved = resolvedUri;
+        if (resolved == null) {
+            resolved = URIUtils.resolve(baseURI, lazyUri);
+            resolvedUri = resolved;
+        }
+        return resolved;
     }
 
     @Override
@@ -51,7 +125,7 @@ public class EntryUri extends Entry {
 
     @Override
     public String toString() {
-        String str = "uri " + name + Entry.rarr + uri;
+        String str = "uri " + name + Entry.rarr + getUri();
         if (nature != null || purpose != null) {
             str += " (";
             if (nature != null) {
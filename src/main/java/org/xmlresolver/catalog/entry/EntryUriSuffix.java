@@ -11,8 +11,12 @@ import java.net.URI;
 public class EntryUriSuffix extends Entry {
     /** The URI suffix to match. */
     public final String uriSuffix;
-    /** The entry URI. */
+    private final String normalizedUriSuffix;
+    private final String mergedUriSuffix;
+    /** The entry URI, or null if it's resolved lazily. See {@link #getUri()}. */
     public final URI uri;
+    private final String lazyUri;
+    private volatile URI resolvedUri = null;
 
     /**
      * EntryUriSuffix constructor.
@@ -23,9 +27,50 @@ public class EntryUriSuffix extends Entry {
      * @param uri The entry URI.
      */
     public EntryUriSuffix(ResolverConfiguration config, URI baseURI, String id, String suffix, String uri) {
+        this(config, baseURI, id, suffix, uri, false);
+    }
+
+    EntryUriSuffix(ResolverConfiguration config, URI baseURI, String id, String suffix, String uri, boolean lazy) {
         super(config, baseURI, id);
         this.uriSuffix = suffix;
-        this.uri = URIUtils.resolve(baseURI, uri);
+        normalizedUriSuffix = URIUtils.normalizedForComparison(suffix, false);
+        mergedUriSuffix = URIUtils.normalizedForComparison(suffix, true);
+        if (lazy) {
+            this.uri = null;
+            lazyUri = uri;
+        } else {
+            this.uri = URIUtils.resolve(baseURI, uri);
+            lazyUri = null;
+        }
+    }
+
+    /**
+     * The URI suffix, normalized for comparison.
+     * @param mergeHttps Are <code>http:</code> and <code>https:</code> URIs considered the same?
+     * @return The normalized suffix.
+     * @see org.xmlresolver.utils.URIUtils#normalizedForComparison(String, boolean)
+     */
+    public String compareUriSuffix(boolean mergeHttps) {
+        return mergeHttps ? mergedUriSuffix : normalizedUriSuffix;
+    }
+
+    /**
+     * The entry URI.
+     * <p>If the catalog resolves entry URIs lazily (see {@link org.xmlresolver.ResolverFeature#LAZY_ENTRY_URIS}),
+     * the URI is resolved against the base URI the first time it's needed, and remembered.</p>
+     * @return The entry URI.
+     * @throws IllegalArgumentException if the URI is resolved lazily and can't be resolved.
+     */
+    public URI getUri() {
+        if (uri != null) {
+            return uri;
+        }
+        URI resolved = resolvedUri;
+        if (resolved == null) {
+            resolved = URIUtils.resolve(baseURI, lazyUri);
+            resolvedUri = resolved;
+        }
+        return resolved;
     }
 
     @Override
@@ -35,6 +80,6 @@ public class EntryUriSuffix extends Entry {
 
     @Override
     public String toString() {
-        return "uriSuffix " + uriSuffix + Entry.rarr + uri;
+        return "uriSuffix " + uriSuffix + Entry.rarr + getUri();
     }
 }
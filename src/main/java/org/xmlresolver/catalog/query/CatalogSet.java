@@ -0,0 +1,102 @@
+package org.xmlresolver.catalog.query;
+
+import org.xmlresolver.CatalogManager;
+import org.xmlresolver.catalog.entry.Entry;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.catalog.entry.EntryNextCatalog;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A compiled set of catalogs.
+ * <p>The catalog set is the flattened search order over a list of catalogs: each catalog is
+ * followed by the catalogs that its <code>nextCatalog</code> entries refer to, recursively, before
+ * the next catalog in the list. A catalog that appears more than once is only searched the first
+ * time; searching it again couldn't find anything new.</p>
+ * <p>Catalogs are still loaded lazily; the set is extended only when a search runs past the
+ * end of the catalogs loaded so far. Once the whole set has been loaded, searching it
+ * requires neither locking nor allocation.</p>
+ */
+public class CatalogSet {
+    private static final EntryCatalog[] noCatalogs = new EntryCatalog[0];
+
+    private final CatalogManager manager;
+    private final ArrayDeque<URI> pending = new ArrayDeque<>();
+    private final HashSet<URI> seen = new HashSet<>();
+    private volatile EntryCatalog[] catalogs = noCatalogs;
+    private volatile boolean complete = false;
+
+    /**
+     * CatalogSet constructor.
+     * @param manager The catalog manager that will load the catalogs.
+     * @param catalogs The list of catalogs, in search order.
+     */
+    public CatalogSet(CatalogManager manager, List<URI> catalogs) {
+        this.manager = manager;
+        for (int pos = catalogs.size() - 1; pos >= 0; pos--) {
+            pending.push(catalogs.get(pos));
+        }
+        complete = pending.isEmpty();
+    }
+
+    /**
+     * Get a catalog from the set.
+     * <p>If the catalog at that position hasn't been loaded yet, it will be loaded.</p>
+     * @param index The position of the catalog in the search order.
+     * @return The catalog, or null if the set has fewer catalogs.
+     */
+    public EntryCatalog catalog(int index) {
+        // Read complete first; if it's true, the catalogs array is already final
+        boolean loaded = complete;
+        EntryCatalog[] current = catalogs;
+        if (index < current.length) {
+            return current[index];
+        }
+        if (loaded) {
+            return null;
+        }
+        return extend(index);
+    }
+
+    /**
+     * Has every catalog in the set been loaded?
+     * @return True if all of the catalogs have been loaded.
+     */
+    public boolean loaded() {
+        return complete;
+    }
+
+    private synchronized EntryCatalog extend(int index) {
+        EntryCatalog[] current = catalogs;
+        while (current.length <= index && !pending.isEmpty()) {
+            URI uri = pending.peek();
+            if (seen.contains(uri)) {
+                pending.pop();
+                continue;
+            }
+
+            // If the catalog can't be loaded, it stays pending and the next search tries again
+            EntryCatalog catalog = manager.loadCatalog(uri);
+            pending.pop();
+            seen.add(uri);
+            List<Entry> next = catalog.entries(Entry.Type.NEXT_CATALOG);
+            for (int pos = next.size() - 1; pos >= 0; pos--) {
+                pending.push(((EntryNextCatalog) next.get(pos)).catalog);
+            }
+
+            current = Arrays.copyOf(current, current.length + 1);
+            current[current.length - 1] = catalog;
+            catalogs = current;
+        }
+
+        if (pending.isEmpty()) {
+            complete = true;
+        }
+
+        return index < current.length ? current[index] : null;
+    }
+}
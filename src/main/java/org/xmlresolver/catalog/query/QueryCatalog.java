@@ -5,6 +5,9 @@ import org.xmlresolver.catalog.entry.EntryCatalog;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 
 /**
  * Query an XML Catalog.
@@ -34,27 +37,103 @@ public abstract class QueryCatalog extends QueryResult {
      * @return The results.
      */
     public QueryResult search(CatalogManager manager) {
-        ArrayList<URI> catalogs = new ArrayList<>(manager.catalogs());
-        while (!catalogs.isEmpty()) {
-            EntryCatalog catalog = manager.loadCatalog(catalogs.remove(0));
-            boolean done = false;
-            QueryCatalog query = this;
-            while (!done) {
-                QueryResult result = query.lookup(manager, catalog);
-                done = result.resolved();
-                catalogs = result.updatedCatalogSearchList(catalog, catalogs);
+        return search(manager, manager.catalogSet());
+    }
+
+    /**
+     * Perform the query by searching through a set of catalogs.
+     * @param manager The catalog manager.
+     * @param catalogs The catalogs to search.
+     * @return The results.
+     */
+    public QueryResult search(CatalogManager manager, CatalogSet catalogs) {
+        EntryCatalog catalog;
+        for (int index = 0; (catalog = catalogs.catalog(index)) != null; index++) {
+            if (!mightMatch(manager, catalog)) {
+                // Nothing in this catalog can match, but the catalogs that follow it still might
+                continue;
+            }
+            QueryResult result = lookup(manager, catalog);
+            List<URI> delegated = result.delegatedCatalogs();
+            if (delegated != null) {
+                return search(manager, new CatalogSet(manager, delegated));
+            }
+            if (result.resolved()) {
+                return result;
+            }
+        }
+        return QueryResult.EMPTY_RESULT;
+    }
+
+    /**
+     * Perform several queries by searching through a set of catalogs once.
+     * <p>Each catalog is loaded and visited once for the whole batch; every query that hasn't
+     * been answered yet is looked up in it before moving on to the next catalog. Queries that
+     * delegate to the same list of catalogs continue together in a single search of that list.
+     * The result of each query is the same as if it had been searched for by itself.</p>
+     * @param manager The catalog manager.
+     * @param catalogs The catalogs to search.
+     * @param queries The queries.
+     * @return The results, in the same order as the queries.
+     */
+    public static List<QueryResult> search(CatalogManager manager, CatalogSet catalogs, List<? extends QueryCatalog> queries) {
+        QueryResult[] results = new QueryResult[queries.size()];
+        Arrays.fill(results, QueryResult.EMPTY_RESULT);
 
-                if (result.query()) {
-                    query = (QueryCatalog) result;
+        int[] pending = new int[queries.size()];
+        for (int pos = 0; pos < pending.length; pos++) {
+            pending[pos] = pos;
+        }
+        int count = pending.length;
+
+        LinkedHashMap<List<URI>, ArrayList<Integer>> delegations = new LinkedHashMap<>();
+        EntryCatalog catalog;
+        for (int index = 0; count > 0 && (catalog = catalogs.catalog(index)) != null; index++) {
+            int remaining = 0;
+            for (int pos = 0; pos < count; pos++) {
+                QueryCatalog query = queries.get(pending[pos]);
+                if (!query.mightMatch(manager, catalog)) {
+                    pending[remaining++] = pending[pos];
+                    continue;
+                }
+                QueryResult result = query.lookup(manager, catalog);
+                List<URI> delegated = result.delegatedCatalogs();
+                if (delegated != null) {
+                    delegations.computeIfAbsent(delegated, k -> new ArrayList<>()).add(pending[pos]);
+                } else if (result.resolved()) {
+                    results[pending[pos]] = result;
                 } else {
-                    done = true;
-                    if (result.resolved()) {
-                        return result;
-                    }
+                    pending[remaining++] = pending[pos];
                 }
             }
+            count = remaining;
         }
-        return QueryResult.EMPTY_RESULT;
+
+        for (List<URI> delegated : delegations.keySet()) {
+            ArrayList<Integer> positions = delegations.get(delegated);
+            ArrayList<QueryCatalog> delegatedQueries = new ArrayList<>();
+            for (int pos : positions) {
+                delegatedQueries.add(queries.get(pos));
+            }
+            List<QueryResult> delegatedResults = search(manager, new CatalogSet(manager, delegated), delegatedQueries);
+            for (int pos = 0; pos < positions.size(); pos++) {
+                results[positions.get(pos)] = delegatedResults.get(pos);
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Might this query match an entry in the catalog?
+     * <p>This is a fast, negative test performed before {@link #lookup(CatalogManager, EntryCatalog)}.
+     * If it returns false, the catalog is skipped. The default implementation always returns true.</p>
+     * @param manager The catalog manager.
+     * @param catalog The catalog.
+     * @return False if the lookup can't find anything in this catalog.
+     */
+    protected boolean mightMatch(CatalogManager manager, EntryCatalog catalog) {
+        return true;
     }
 
     protected abstract QueryResult lookup(CatalogManager manager, EntryCatalog catalog);
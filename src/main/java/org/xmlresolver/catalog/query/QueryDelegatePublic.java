@@ -1,9 +1,6 @@
 package org.xmlresolver.catalog.query;
 
-import org.xmlresolver.catalog.entry.EntryCatalog;
-
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -29,8 +26,9 @@ public class QueryDelegatePublic extends QueryPublic {
         return true;
     }
 
-    protected ArrayList<URI> updatedCatalogSearchList(EntryCatalog catalog, ArrayList<URI> oldCatalogs) {
+    @Override
+    protected List<URI> delegatedCatalogs() {
         // Delegation replaces the catalog list
-        return new ArrayList<>(catalogs);
+        return catalogs;
     }
 }
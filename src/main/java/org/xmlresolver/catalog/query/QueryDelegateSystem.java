@@ -1,9 +1,6 @@
 package org.xmlresolver.catalog.query;
 
-import org.xmlresolver.catalog.entry.EntryCatalog;
-
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -28,8 +25,9 @@ public class QueryDelegateSystem extends QuerySystem {
         return true;
     }
 
-    protected ArrayList<URI> updatedCatalogSearchList(EntryCatalog catalog, ArrayList<URI> oldCatalogs) {
+    @Override
+    protected List<URI> delegatedCatalogs() {
         // Delegation replaces the catalog list
-        return new ArrayList<>(catalogs);
+        return catalogs;
     }
 }
\ No newline at end of file
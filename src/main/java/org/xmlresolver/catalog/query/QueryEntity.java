@@ -30,6 +30,12 @@ public class QueryEntity extends QueryCatalog {
         this.publicId = publicId == null ? null : PublicId.normalize(publicId);
     }
 
+    @Override
+    protected boolean mightMatch(CatalogManager manager, EntryCatalog catalog) {
+        return QueryPublic.mightMatchPublic(manager, catalog, systemId, publicId)
+                || catalog.mightMatch(Entry.Type.ENTITY, entityName);
+    }
+
     @Override
     protected QueryResult lookup(CatalogManager manager, EntryCatalog catalog) {
         QueryPublic queryPublic = new QueryPublic(systemId, publicId);
@@ -29,6 +29,20 @@ public class QueryPublic extends QueryCatalog {
         this.publicId = publicId;
     }
 
+    @Override
+    protected boolean mightMatch(CatalogManager manager, EntryCatalog catalog) {
+        return mightMatchPublic(manager, catalog, systemId, publicId);
+    }
+
+    static boolean mightMatchPublic(CatalogManager manager, EntryCatalog catalog, String systemId, String publicId) {
+        if (systemId != null && QuerySystem.mightMatchSystem(manager, catalog, systemId)) {
+            return true;
+        }
+        return publicId != null
+                && (catalog.mightMatch(Entry.Type.PUBLIC, publicId)
+                || catalog.mightMatch(Entry.Type.DELEGATE_PUBLIC, publicId));
+    }
+
     @Override
     protected QueryResult lookup(CatalogManager manager, EntryCatalog catalog) {
         if (systemId != null) {
@@ -41,27 +55,22 @@ public class QueryPublic extends QueryCatalog {
 
         if (publicId != null) {
             // <public>
-            for (Entry raw : catalog.entries(Entry.Type.PUBLIC)) {
+            for (Entry raw : catalog.entries(Entry.Type.PUBLIC, publicId)) {
                 EntryPublic entry = (EntryPublic) raw;
                 if (entry.preferPublic || systemId == null) {
                     if (entry.publicId.equals(publicId)) {
-                        return new QueryResult(entry.uri);
+                        return new QueryResult(entry.getUri());
                     }
                 }
             }
 
             // <delegatePublic>
             ArrayList<EntryDelegatePublic> delegated = new ArrayList<>();
-            for (Entry raw : catalog.entries(Entry.Type.DELEGATE_PUBLIC)) {
+            for (Entry raw : catalog.prefixEntries(Entry.Type.DELEGATE_PUBLIC, publicId)) {
+                // The candidates are already ordered longest first
                 EntryDelegatePublic entry = (EntryDelegatePublic) raw;
                 if (entry.preferPublic || systemId == null) {
-                    if (publicId.startsWith(entry.publicIdStart)) {
-                        int pos = 0;
-                        while (pos < delegated.size() && entry.publicIdStart.length() <= delegated.get(pos).publicIdStart.length()) {
-                            pos += 1;
-                        }
-                        delegated.add(pos, entry);
-                    }
+                    delegated.add(entry);
                 }
             }
             if (!delegated.isEmpty()) {
@@ -1,11 +1,7 @@
 package org.xmlresolver.catalog.query;
 
-import org.xmlresolver.catalog.entry.Entry;
-import org.xmlresolver.catalog.entry.EntryCatalog;
-import org.xmlresolver.catalog.entry.EntryNextCatalog;
-
 import java.net.URI;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The result of querying a catalog.
@@ -53,13 +49,13 @@ public class QueryResult {
         return result;
     }
 
-    protected ArrayList<URI> updatedCatalogSearchList(EntryCatalog catalog, ArrayList<URI> catalogs) {
-        // <nextCatalog>
-        ArrayList<URI> next = new ArrayList<>();
-        for (Entry raw : catalog.entries(Entry.Type.NEXT_CATALOG)) {
-            next.add(((EntryNextCatalog) raw).catalog);
-        }
-        next.addAll(catalogs);
-        return next;
+    /**
+     * The catalogs to which the search has been delegated.
+     * <p>If a query delegates, the catalogs returned replace the remaining catalogs in the search.
+     * The <code>nextCatalog</code> entries are followed by the {@link CatalogSet}.</p>
+     * @return The delegated catalogs, or null if the search was not delegated.
+     */
+    protected List<URI> delegatedCatalogs() {
+        return null;
     }
 }
\ No newline at end of file
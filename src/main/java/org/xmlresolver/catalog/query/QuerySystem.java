@@ -4,6 +4,7 @@ import org.xmlresolver.CatalogManager;
 import org.xmlresolver.ResolverFeature;
 import org.xmlresolver.catalog.entry.*;
 import org.xmlresolver.logging.ResolverLogger;
+import org.xmlresolver.utils.URIUtils;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -25,34 +26,52 @@ public class QuerySystem extends QueryCatalog {
         this.systemId = systemId;
     }
 
+    @Override
+    protected boolean mightMatch(CatalogManager manager, EntryCatalog catalog) {
+        return mightMatchSystem(manager, catalog, systemId);
+    }
+
+    static boolean mightMatchSystem(CatalogManager manager, EntryCatalog catalog, String systemId) {
+        boolean mergeHttps = manager.getResolverConfiguration().getFeature(ResolverFeature.MERGE_HTTPS);
+        String compareSystem = URIUtils.normalizedForComparison(systemId, mergeHttps);
+        if (catalog.mightMatch(Entry.Type.SYSTEM, compareSystem)
+                || catalog.mightMatch(Entry.Type.REWRITE_SYSTEM, compareSystem)
+                || catalog.mightMatch(Entry.Type.SYSTEM_SUFFIX, compareSystem)
+                || catalog.mightMatch(Entry.Type.DELEGATE_SYSTEM, compareSystem)) {
+            return true;
+        }
+        return manager.getResolverConfiguration().getFeature(ResolverFeature.URI_FOR_SYSTEM)
+                && QueryUri.mightMatchUri(manager, catalog, systemId);
+    }
+
     @Override
     protected QueryResult lookup(CatalogManager manager, EntryCatalog catalog) {
-        String compareSystem = manager.normalizedForComparison(systemId);
+        boolean mergeHttps = manager.getResolverConfiguration().getFeature(ResolverFeature.MERGE_HTTPS);
+        String compareSystem = URIUtils.normalizedForComparison(systemId, mergeHttps);
 
         String osname = System.getProperty("os.name").toLowerCase();
         boolean ignoreFScase = osname.contains("windows") || osname.contains("mac");
-        String lowerCaseSystemId = compareSystem.toLowerCase();
 
         // <system>
-        for (Entry raw : catalog.entries(Entry.Type.SYSTEM)) {
+        for (Entry raw : catalog.entries(Entry.Type.SYSTEM, compareSystem)) {
             EntrySystem entry = (EntrySystem) raw;
-            String entrySystem = manager.normalizedForComparison(entry.systemId);
+            String entrySystem = entry.compareSystemId(mergeHttps);
             if (entrySystem.equals(compareSystem) || (ignoreFScase && entrySystem.equalsIgnoreCase(compareSystem))) {
-                return new QueryResult(entry.uri);
+                return new QueryResult(entry.getUri());
             }
         }
 
         // <rewriteSystem>
         EntryRewriteSystem rewrite = null;
         String rewriteStart = null;
-        for (Entry raw : catalog.entries(Entry.Type.REWRITE_SYSTEM)) {
+        for (Entry raw : catalog.prefixEntries(Entry.Type.REWRITE_SYSTEM, compareSystem, ignoreFScase)) {
+            // The candidates are ordered longest first, so the first match is the longest match
             EntryRewriteSystem entry = (EntryRewriteSystem) raw;
-            String compareStart = manager.normalizedForComparison(entry.systemIdStart);
-            if (compareSystem.startsWith(compareStart) || (ignoreFScase && lowerCaseSystemId.startsWith(compareStart.toLowerCase()))) {
-                if (rewrite == null || compareStart.length() > rewriteStart.length()) {
-                    rewrite = entry;
-                    rewriteStart = compareStart;
-                }
+            String compareStart = entry.compareSystemIdStart(mergeHttps);
+            if (compareSystem.startsWith(compareStart) || (ignoreFScase && compareSystem.regionMatches(true, 0, compareStart, 0, compareStart.length()))) {
+                rewrite = entry;
+                rewriteStart = compareStart;
+                break;
             }
         }
         if (rewrite != null) {
@@ -68,33 +87,27 @@ public class QuerySystem extends QueryCatalog {
 
         // <systemSuffix>
         EntrySystemSuffix suffix = null;
-        String systemSuffix = null;
-        for (Entry raw : catalog.entries(Entry.Type.SYSTEM_SUFFIX)) {
+        for (Entry raw : catalog.suffixEntries(Entry.Type.SYSTEM_SUFFIX, compareSystem, ignoreFScase)) {
+            // The candidates are ordered longest first, so the first match is the longest match
             EntrySystemSuffix entry = (EntrySystemSuffix) raw;
-            String compareSuffix = manager.normalizedForComparison(entry.systemIdSuffix);
-            if (compareSystem.endsWith(compareSuffix) || (ignoreFScase && lowerCaseSystemId.endsWith(compareSuffix.toLowerCase()))) {
-                if (suffix == null || compareSuffix.length() > systemSuffix.length()) {
-                    suffix = entry;
-                    systemSuffix = compareSuffix;
-                }
+            String compareSuffix = entry.compareSystemIdSuffix(mergeHttps);
+            if (compareSystem.endsWith(compareSuffix) || (ignoreFScase && compareSystem.regionMatches(true, compareSystem.length() - compareSuffix.length(), compareSuffix, 0, compareSuffix.length()))) {
+                suffix = entry;
+                break;
             }
         }
         if (suffix != null) {
-            return new QueryResult(suffix.uri);
+            return new QueryResult(suffix.getUri());
         }
 
         // <delegateSystem>
         ArrayList<EntryDelegateSystem> delegated = new ArrayList<>();
-        for (Entry raw : catalog.entries(Entry.Type.DELEGATE_SYSTEM)) {
+        for (Entry raw : catalog.prefixEntries(Entry.Type.DELEGATE_SYSTEM, compareSystem, ignoreFScase)) {
+            // The candidates are already ordered longest first
             EntryDelegateSystem entry = (EntryDelegateSystem) raw;
-            String delegateStart = manager.normalizedForComparison(entry.systemIdStart);
-            if (compareSystem.startsWith(delegateStart) || (ignoreFScase && lowerCaseSystemId.startsWith(delegateStart.toLowerCase()))) {
-                int pos = 0;
-                while (pos < delegated.size()
-                        && delegateStart.length() <= manager.normalizedForComparison(delegated.get(pos).systemIdStart).length()) {
-                    pos += 1;
-                }
-                delegated.add(pos, entry);
+            String delegateStart = entry.compareSystemIdStart(mergeHttps);
+            if (compareSystem.startsWith(delegateStart) || (ignoreFScase && compareSystem.regionMatches(true, 0, delegateStart, 0, delegateStart.length()))) {
+                delegated.add(entry);
             }
         }
         if (!delegated.isEmpty()) {
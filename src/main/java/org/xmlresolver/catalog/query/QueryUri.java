@@ -4,6 +4,7 @@ import org.xmlresolver.CatalogManager;
 import org.xmlresolver.ResolverFeature;
 import org.xmlresolver.catalog.entry.*;
 import org.xmlresolver.logging.ResolverLogger;
+import org.xmlresolver.utils.URIUtils;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -45,35 +46,50 @@ public class QueryUri extends QueryCatalog {
         this.purpose = null;
     }
 
+    @Override
+    protected boolean mightMatch(CatalogManager manager, EntryCatalog catalog) {
+        return mightMatchUri(manager, catalog, uri);
+    }
+
+    static boolean mightMatchUri(CatalogManager manager, EntryCatalog catalog, String uri) {
+        boolean mergeHttps = manager.getResolverConfiguration().getFeature(ResolverFeature.MERGE_HTTPS);
+        String compareUri = URIUtils.normalizedForComparison(uri, mergeHttps);
+        return catalog.mightMatch(Entry.Type.URI, compareUri)
+                || catalog.mightMatch(Entry.Type.REWRITE_URI, compareUri)
+                || catalog.mightMatch(Entry.Type.URI_SUFFIX, compareUri)
+                || catalog.mightMatch(Entry.Type.DELEGATE_URI, compareUri);
+    }
+
     @Override
     protected QueryResult lookup(CatalogManager manager, EntryCatalog catalog) {
-        String compareUri = manager.normalizedForComparison(uri);
-        String compareNature = manager.normalizedForComparison(nature);
-        String comparePurpose = manager.normalizedForComparison(purpose);
+        boolean mergeHttps = manager.getResolverConfiguration().getFeature(ResolverFeature.MERGE_HTTPS);
+        String compareUri = URIUtils.normalizedForComparison(uri, mergeHttps);
+        String compareNature = URIUtils.normalizedForComparison(nature, mergeHttps);
+        String comparePurpose = URIUtils.normalizedForComparison(purpose, mergeHttps);
 
         // <uri>
-        for (Entry raw : catalog.entries(Entry.Type.URI)) {
+        for (Entry raw : catalog.entries(Entry.Type.URI, compareUri)) {
             EntryUri entry = (EntryUri) raw;
-            if (compareUri.equals(manager.normalizedForComparison(entry.name))
+            if (compareUri.equals(entry.compareName(mergeHttps))
                     && (nature == null || entry.nature == null
-                    || compareNature.equals(manager.normalizedForComparison(entry.nature)))
+                    || compareNature.equals(entry.compareNature(mergeHttps)))
                     && (purpose == null || entry.purpose == null
-                    || comparePurpose.equals(manager.normalizedForComparison(entry.purpose)))) {
-                return new QueryResult(entry.uri);
+                    || comparePurpose.equals(entry.comparePurpose(mergeHttps)))) {
+                return new QueryResult(entry.getUri());
             }
         }
 
         // <rewriteURI>
         EntryRewriteUri rewrite = null;
         String rewriteStart = null;
-        for (Entry raw : catalog.entries(Entry.Type.REWRITE_URI)) {
+        for (Entry raw : catalog.prefixEntries(Entry.Type.REWRITE_URI, compareUri)) {
+            // The candidates are ordered longest first, so the first match is the longest match
             EntryRewriteUri entry = (EntryRewriteUri) raw;
-            String compareStart = manager.normalizedForComparison(entry.uriStart);
+            String compareStart = entry.compareUriStart(mergeHttps);
             if (compareUri.startsWith(compareStart)) {
-                if (rewrite == null || compareStart.length() > rewriteStart.length()) {
-                    rewrite = entry;
-                    rewriteStart = compareStart;
-                }
+                rewrite = entry;
+                rewriteStart = compareStart;
+                break;
             }
         }
         if (rewrite != null) {
@@ -89,33 +105,25 @@ public class QueryUri extends QueryCatalog {
 
         // <uriSuffix>
         EntryUriSuffix suffix = null;
-        String uriSuffix = null;
-        for (Entry raw : catalog.entries(Entry.Type.URI_SUFFIX)) {
+        for (Entry raw : catalog.suffixEntries(Entry.Type.URI_SUFFIX, compareUri)) {
+            // The candidates are ordered longest first, so the first match is the longest match
             EntryUriSuffix entry = (EntryUriSuffix) raw;
-            String compareSuffix = manager.normalizedForComparison(entry.uriSuffix);
-            if (compareUri.endsWith(compareSuffix)) {
-                if (suffix == null || compareSuffix.length() > uriSuffix.length()) {
-                    suffix = entry;
-                    uriSuffix = compareSuffix;
-                }
+            if (compareUri.endsWith(entry.compareUriSuffix(mergeHttps))) {
+                suffix = entry;
+                break;
             }
         }
         if (suffix != null) {
-            return new QueryResult(suffix.uri);
+            return new QueryResult(suffix.getUri());
         }
 
         // <delegateUri>
         ArrayList<EntryDelegateUri> delegated = new ArrayList<>();
-        for (Entry raw : catalog.entries(Entry.Type.DELEGATE_URI)) {
+        for (Entry raw : catalog.prefixEntries(Entry.Type.DELEGATE_URI, compareUri)) {
+            // The candidates are already ordered longest first
             EntryDelegateUri entry = (EntryDelegateUri) raw;
-            String delegateStart = manager.normalizedForComparison(entry.uriStart);
-            if (compareUri.startsWith(delegateStart)) {
-                int pos = 0;
-                while (pos < delegated.size()
-                        && delegateStart.length() <= manager.normalizedForComparison(delegated.get(pos).uriStart).length()) {
-                    pos += 1;
-                }
-                delegated.add(pos, entry);
+            if (compareUri.startsWith(entry.compareUriStart(mergeHttps))) {
+                delegated.add(entry);
             }
         }
         if (!delegated.isEmpty()) {
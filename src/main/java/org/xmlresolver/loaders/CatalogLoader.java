@@ -6,6 +6,8 @@ import org.xmlresolver.catalog.entry.EntryCatalog;
 import org.xmlresolver.utils.SaxProducer;
 
 import java.net.URI;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /** The catalog loader interface.
  *
@@ -121,4 +123,35 @@ public interface CatalogLoader {
      * @return resolver the resolver
      */
     public EntityResolver getEntityResolver();
+
+    /** Return the generation of the loaded catalogs.
+     *
+     * <p>A loader that can replace a catalog it has already loaded, for example because
+     * the catalog file has changed, increments its generation each time it does so.
+     * The manager discards the catalogs and lookup results that it has cached when
+     * the generation changes.</p>
+     *
+     * @return The generation. The default implementation always returns 0.
+     */
+    default long getGeneration() {
+        return 0;
+    }
+
+    /** Revalidate catalogs that may be out of date.
+     *
+     * <p>The manager calls this method before each lookup. A loader that refreshes the catalogs
+     * it has loaded from time to time starts any refreshes that are due, running them on the
+     * executor so that the lookup isn't delayed. A catalog that has changed is replaced, and the
+     * generation is incremented.</p>
+     *
+     * <p>This method is called often, so it should return quickly when nothing is due. Only ask the
+     * supplier for the executor when there's a refresh to run.</p>
+     *
+     * <p>The default implementation does nothing.</p>
+     *
+     * @param executor Supplies the executor to run refreshes on.
+     */
+    default void revalidateCatalogs(Supplier<Executor> executor) {
+        // nop
+    }
 }
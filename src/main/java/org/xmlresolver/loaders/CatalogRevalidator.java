@@ -0,0 +1,208 @@
+package org.xmlresolver.loaders;
+
+import org.xml.sax.InputSource;
+import org.xmlresolver.ResolverConfiguration;
+import org.xmlresolver.ResourceConnection;
+import org.xmlresolver.ResourceRequestImpl;
+import org.xmlresolver.ResourceResponse;
+import org.xmlresolver.logging.ResolverLogger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/** Revalidate remote catalogs when they expire.
+ *
+ * <p>The revalidator keeps the validators (the <code>ETag</code>, the <code>Last-Modified</code>
+ * time, and a digest of the body) of each <code>http:</code> and <code>https:</code> catalog that
+ * its loader reads. When a catalog expires, it's requested again with a conditional request. If the
+ * server reports that it hasn't changed, or if the new body is the same as the old one, the catalog
+ * already loaded is kept. Otherwise, the replace function parses the new catalog and replaces the old one.
+ * Either way, the catalog expires again after the time to live.</p>
+ */
+class CatalogRevalidator {
+    private final ResolverConfiguration config;
+    private final ResolverLogger logger;
+    private final long ttl;
+    private final BiConsumer<URI, InputSource> replace;
+    private final ConcurrentHashMap<URI, Validators> remoteCatalogs = new ConcurrentHashMap<>();
+    private volatile long nextRevalidation = Long.MAX_VALUE;
+
+    /**
+     * Create a revalidator.
+     * @param config The configuration used to request catalogs.
+     * @param logger The logger.
+     * @param ttl The time to live, in milliseconds.
+     * @param replace Parses a changed catalog and replaces the old one. It throws an exception if the new
+     * catalog can't be used, in which case the old one is kept.
+     */
+    CatalogRevalidator(ResolverConfiguration config, ResolverLogger logger, long ttl, BiConsumer<URI, InputSource> replace) {
+        this.config = config;
+        this.logger = logger;
+        this.ttl = ttl;
+        this.replace = replace;
+    }
+
+    /**
+     * Start tracking a catalog.
+     * <p>Catalogs that aren't <code>http:</code> or <code>https:</code> URIs are ignored.</p>
+     * @param catalog The catalog URI.
+     * @return A digest to compute over the body of the catalog as it's read, or null if the catalog isn't tracked.
+     */
+    MessageDigest track(URI catalog) {
+        if ("http".equals(catalog.getScheme()) || "https".equals(catalog.getScheme())) {
+            return digest();
+        }
+        return null;
+    }
+
+    /**
+     * Record that a tracked catalog has been read.
+     * @param catalog The catalog URI.
+     * @param connection The connection it was read from, or null if a scheme resolver provided it.
+     * @param digest The digest returned by {@link #track(URI)}, after the whole body has been read.
+     */
+    void loaded(URI catalog, ResourceConnection connection, MessageDigest digest) {
+        expires(catalog, new Validators(connection, digest.digest(), ttl));
+    }
+
+    /**
+     * Revalidate the catalogs that have expired.
+     * <p>Each expired catalog is revalidated on the executor.</p>
+     * @param executor Supplies the executor to run revalidations on. It's only asked when a catalog has expired.
+     */
+    void revalidate(Supplier<Executor> executor) {
+        if (System.currentTimeMillis() < nextRevalidation) {
+            return;
+        }
+
+        synchronized (remoteCatalogs) {
+            long now = System.currentTimeMillis();
+            long next = Long.MAX_VALUE;
+            // A revalidation that finishes before the loop does moves this back
+            nextRevalidation = Long.MAX_VALUE;
+            for (Map.Entry<URI, Validators> entry : remoteCatalogs.entrySet()) {
+                URI catalog = entry.getKey();
+                Validators validators = entry.getValue();
+                if (validators.expires > now) {
+                    next = Math.min(next, validators.expires);
+                    continue;
+                }
+
+                // Don't start another revalidation until this one finishes
+                entry.setValue(validators.expiring(Long.MAX_VALUE));
+                try {
+                    executor.get().execute(() -> revalidate(catalog, validators));
+                } catch (RejectedExecutionException ex) {
+                    logger.debug("Cannot revalidate catalog: %s: %s", catalog, ex.getMessage());
+                    entry.setValue(validators.expiring(now + ttl));
+                    next = Math.min(next, now + ttl);
+                }
+            }
+            nextRevalidation = Math.min(nextRevalidation, next);
+        }
+    }
+
+    private void revalidate(URI catalog, Validators validators) {
+        try {
+            ResourceRequestImpl request = new ResourceRequestImpl(config);
+            request.setURI(catalog);
+            request.setOpenStream(true);
+            request.setIfNoneMatch(validators.etag);
+            request.setIfModifiedSince(validators.lastModified);
+            ResourceResponse resp = config.getResource(request);
+
+            byte[] body;
+            try (InputStream is = resp.getInputStream()) {
+                if (resp.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    logger.debug("Catalog not modified: %s", catalog);
+                    expires(catalog, validators.expiring(System.currentTimeMillis() + ttl));
+                    return;
+                }
+                if (!resp.isResolved() || is == null) {
+                    throw new IOException("HTTP status " + resp.getStatusCode());
+                }
+                body = readAll(is);
+            }
+
+            byte[] digest = digest().digest(body);
+            if (!Arrays.equals(digest, validators.digest)) {
+                InputSource source = new InputSource(new ByteArrayInputStream(body));
+                source.setSystemId(catalog.toString());
+                replace.accept(catalog, source);
+                logger.info("Reloaded catalog: %s", catalog);
+            } else {
+                logger.debug("Catalog unchanged: %s", catalog);
+            }
+            expires(catalog, new Validators(resp.getConnection(), digest, ttl));
+        } catch (URISyntaxException | IOException | RuntimeException ex) {
+            logger.error("Failed to revalidate catalog, keeping the old one: %s: %s", catalog, ex.getMessage());
+            expires(catalog, validators.expiring(System.currentTimeMillis() + ttl));
+        }
+    }
+
+    private void expires(URI catalog, Validators validators) {
+        synchronized (remoteCatalogs) {
+            remoteCatalogs.put(catalog, validators);
+            nextRevalidation = Math.min(nextRevalidation, validators.expires);
+        }
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int len = stream.read(buf, 0, buf.length);
+        while (len >= 0) {
+            baos.write(buf, 0, len);
+            len = stream.read(buf, 0, buf.length);
+        }
+        return baos.toByteArray();
+    }
+
+    private static class Validators {
+        private final String etag;
+        private final long lastModified;
+        private final byte[] digest;
+        private final long expires;
+
+        private Validators(String etag, long lastModified, byte[] digest, long expires) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.digest = digest;
+            this.expires = expires;
+        }
+
+        private Validators(ResourceConnection connection, byte[] digest, long ttl) {
+            // The connection is null if a scheme resolver provided the catalog
+            this(connection == null ? null : connection.getEtag(),
+                    connection == null || connection.getLastModified() <= 0 ? -1 : connection.getLastModified(),
+                    digest, System.currentTimeMillis() + ttl);
+        }
+
+        private Validators expiring(long expires) {
+            return new Validators(etag, lastModified, digest, expires);
+        }
+    }
+}
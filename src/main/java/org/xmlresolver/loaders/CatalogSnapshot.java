@@ -0,0 +1,725 @@
+package org.xmlresolver.loaders;
+
+import org.xmlresolver.ResolverConfiguration;
+import org.xmlresolver.ResolverFeature;
+import org.xmlresolver.ResourceRequest;
+import org.xmlresolver.ResourceRequestImpl;
+import org.xmlresolver.ResourceResponse;
+import org.xmlresolver.catalog.entry.*;
+import org.xmlresolver.logging.ResolverLogger;
+import org.xmlresolver.utils.URIUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A precompiled snapshot of one or more catalogs.
+ *
+ * <p>A snapshot is a compact, binary serialization of loaded catalogs. Each catalog is recorded
+ * with a digest of the content it was loaded from; if the content has changed, the snapshot is
+ * stale and the catalog isn't read from it. Every string is stored once, in a shared table.</p>
+ *
+ * <p>URIs in the same directory tree as the snapshot are stored relative to it: catalog URIs are
+ * relative to the snapshot, entry base URIs are relative to their catalog, and entry URIs are
+ * relative to their base URI. A snapshot compiled next to a set of catalogs on disk can therefore
+ * be shipped with them, for example in a jar, and read from a <code>jar:</code> or
+ * <code>classpath:</code> URI.</p>
+ *
+ * <p>A snapshot file is memory-mapped when it's opened. Only the table of catalogs is read
+ * immediately, the entries of each catalog are decoded the first time that catalog is requested.</p>
+ */
+public class CatalogSnapshot {
+    private static final int MAGIC = 0x58524353; // "XRCS"
+    private static final int VERSION = 2;
+    private static final int NO_STRING = -1;
+    private static final int PREFER_PUBLIC = 0x01;
+    private static final int FIX_WINDOWS = 0x02;
+    private static final int ARCHIVED_CATALOGS = 0x04;
+    private static final int DIGEST_LENGTH = 32;
+    private static final Entry.Type[] types = Entry.Type.values();
+
+    private final URI uri;
+    private final ByteBuffer buffer;
+    private final int strings;
+    private final String[] decoded;
+    private final LinkedHashMap<URI, Integer> records = new LinkedHashMap<>();
+
+    private CatalogSnapshot(URI uri, ByteBuffer buffer) throws IOException {
+        this.uri = uri;
+        this.buffer = buffer;
+
+        if (buffer.limit() < 12 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot: " + uri);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported catalog snapshot version: " + buffer.getInt(4) + ": " + uri);
+        }
+
+        try {
+            int count = buffer.getInt(8);
+            strings = 12;
+            decoded = new String[count];
+
+            int pos = strings + 4 * count;
+            int catalogs = buffer.getInt(pos);
+            pos += 4;
+            for (int index = 0; index < catalogs; index++) {
+                records.put(key(URIUtils.resolve(uri, string(buffer.getInt(pos + Record.URI)))), pos);
+                pos += Record.SIZE;
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new IOException("Corrupt catalog snapshot: " + uri, ex);
+        }
+    }
+
+    /**
+     * Open a snapshot.
+     * @param path The snapshot file.
+     * @return The snapshot.
+     * @throws IOException if the file can't be read or isn't a snapshot.
+     */
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping remains valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CatalogSnapshot(path.toAbsolutePath().toUri(), buffer);
+        }
+    }
+
+    /**
+     * Open a snapshot from a stream.
+     * <p>This is how a snapshot that isn't a file, for example one in a jar, is read.
+     * The stream is read completely, but it isn't closed.</p>
+     * @param uri The URI of the snapshot; relative catalog URIs are resolved against it.
+     * @param stream The stream to read the snapshot from.
+     * @return The snapshot.
+     * @throws IOException if the stream can't be read or isn't a snapshot.
+     */
+    public static CatalogSnapshot open(URI uri, InputStream stream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int len = stream.read(buf, 0, buf.length);
+        while (len >= 0) {
+            bytes.write(buf, 0, len);
+            len = stream.read(buf, 0, buf.length);
+        }
+        return new CatalogSnapshot(uri, ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * The snapshot URI.
+     * @return The URI the snapshot was opened from.
+     */
+    public URI getURI() {
+        return uri;
+    }
+
+    /**
+     * The catalogs in this snapshot.
+     * @return The URIs of the catalogs, in the order they were written.
+     */
+    public Set<URI> catalogs() {
+        return Collections.unmodifiableSet(records.keySet());
+    }
+
+    /**
+     * Is a catalog in this snapshot?
+     * @param catalog The catalog URI.
+     * @return True if the snapshot has a record for the catalog, whether or not it's stale.
+     */
+    public boolean contains(URI catalog) {
+        return records.containsKey(key(catalog));
+    }
+
+    /**
+     * Read a catalog from the snapshot.
+     *
+     * <p>The catalog is only read if it's in the snapshot, if it was loaded with the same "prefer public",
+     * Windows system identifier, and archived catalog settings, and if its content hasn't changed since
+     * the snapshot was written. Checking the content means reading the catalog, but not parsing it.
+     * Relative URIs are resolved against the catalog URI. The catalog returned is frozen.</p>
+     *
+     * @param config The configuration.
+     * @param catalog The catalog URI.
+     * @param preferPublic The default "prefer public" setting of the loader.
+     * @return The catalog, or null if it can't be read from this snapshot.
+     */
+    public EntryCatalog catalog(ResolverConfiguration config, URI catalog, boolean preferPublic) {
+        Integer record = records.get(key(catalog));
+        if (record == null) {
+            return null;
+        }
+
+        ResolverLogger logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
+        if (buffer.getInt(record + Record.FLAGS) != flags(config, preferPublic)) {
+            logger.debug("Catalog snapshot was compiled with different settings: %s: %s", uri, catalog);
+            return null;
+        }
+
+        byte[] recorded = new byte[DIGEST_LENGTH];
+        ByteBuffer data = buffer.duplicate();
+        data.position(record + Record.DIGEST);
+        data.get(recorded);
+        byte[] digest = digest(config, catalog);
+        if (digest == null || !Arrays.equals(digest, recorded)) {
+            logger.debug("Catalog snapshot is stale: %s: %s", uri, catalog);
+            return null;
+        }
+
+        try {
+            return read(config, catalog, buffer.getInt(record + Record.ENTRIES));
+        } catch (IndexOutOfBoundsException | IllegalArgumentException ex) {
+            logger.error("Corrupt catalog snapshot: %s: %s", uri, ex.getMessage());
+            return null;
+        }
+    }
+
+    private EntryCatalog read(ResolverConfiguration config, URI catalogURI, int pos) {
+        // Most entries share a handful of base URIs; resolve each one once
+        HashMap<Integer, URI> bases = new HashMap<>();
+        URI baseURI = URIUtils.resolve(catalogURI, string(buffer.getInt(pos)));
+        EntryCatalog catalog = new EntryCatalog(config, baseURI, string(buffer.getInt(pos + 4)), buffer.get(pos + 8) != 0);
+        int count = buffer.getInt(pos + 9);
+        pos += 13;
+
+        for (int index = 0; index < count; index++) {
+            Entry.Type type = types[buffer.get(pos)];
+            boolean prefer = buffer.get(pos + 1) != 0;
+            baseURI = bases.computeIfAbsent(buffer.getInt(pos + 2), base -> URIUtils.resolve(catalogURI, string(base)));
+            String id = string(buffer.getInt(pos + 6));
+            String first = string(buffer.getInt(pos + 10));
+            String second = string(buffer.getInt(pos + 14));
+            String third = string(buffer.getInt(pos + 18));
+            String fourth = string(buffer.getInt(pos + 22));
+            int properties = buffer.getInt(pos + 26);
+            pos += 30;
+
+            Entry entry = add(catalog, type, baseURI, id, prefer, first, second, third, fourth);
+            for (int prop = 0; prop < properties; prop++) {
+                String name = string(buffer.getInt(pos));
+                String value = string(buffer.getInt(pos + 4));
+                if (entry != null) {
+                    entry.setProperty(name, value);
+                }
+                pos += 8;
+            }
+        }
+
+        catalog.freeze();
+        return catalog;
+    }
+
+    private static Entry add(EntryCatalog catalog, Entry.Type type, URI baseURI, String id, boolean prefer,
+                             String first, String second, String third, String fourth) {
+        switch (type) {
+            case GROUP:
+                return catalog.addGroup(baseURI, id, prefer);
+            case PUBLIC:
+                return catalog.addPublic(baseURI, id, first, second, prefer);
+            case SYSTEM:
+                return catalog.addSystem(baseURI, id, first, second);
+            case REWRITE_SYSTEM:
+                return catalog.addRewriteSystem(baseURI, id, first, second);
+            case SYSTEM_SUFFIX:
+                return catalog.addSystemSuffix(baseURI, id, first, second);
+            case DELEGATE_PUBLIC:
+                return catalog.addDelegatePublic(baseURI, id, first, second, prefer);
+            case DELEGATE_SYSTEM:
+                return catalog.addDelegateSystem(baseURI, id, first, second);
+            case URI:
+                return catalog.addUri(baseURI, id, first, second, third, fourth);
+            case URI_SUFFIX:
+                return catalog.addUriSuffix(baseURI, id, first, second);
+            case REWRITE_URI:
+                return catalog.addRewriteUri(baseURI, id, first, second);
+            case DELEGATE_URI:
+                return catalog.addDelegateUri(baseURI, id, first, second);
+            case NEXT_CATALOG:
+                return catalog.addNextCatalog(baseURI, id, first);
+            case DOCTYPE:
+                return catalog.addDoctype(baseURI, id, first, second);
+            case DOCUMENT:
+                return catalog.addDocument(baseURI, id, first);
+            case DTD_DECL:
+                return catalog.addDtdDecl(baseURI, id, first, second);
+            case ENTITY:
+                return catalog.addEntity(baseURI, id, first, second);
+            case LINKTYPE:
+                return catalog.addLinktype(baseURI, id, first, second);
+            case NOTATION:
+                return catalog.addNotation(baseURI, id, first, second);
+            case SGML_DECL:
+                return catalog.addSgmlDecl(baseURI, id, first);
+            default:
+                throw new IllegalArgumentException("Unexpected entry type in catalog snapshot: " + type);
+        }
+    }
+
+    private String string(int index) {
+        if (index == NO_STRING) {
+            return null;
+        }
+        String string = decoded[index];
+        if (string == null) {
+            int pos = buffer.getInt(strings + 4 * index);
+            byte[] bytes = new byte[buffer.getInt(pos)];
+            ByteBuffer data = buffer.duplicate();
+            data.position(pos + 4);
+            data.get(bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+            // If two threads race, they decode the same string
+            decoded[index] = string;
+        }
+        return string;
+    }
+
+    private static int flags(ResolverConfiguration config, boolean preferPublic) {
+        int flags = preferPublic ? PREFER_PUBLIC : 0;
+        if (config.getFeature(ResolverFeature.FIX_WINDOWS_SYSTEM_IDENTIFIERS)) {
+            flags |= FIX_WINDOWS;
+        }
+        if (config.getFeature(ResolverFeature.ARCHIVED_CATALOGS)) {
+            flags |= ARCHIVED_CATALOGS;
+        }
+        return flags;
+    }
+
+    /**
+     * Write a snapshot.
+     *
+     * <p>The snapshot is written to a temporary file which is then moved into place, so
+     * a loader never sees a partially written snapshot. Catalogs that can't be read again to
+     * compute their digest are omitted. So are catalogs with entry URIs that wouldn't resolve
+     * to themselves again, because reading them back wouldn't produce the same entries.</p>
+     *
+     * @param config The configuration the catalogs were loaded with.
+     * @param preferPublic The default "prefer public" setting the catalogs were loaded with.
+     * @param catalogs The catalogs, keyed by the URI they were loaded from.
+     * @param path The snapshot file.
+     * @return The URIs of the catalogs written to the snapshot.
+     * @throws IOException if the snapshot can't be written.
+     */
+    public static List<URI> write(ResolverConfiguration config, boolean preferPublic,
+                                  Map<URI, EntryCatalog> catalogs, Path path) throws IOException {
+        ResolverLogger logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
+        LinkedHashMap<String, Integer> strings = new LinkedHashMap<>();
+        LinkedHashMap<URI, byte[]> encoded = new LinkedHashMap<>();
+        LinkedHashMap<URI, byte[]> digests = new LinkedHashMap<>();
+        LinkedHashMap<URI, String> references = new LinkedHashMap<>();
+        URI root = path.toAbsolutePath().toUri();
+
+        for (Map.Entry<URI, EntryCatalog> catalog : catalogs.entrySet()) {
+            byte[] digest = digest(config, catalog.getKey());
+            if (digest == null) {
+                logger.debug("Catalog snapshot omits catalog that can't be read: %s", catalog.getKey());
+                continue;
+            }
+            String reference = reference(root, root, catalog.getKey());
+            // Encode the catalog with its own table first, the shared table mustn't
+            // get the strings of a catalog that's omitted.
+            LinkedHashMap<String, Integer> local = new LinkedHashMap<>(strings);
+            byte[] bytes = reference == null ? null : encode(root, catalog.getKey(), catalog.getValue(), local);
+            if (bytes == null) {
+                logger.debug("Catalog snapshot omits catalog with URIs that can't be stored: %s", catalog.getKey());
+                continue;
+            }
+            intern(reference, local);
+            strings = local;
+            encoded.put(catalog.getKey(), bytes);
+            digests.put(catalog.getKey(), digest);
+            references.put(catalog.getKey(), reference);
+        }
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                write(out, config, preferPublic, strings, encoded, digests, references);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        return new ArrayList<>(encoded.keySet());
+    }
+
+    private static void write(DataOutputStream out, ResolverConfiguration config, boolean preferPublic,
+                              LinkedHashMap<String, Integer> strings, LinkedHashMap<URI, byte[]> encoded,
+                              Map<URI, byte[]> digests, Map<URI, String> references) throws IOException {
+        ArrayList<byte[]> stringBytes = new ArrayList<>();
+        for (String string : strings.keySet()) {
+            stringBytes.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int pos = 12 + 4 * stringBytes.size() + 4 + Record.SIZE * encoded.size();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(stringBytes.size());
+        for (byte[] bytes : stringBytes) {
+            out.writeInt(pos);
+            pos += 4 + bytes.length;
+        }
+
+        int flags = flags(config, preferPublic);
+        out.writeInt(encoded.size());
+        for (Map.Entry<URI, byte[]> catalog : encoded.entrySet()) {
+            out.writeInt(strings.get(references.get(catalog.getKey())));
+            out.write(digests.get(catalog.getKey()));
+            out.writeInt(flags);
+            out.writeInt(pos);
+            pos += catalog.getValue().length;
+        }
+
+        for (byte[] bytes : stringBytes) {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        for (byte[] bytes : encoded.values()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] encode(URI root, URI catalogURI, EntryCatalog catalog, Map<String, Integer> strings) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        List<Entry> entries = catalog.entries();
+        // The base URI of a catalog in an archive isn't the URI it was loaded from
+        String catalogBase = reference(root, catalogURI, catalog.baseURI);
+        if (catalogBase == null) {
+            return null;
+        }
+        out.writeInt(intern(catalogBase, strings));
+        out.writeInt(intern(catalog.id, strings));
+        out.writeByte(catalog.preferPublic ? 1 : 0);
+        out.writeInt(entries.size());
+
+        for (Entry entry : entries) {
+            String base = reference(root, catalogURI, entry.baseURI);
+            String[] fields = fields(entry);
+            URI target = target(entry);
+            if (target != null) {
+                // The entry will resolve the URI against its base URI again when it's read
+                fields[uriField(entry.getType())] = reference(root, entry.baseURI, target);
+            }
+            if (base == null || (target != null && fields[uriField(entry.getType())] == null)) {
+                return null;
+            }
+
+            out.writeByte(entry.getType().ordinal());
+            out.writeByte(prefer(entry) ? 1 : 0);
+            out.writeInt(intern(base, strings));
+            out.writeInt(intern(entry.id, strings));
+            for (int pos = 0; pos < 4; pos++) {
+                out.writeInt(intern(pos < fields.length ? fields[pos] : null, strings));
+            }
+
+            Map<String, String> properties = entry.getProperties();
+            out.writeInt(properties.size());
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                out.writeInt(intern(property.getKey(), strings));
+                out.writeInt(intern(property.getValue(), strings));
+            }
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The strings that an entry is reconstructed from.
+     * <p>The identifiers are the ones the entry was constructed with; the URI is the
+     * one it resolved to.</p>
+     */
+    private static String[] fields(Entry entry) {
+        switch (entry.getType()) {
+            case GROUP:
+                return new String[0];
+            case PUBLIC:
+                return new String[] { ((EntryPublic) entry).publicId, ((EntryPublic) entry).getUri().toString() };
+            case SYSTEM:
+                return new String[] { ((EntrySystem) entry).systemId, ((EntrySystem) entry).getUri().toString() };
+            case REWRITE_SYSTEM:
+                return new String[] { ((EntryRewriteSystem) entry).systemIdStart, ((EntryRewriteSystem) entry).rewritePrefix.toString() };
+            case SYSTEM_SUFFIX:
+                return new String[] { ((EntrySystemSuffix) entry).systemIdSuffix, ((EntrySystemSuffix) entry).getUri().toString() };
+            case DELEGATE_PUBLIC:
+                return new String[] { ((EntryDelegatePublic) entry).publicIdStart, ((EntryDelegatePublic) entry).catalog.toString() };
+            case DELEGATE_SYSTEM:
+                return new String[] { ((EntryDelegateSystem) entry).systemIdStart, ((EntryDelegateSystem) entry).catalog.toString() };
+            case URI:
+                EntryUri uri = (EntryUri) entry;
+                return new String[] { uri.name, uri.getUri().toString(), uri.nature, uri.purpose };
+            case URI_SUFFIX:
+                return new String[] { ((EntryUriSuffix) entry).uriSuffix, ((EntryUriSuffix) entry).getUri().toString() };
+            case REWRITE_URI:
+                return new String[] { ((EntryRewriteUri) entry).uriStart, ((EntryRewriteUri) entry).rewritePrefix.toString() };
+            case DELEGATE_URI:
+                return new String[] { ((EntryDelegateUri) entry).uriStart, ((EntryDelegateUri) entry).catalog.toString() };
+            case NEXT_CATALOG:
+                return new String[] { ((EntryNextCatalog) entry).catalog.toString() };
+            case DOCTYPE:
+                return new String[] { ((EntryDoctype) entry).name, ((EntryDoctype) entry).uri.toString() };
+            case DOCUMENT:
+                return new String[] { ((EntryDocument) entry).uri.toString() };
+            case DTD_DECL:
+                return new String[] { ((EntryDtdDecl) entry).publicId, ((EntryDtdDecl) entry).uri.toString() };
+            case ENTITY:
+                return new String[] { ((EntryEntity) entry).name, ((EntryEntity) entry).uri.toString() };
+            case LINKTYPE:
+                return new String[] { ((EntryLinktype) entry).name, ((EntryLinktype) entry).uri.toString() };
+            case NOTATION:
+                return new String[] { ((EntryNotation) entry).name, ((EntryNotation) entry).uri.toString() };
+            case SGML_DECL:
+                return new String[] { ((EntrySgmldecl) entry).uri.toString() };
+            default:
+                throw new IllegalArgumentException("Unexpected entry type in catalog: " + entry.getType());
+        }
+    }
+
+    private static URI target(Entry entry) {
+        switch (entry.getType()) {
+            case PUBLIC:
+                return ((EntryPublic) entry).getUri();
+            case SYSTEM:
+                return ((EntrySystem) entry).getUri();
+            case REWRITE_SYSTEM:
+                return ((EntryRewriteSystem) entry).rewritePrefix;
+            case SYSTEM_SUFFIX:
+                return ((EntrySystemSuffix) entry).getUri();
+            case DELEGATE_PUBLIC:
+                return ((EntryDelegatePublic) entry).catalog;
+            case DELEGATE_SYSTEM:
+                return ((EntryDelegateSystem) entry).catalog;
+            case URI:
+                return ((EntryUri) entry).getUri();
+            case URI_SUFFIX:
+                return ((EntryUriSuffix) entry).getUri();
+            case REWRITE_URI:
+                return ((EntryRewriteUri) entry).rewritePrefix;
+            case DELEGATE_URI:
+                return ((EntryDelegateUri) entry).catalog;
+            case NEXT_CATALOG:
+                return ((EntryNextCatalog) entry).catalog;
+            case DOCTYPE:
+                return ((EntryDoctype) entry).uri;
+            case DOCUMENT:
+                return ((EntryDocument) entry).uri;
+            case DTD_DECL:
+                return ((EntryDtdDecl) entry).uri;
+            case ENTITY:
+                return ((EntryEntity) entry).uri;
+            case LINKTYPE:
+                return ((EntryLinktype) entry).uri;
+            case NOTATION:
+                return ((EntryNotation) entry).uri;
+            case SGML_DECL:
+                return ((EntrySgmldecl) entry).uri;
+            default:
+                return null;
+        }
+    }
+
+    private static int uriField(Entry.Type type) {
+        switch (type) {
+            case NEXT_CATALOG:
+            case DOCUMENT:
+            case SGML_DECL:
+                return 0;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * The string to store for a URI.
+     * <p>If the URI and the base URI are both in the directory tree of the snapshot, the URI is
+     * made relative to the base URI. Otherwise, it's stored as an absolute URI.</p>
+     * @param root The snapshot URI.
+     * @param baseURI The URI that the string will be resolved against when it's read.
+     * @param uri The URI.
+     * @return The string, or null if neither form would resolve to the URI again.
+     */
+    private static String reference(URI root, URI baseURI, URI uri) {
+        String relative = relative(root, baseURI, uri);
+        if (relative != null && resolves(baseURI, relative, uri)) {
+            return relative;
+        }
+        return resolves(baseURI, uri.toString(), uri) ? uri.toString() : null;
+    }
+
+    private static String relative(URI root, URI baseURI, URI uri) {
+        String[] top = split(root);
+        String[] from = split(baseURI);
+        String[] to = split(uri);
+        if (top == null || from == null || to == null || !top[0].equals(from[0]) || !top[0].equals(to[0])) {
+            return null;
+        }
+
+        String dir = top[1].substring(0, top[1].lastIndexOf('/') + 1);
+        if (!from[1].startsWith(dir) || !to[1].startsWith(dir)) {
+            return null;
+        }
+
+        String fromDir = from[1].substring(0, from[1].lastIndexOf('/') + 1);
+        int common = 0;
+        for (int pos = 0; pos < fromDir.length() && pos < to[1].length() && fromDir.charAt(pos) == to[1].charAt(pos); pos++) {
+            if (fromDir.charAt(pos) == '/') {
+                common = pos + 1;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int pos = common; pos < fromDir.length(); pos++) {
+            if (fromDir.charAt(pos) == '/') {
+                sb.append("../");
+            }
+        }
+        String path = to[1].substring(common);
+        int slash = path.indexOf('/');
+        if (sb.length() == 0 && (path.isEmpty() || (slash < 0 ? path : path.substring(0, slash)).contains(":"))) {
+            // An empty reference, or one that would look like a scheme
+            sb.append("./");
+        }
+        return sb.append(path).toString();
+    }
+
+    /**
+     * Split a URI into the part that relative references can't change and an absolute path.
+     * @return The prefix and the path, or null if the URI can't be the target of a relative reference.
+     */
+    private static String[] split(URI uri) {
+        String string = uri.toString();
+        if (uri.getRawFragment() != null || string.indexOf('?') >= 0) {
+            return null;
+        }
+        if ("jar".equals(uri.getScheme())) {
+            int pos = string.indexOf("!/");
+            return pos < 0 ? null : new String[] { string.substring(0, pos + 1), string.substring(pos + 1) };
+        }
+        if ("classpath".equals(uri.getScheme())) {
+            String path = uri.getRawSchemeSpecificPart();
+            return new String[] { "classpath:", path.startsWith("/") ? path : "/" + path };
+        }
+        if (uri.isOpaque() || uri.getRawPath() == null || !uri.getRawPath().startsWith("/")) {
+            return null;
+        }
+        String authority = uri.getRawAuthority() == null ? "" : "//" + uri.getRawAuthority();
+        return new String[] { uri.getScheme() + ":" + authority, uri.getRawPath() };
+    }
+
+    private static boolean resolves(URI baseURI, String reference, URI uri) {
+        try {
+            return URIUtils.resolve(baseURI, reference).equals(uri);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * The key for a catalog URI.
+     * <p>The resolver reads <code>classpath:/path</code> and <code>classpath:path</code> as
+     * the same resource, but they aren't equal URIs.</p>
+     */
+    private static URI key(URI catalog) {
+        if ("classpath".equals(catalog.getScheme()) && catalog.getRawSchemeSpecificPart().startsWith("/")) {
+            return URI.create(catalog.toString().replaceFirst("^classpath:/+", "classpath:"));
+        }
+        return catalog;
+    }
+
+    /**
+     * A digest of a catalog's content.
+     * @return The digest, or null if the catalog can't be read.
+     */
+    private static byte[] digest(ResolverConfiguration config, URI catalog) {
+        ResourceRequest request = new ResourceRequestImpl(config);
+        request.setURI(catalog);
+        request.setOpenStream(true);
+        try {
+            ResourceResponse resp = config.getResource(request);
+            if (resp.getInputStream() == null) {
+                return null;
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream stream = resp.getInputStream()) {
+                byte[] buf = new byte[4096];
+                int len = stream.read(buf, 0, buf.length);
+                while (len >= 0) {
+                    digest.update(buf, 0, len);
+                    len = stream.read(buf, 0, buf.length);
+                }
+            }
+            return digest.digest();
+        } catch (URISyntaxException | IOException | IllegalArgumentException ex) {
+            return null;
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static boolean prefer(Entry entry) {
+        switch (entry.getType()) {
+            case GROUP:
+                return ((EntryGroup) entry).preferPublic;
+            case PUBLIC:
+                return ((EntryPublic) entry).preferPublic;
+            case DELEGATE_PUBLIC:
+                return ((EntryDelegatePublic) entry).preferPublic;
+            default:
+                return false;
+        }
+    }
+
+    private static int intern(String string, Map<String, Integer> strings) {
+        if (string == null) {
+            return NO_STRING;
+        }
+        Integer index = strings.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.put(string, index);
+        }
+        return index;
+    }
+
+    /** The layout of a catalog record. */
+    private static class Record {
+        private static final int URI = 0;
+        private static final int DIGEST = 4;
+        private static final int FLAGS = DIGEST + DIGEST_LENGTH;
+        private static final int ENTRIES = FLAGS + 4;
+        private static final int SIZE = ENTRIES + 4;
+    }
+}
@@ -0,0 +1,158 @@
+package org.xmlresolver.loaders;
+
+import org.xmlresolver.logging.ResolverLogger;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/** Watch catalog files for changes.
+ *
+ * <p>The watcher registers the directory of each <code>file:</code> catalog with a
+ * {@link WatchService}. When a catalog file is created, modified, or deleted, the watcher's
+ * thread calls the reload function for it. Editors often write a file in several steps, so
+ * the watcher waits until a directory has been quiet for a moment before reloading.</p>
+ *
+ * <p>The watcher only holds a weak reference to the loader that owns it. When the loader is
+ * no longer used, the watcher stops.</p>
+ *
+ * @param <T> The type of the loader.
+ */
+class CatalogWatcher<T> implements Runnable {
+    private static final long SETTLE_MILLIS = 100;
+    private static final long OWNER_CHECK_MILLIS = 1000;
+
+    private final ResolverLogger logger;
+    private final WeakReference<T> owner;
+    private final BiConsumer<T, URI> reload;
+    private final HashMap<WatchKey, Path> directories = new HashMap<>();
+    private final HashMap<Path, Set<URI>> catalogs = new HashMap<>();
+    private WatchService service = null;
+
+    /**
+     * Create a watcher.
+     * @param logger The logger.
+     * @param owner The loader.
+     * @param reload Reloads a catalog. It must not hold a reference to the loader.
+     */
+    CatalogWatcher(ResolverLogger logger, T owner, BiConsumer<T, URI> reload) {
+        this.logger = logger;
+        this.owner = new WeakReference<>(owner);
+        this.reload = reload;
+    }
+
+    /**
+     * Watch a catalog.
+     * <p>Catalogs that aren't <code>file:</code> URIs are ignored.</p>
+     * @param catalog The catalog URI.
+     */
+    synchronized void watch(URI catalog) {
+        if (!"file".equals(catalog.getScheme())) {
+            return;
+        }
+
+        try {
+            Path path = Paths.get(catalog).toAbsolutePath().normalize();
+            Path dir = path.getParent();
+            if (dir == null) {
+                return;
+            }
+
+            if (service == null) {
+                service = dir.getFileSystem().newWatchService();
+                Thread thread = new Thread(this, "xmlresolver-catalog-watcher");
+                thread.setDaemon(true);
+                thread.start();
+            }
+
+            if (!directories.containsValue(dir)) {
+                WatchKey key = dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                directories.put(key, dir);
+            }
+            catalogs.computeIfAbsent(path, k -> new LinkedHashSet<>()).add(catalog);
+        } catch (IOException | IllegalArgumentException | FileSystemNotFoundException
+                 | UnsupportedOperationException | ClosedWatchServiceException ex) {
+            logger.debug("Cannot watch catalog: %s: %s", catalog, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (owner.get() != null) {
+                WatchKey key = service.poll(OWNER_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                LinkedHashSet<URI> changed = new LinkedHashSet<>();
+                while (key != null) {
+                    changed(key, changed);
+                    key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+
+                reload(changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // Stop watching
+        } finally {
+            close();
+        }
+    }
+
+    private void reload(Set<URI> changed) {
+        // Only hold the loader while reloading, so that it can be collected while the watcher waits
+        T loader = owner.get();
+        if (loader != null) {
+            for (URI catalog : changed) {
+                reload.accept(loader, catalog);
+            }
+        }
+    }
+
+    private synchronized void changed(WatchKey key, Set<URI> changed) {
+        Path dir = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Some events were lost, so any of the catalogs in this directory may have changed
+                for (Path path : catalogs.keySet()) {
+                    if (dir.equals(path.getParent())) {
+                        changed.addAll(catalogs.get(path));
+                    }
+                }
+            } else {
+                Set<URI> uris = catalogs.get(dir.resolve((Path) event.context()));
+                if (uris != null) {
+                    changed.addAll(uris);
+                }
+            }
+        }
+        if (!key.reset()) {
+            // The directory is gone, so the catalogs in it can't be watched any more
+            directories.remove(key);
+        }
+    }
+
+    private synchronized void close() {
+        try {
+            service.close();
+        } catch (IOException ex) {
+            logger.debug("Failed to close catalog watcher: %s", ex.getMessage());
+        }
+        directories.clear();
+        catalogs.clear();
+    }
+}
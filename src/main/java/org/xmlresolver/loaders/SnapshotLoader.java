@@ -0,0 +1,189 @@
+package org.xmlresolver.loaders;
+
+import org.xmlresolver.ResolverConfiguration;
+import org.xmlresolver.ResolverFeature;
+import org.xmlresolver.ResourceRequest;
+import org.xmlresolver.ResourceRequestImpl;
+import org.xmlresolver.ResourceResponse;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.utils.URIUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+/** A catalog loader that reads precompiled snapshots.
+ *
+ * <p>This loader reads catalogs from {@link CatalogSnapshot snapshots} instead of parsing them.
+ * When a <code>file:</code>, <code>jar:</code>, or <code>classpath:</code> catalog is loaded, the
+ * loader looks for a snapshot next to it, with the same name plus {@link #SNAPSHOT_EXTENSION}.
+ * A snapshot can also be configured with {@link ResolverFeature#CATALOG_SNAPSHOT}. A snapshot may
+ * contain other catalogs as well, for example all of the catalogs that the first one refers to;
+ * they're read from the snapshot when they're loaded.</p>
+ *
+ * <p>If there's no snapshot, or if the catalog has changed since the snapshot was written,
+ * the catalog is parsed as XML, just as the {@link XmlLoader} would. A snapshot is looked for
+ * each time a catalog is loaded, and a snapshot file is opened again if it has been rewritten,
+ * so a snapshot compiled while the loader is in use applies to the catalogs loaded after it.
+ * A snapshot that isn't a file, for example one in a jar, is only read once.</p>
+ */
+public class SnapshotLoader extends XmlLoader {
+    /** The extension added to a catalog file name to find its snapshot. */
+    public static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    // Where snapshots have been looked for, the snapshot that each catalog was last found in,
+    // and the snapshots that are open
+    private final LinkedHashSet<URI> locations = new LinkedHashSet<>();
+    private final HashMap<URI, URI> contained = new HashMap<>();
+    private final HashMap<URI, OpenSnapshot> opened = new HashMap<>();
+
+    /**
+     * Create a snapshot loader with the specified configuration.
+     * @param config the configuration.
+     */
+    public SnapshotLoader(ResolverConfiguration config) {
+        super(config);
+        String snapshot = config.getFeature(ResolverFeature.CATALOG_SNAPSHOT);
+        if (snapshot != null) {
+            locations.add(URIUtils.resolve(URIUtils.cwd(), snapshot));
+        }
+    }
+
+    @Override
+    protected EntryCatalog readCatalog(URI catalog) {
+        CatalogSnapshot snapshot = snapshot(catalog);
+        if (snapshot != null) {
+            EntryCatalog entries = snapshot.catalog(config, catalog, getPreferPublic());
+            if (entries != null) {
+                logger.debug("Loaded catalog from snapshot: %s: %s", snapshot.getURI(), catalog);
+                return entries;
+            }
+        }
+
+        return super.readCatalog(catalog);
+    }
+
+    private synchronized CatalogSnapshot snapshot(URI catalog) {
+        URI own = null;
+        String scheme = catalog.getScheme();
+        if (("file".equals(scheme) || "jar".equals(scheme) || "classpath".equals(scheme))
+                && catalog.getRawQuery() == null && catalog.getRawFragment() == null) {
+            own = URI.create(catalog + SNAPSHOT_EXTENSION);
+            locations.add(own);
+        }
+
+        // A catalog's own snapshot takes precedence over one it happens to be in
+        CatalogSnapshot snapshot = own == null ? null : open(own);
+        if (snapshot != null && snapshot.contains(catalog)) {
+            return snapshot;
+        }
+
+        URI location = contained.get(catalog);
+        if (location != null && !location.equals(own)) {
+            snapshot = open(location);
+            if (snapshot != null && snapshot.contains(catalog)) {
+                return snapshot;
+            }
+        }
+
+        // A snapshot written since the catalogs that refer to this one were loaded may contain it
+        for (URI other : locations) {
+            if (!other.equals(own) && !other.equals(location)) {
+                snapshot = open(other);
+                if (snapshot != null && snapshot.contains(catalog)) {
+                    return snapshot;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Open a snapshot, or reuse the one already open.
+     * <p>A snapshot file is opened again if its size or modification time has changed. Any other
+     * snapshot, for example one in a jar, is reused once it has been read. A snapshot that
+     * doesn't exist, or can't be read, isn't remembered, so it's looked for again next time.</p>
+     * @param location The snapshot URI.
+     * @return The snapshot, or null if there isn't one.
+     */
+    private CatalogSnapshot open(URI location) {
+        if (!"file".equals(location.getScheme())) {
+            OpenSnapshot current = opened.get(location);
+            return current == null ? read(location) : current.snapshot;
+        }
+
+        File file;
+        try {
+            file = new File(location);
+        } catch (IllegalArgumentException ex) {
+            // For example, a file: URI with an authority
+            return null;
+        }
+
+        long modified = file.lastModified();
+        long length = file.length();
+        if (!file.exists()) {
+            opened.remove(location);
+            return null;
+        }
+
+        OpenSnapshot current = opened.get(location);
+        if (current != null && current.modified == modified && current.length == length) {
+            return current.snapshot;
+        }
+
+        try {
+            return opened(location, CatalogSnapshot.open(file.toPath()), modified, length);
+        } catch (IOException ex) {
+            logger.warn("Failed to open catalog snapshot: %s: %s", location, ex.getMessage());
+            opened.remove(location);
+            return null;
+        }
+    }
+
+    private CatalogSnapshot read(URI location) {
+        ResourceRequest request = new ResourceRequestImpl(config);
+        request.setURI(location);
+        request.setOpenStream(true);
+        try {
+            ResourceResponse resp = config.getResource(request);
+            if (resp.getInputStream() == null) {
+                return null;
+            }
+            try (InputStream stream = resp.getInputStream()) {
+                return opened(location, CatalogSnapshot.open(location, stream), 0, 0);
+            }
+        } catch (FileNotFoundException ex) {
+            return null;
+        } catch (URISyntaxException | IOException | IllegalArgumentException ex) {
+            logger.warn("Failed to open catalog snapshot: %s: %s", location, ex.getMessage());
+            return null;
+        }
+    }
+
+    private CatalogSnapshot opened(URI location, CatalogSnapshot snapshot, long modified, long length) {
+        opened.put(location, new OpenSnapshot(snapshot, modified, length));
+        for (URI uri : snapshot.catalogs()) {
+            contained.put(uri, location);
+        }
+        return snapshot;
+    }
+
+    private static class OpenSnapshot {
+        private final CatalogSnapshot snapshot;
+        private final long modified;
+        private final long length;
+
+        private OpenSnapshot(CatalogSnapshot snapshot, long modified, long length) {
+            this.snapshot = snapshot;
+            this.modified = modified;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package org.xmlresolver.loaders;
+
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xmlresolver.ResolverConfiguration;
+import org.xmlresolver.ResolverConstants;
+import org.xmlresolver.ResolverFeature;
+import org.xmlresolver.catalog.entry.Entry;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.logging.ResolverLogger;
+import org.xmlresolver.utils.PublicId;
+import org.xmlresolver.utils.SaxProducer;
+import org.xmlresolver.utils.URIUtils;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+
+/** A catalog loader that reads catalogs with StAX.
+ *
+ * <p>This loader builds the same catalogs as the {@link XmlLoader}, and behaves the same way in every
+ * other respect, but it reads catalog documents with an {@link XMLStreamReader} instead of SAX. The
+ * state of the open elements is kept in arrays instead of stacks of objects, element names are
+ * dispatched with a single lookup, the attributes of each element are read in a single pass, and
+ * elements that are ignored don't allocate anything. The DTD of a catalog, if it has one, is resolved
+ * with the loader's {@link #getEntityResolver() entity resolver}.</p>
+ *
+ * <p>Catalogs loaded from a {@link SaxProducer} are still built from SAX events.</p>
+ */
+public class StaxLoader extends XmlLoader {
+    private static final HashMap<String, Entry.Type> ELEMENTS = new HashMap<>();
+    private static final EnumSet<Entry.Type> TR9401_TYPES = EnumSet.of(Entry.Type.DOCTYPE, Entry.Type.DOCUMENT,
+            Entry.Type.DTD_DECL, Entry.Type.ENTITY, Entry.Type.LINKTYPE, Entry.Type.NOTATION, Entry.Type.SGML_DECL);
+
+    static {
+        ELEMENTS.put("group", Entry.Type.GROUP);
+        ELEMENTS.put("public", Entry.Type.PUBLIC);
+        ELEMENTS.put("system", Entry.Type.SYSTEM);
+        ELEMENTS.put("rewriteSystem", Entry.Type.REWRITE_SYSTEM);
+        ELEMENTS.put("delegatePublic", Entry.Type.DELEGATE_PUBLIC);
+        ELEMENTS.put("delegateSystem", Entry.Type.DELEGATE_SYSTEM);
+        ELEMENTS.put("uri", Entry.Type.URI);
+        ELEMENTS.put("rewriteURI", Entry.Type.REWRITE_URI);
+        ELEMENTS.put("delegateURI", Entry.Type.DELEGATE_URI);
+        ELEMENTS.put("nextCatalog", Entry.Type.NEXT_CATALOG);
+        ELEMENTS.put("uriSuffix", Entry.Type.URI_SUFFIX);
+        ELEMENTS.put("systemSuffix", Entry.Type.SYSTEM_SUFFIX);
+        ELEMENTS.put("doctype", Entry.Type.DOCTYPE);
+        ELEMENTS.put("document", Entry.Type.DOCUMENT);
+        ELEMENTS.put("dtddecl", Entry.Type.DTD_DECL);
+        ELEMENTS.put("entity", Entry.Type.ENTITY);
+        ELEMENTS.put("linktype", Entry.Type.LINKTYPE);
+        ELEMENTS.put("notation", Entry.Type.NOTATION);
+        ELEMENTS.put("sgmldecl", Entry.Type.SGML_DECL);
+    }
+
+    private final XMLInputFactory factory;
+
+    /**
+     * Create a StAX loader with the specified configuration.
+     * @param config the configuration.
+     */
+    public StaxLoader(ResolverConfiguration config) {
+        super(config);
+        factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+        factory.setProperty(XMLInputFactory.RESOLVER, (javax.xml.stream.XMLResolver) this::resolveEntity);
+    }
+
+    @Override
+    protected EntryCatalog parseDocument(URI catalog, InputSource source, ErrorHandler errorHandler)
+            throws SAXException, IOException {
+        InputStream opened = null;
+        XMLStreamReader reader = null;
+        try {
+            Reader chars = source.getCharacterStream();
+            InputStream bytes = source.getByteStream();
+            if (chars == null && bytes == null) {
+                opened = new URL(source.getSystemId()).openStream();
+                bytes = opened;
+            }
+            if (chars == null && source.getEncoding() != null) {
+                chars = new InputStreamReader(bytes, source.getEncoding());
+            }
+
+            // Factories aren't guaranteed to be thread safe; the readers they create are independent
+            synchronized (factory) {
+                if (chars != null) {
+                    reader = factory.createXMLStreamReader(source.getSystemId(), chars);
+                } else {
+                    reader = factory.createXMLStreamReader(source.getSystemId(), bytes);
+                }
+            }
+
+            return new CatalogReader(catalogConfig, catalog, getPreferPublic(), reader).read();
+        } catch (XMLStreamException ex) {
+            if (ex.getNestedException() instanceof IOException) {
+                throw (IOException) ex.getNestedException();
+            }
+            Location location = ex.getLocation();
+            SAXParseException spe;
+            if (location == null) {
+                spe = new SAXParseException(ex.getMessage(), null, source.getSystemId(), -1, -1, ex);
+            } else {
+                spe = new SAXParseException(ex.getMessage(), location.getPublicId(), location.getSystemId(),
+                        location.getLineNumber(), location.getColumnNumber(), ex);
+            }
+            errorHandler.fatalError(spe);
+            throw spe;
+        } finally {
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            } catch (XMLStreamException ex) {
+                // ignore it
+            }
+            if (opened != null) {
+                opened.close();
+            }
+        }
+    }
+
+    private Object resolveEntity(String publicId, String systemId, String baseURI, String namespace) throws XMLStreamException {
+        EntityResolver resolver = getEntityResolver();
+        if (resolver == null) {
+            return null;
+        }
+
+        String absolute = systemId;
+        if (systemId != null && baseURI != null) {
+            try {
+                absolute = URIUtils.resolve(new URI(baseURI), systemId).toString();
+            } catch (URISyntaxException | IllegalArgumentException ex) {
+                // Let the resolver try the system identifier as it is
+            }
+        }
+
+        try {
+            InputSource source = resolver.resolveEntity(publicId, absolute);
+            if (source == null) {
+                return null;
+            }
+            if (source.getByteStream() != null) {
+                return source.getByteStream();
+            }
+            return source.getSystemId() == null ? null : new URL(source.getSystemId()).openStream();
+        } catch (SAXException | IOException ex) {
+            throw new XMLStreamException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Reads one catalog document.
+     * <p>The frames of the open elements are held in parallel arrays, indexed by depth. An element
+     * that's ignored, and every element inside it, has no entry in its frame.</p>
+     */
+    private static class CatalogReader {
+        private final ResolverConfiguration config;
+        private final ResolverLogger logger;
+        private final XMLStreamReader reader;
+        private final boolean fixWindows;
+        private EntryCatalog catalog = null;
+
+        private Entry[] entries = new Entry[16];
+        private URI[] baseURIs = new URI[16];
+        private boolean[] preferPublics = new boolean[16];
+        private int depth = 0;
+
+        // The attributes of the current element
+        private String id, name, uri, caturi, prefer, base, nature, purpose;
+        private String publicId, systemId, systemIdStart, publicIdStart, uriStart, rewritePrefix;
+        private String systemIdSuffix, uriSuffix;
+        private String[] extensions = new String[4];
+        private int extensionCount = 0;
+
+        CatalogReader(ResolverConfiguration config, URI catalog, boolean preferPublic, XMLStreamReader reader) {
+            this.config = config;
+            this.reader = reader;
+            logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
+            fixWindows = config.getFeature(ResolverFeature.FIX_WINDOWS_SYSTEM_IDENTIFIERS);
+            baseURIs[0] = catalog;
+            preferPublics[0] = preferPublic;
+        }
+
+        EntryCatalog read() throws XMLStreamException {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    startElement();
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    entries[depth] = null;
+                    depth--;
+                }
+            }
+
+            // The catalog is complete; it won't change again
+            catalog.freeze();
+            return catalog;
+        }
+
+        private void startElement() {
+            int parent = depth;
+            depth++;
+            if (depth == entries.length) {
+                entries = Arrays.copyOf(entries, depth * 2);
+                baseURIs = Arrays.copyOf(baseURIs, depth * 2);
+                preferPublics = Arrays.copyOf(preferPublics, depth * 2);
+            }
+            baseURIs[depth] = baseURIs[parent];
+            preferPublics[depth] = preferPublics[parent];
+
+            String ns = reader.getNamespaceURI();
+            String localName = reader.getLocalName();
+
+            if (parent == 0) {
+                if (ResolverConstants.CATALOG_NS.equals(ns) && "catalog".equals(localName)) {
+                    readAttributes();
+                    if (prefer != null) {
+                        preferPublics[depth] = "public".equals(prefer);
+                        if (!"public".equals(prefer) && !"system".equals(prefer)) {
+                            logger.error("Prefer on " + localName + " is neither 'system' nor 'public': " + prefer);
+                        }
+                    }
+                    catalog = new EntryCatalog(config, baseURIs[parent], id, preferPublics[depth]);
+                    catalog.setLocator(new StreamLocator(reader));
+                    entries[depth] = catalog;
+                    if (base != null) {
+                        baseURIs[depth] = URIUtils.resolve(baseURIs[depth], base);
+                    }
+                } else {
+                    logger.error("Catalog document is not an XML Catalog (ignored): " + qName());
+                    catalog = new EntryCatalog(config, baseURIs[parent], null, false);
+                }
+                return;
+            }
+
+            if (entries[parent] == null) {
+                return;
+            }
+
+            Entry.Type type = null;
+            if (ResolverConstants.CATALOG_NS.equals(ns)) {
+                type = ELEMENTS.get(localName);
+            } else if (ResolverConstants.TR9401_NS.equals(ns)) {
+                type = ELEMENTS.get(localName);
+                if (type != null && !TR9401_TYPES.contains(type)) {
+                    type = null;
+                }
+            } else {
+                return;
+            }
+
+            if (type == null) {
+                logger.error("Unexpected catalog element (ignored): " + localName);
+                return;
+            }
+
+            readAttributes();
+            catalogElement(type);
+        }
+
+        private void catalogElement(Entry.Type type) {
+            URI baseURI = baseURIs[depth];
+            if (base != null) {
+                baseURI = URIUtils.resolve(baseURI, base);
+                baseURIs[depth] = baseURI;
+            }
+
+            Entry entry = null;
+            switch (type) {
+                case GROUP:
+                    if (prefer != null) {
+                        preferPublics[depth] = "public".equals(prefer);
+                        if (!"public".equals(prefer) && !"system".equals(prefer)) {
+                            logger.error("Prefer on group is neither 'system' nor 'public': " + prefer);
+                        }
+                    }
+                    entry = catalog.addGroup(baseURI, id, preferPublics[depth]);
+                    break;
+                case PUBLIC:
+                    // In XML, there will always be a system identifier.
+                    entry = catalog.addPublic(baseURI, id, PublicId.normalize(publicId), uri, preferPublics[depth]);
+                    break;
+                case SYSTEM:
+                    entry = catalog.addSystem(baseURI, id, patched(systemId), uri);
+                    break;
+                case REWRITE_SYSTEM:
+                    entry = catalog.addRewriteSystem(baseURI, id, patched(systemIdStart), rewritePrefix);
+                    break;
+                case SYSTEM_SUFFIX:
+                    entry = catalog.addSystemSuffix(baseURI, id, patched(systemIdSuffix), uri);
+                    break;
+                case DELEGATE_PUBLIC:
+                    entry = catalog.addDelegatePublic(baseURI, id, PublicId.normalize(publicIdStart), caturi, preferPublics[depth]);
+                    break;
+                case DELEGATE_SYSTEM:
+                    entry = catalog.addDelegateSystem(baseURI, id, patched(systemIdStart), caturi);
+                    break;
+                case URI:
+                    entry = catalog.addUri(baseURI, id, name, uri, nature, purpose);
+                    break;
+                case URI_SUFFIX:
+                    entry = catalog.addUriSuffix(baseURI, id, uriSuffix, uri);
+                    break;
+                case REWRITE_URI:
+                    entry = catalog.addRewriteUri(baseURI, id, uriStart, rewritePrefix);
+                    break;
+                case DELEGATE_URI:
+                    entry = catalog.addDelegateUri(baseURI, id, uriStart, caturi);
+                    break;
+                case NEXT_CATALOG:
+                    entry = catalog.addNextCatalog(baseURI, id, caturi);
+                    break;
+                case DOCTYPE:
+                    entry = catalog.addDoctype(baseURI, id, name, uri);
+                    break;
+                case DOCUMENT:
+                    entry = catalog.addDocument(baseURI, id, uri);
+                    break;
+                case DTD_DECL:
+                    entry = catalog.addDtdDecl(baseURI, id, publicId, uri);
+                    break;
+                case ENTITY:
+                    entry = catalog.addEntity(baseURI, id, name, uri);
+                    break;
+                case LINKTYPE:
+                    entry = catalog.addLinktype(baseURI, id, name, uri);
+                    break;
+                case NOTATION:
+                    entry = catalog.addNotation(baseURI, id, name, uri);
+                    break;
+                case SGML_DECL:
+                    entry = catalog.addSgmlDecl(baseURI, id, uri);
+                    break;
+                default:
+                    // This shouldn't happen!
+                    break;
+            }
+
+            // An entry that couldn't be added has been reported; anything inside it is ignored
+            if (entry != null) {
+                for (int pos = 0; pos < extensionCount; pos += 2) {
+                    entry.setProperty(extensions[pos], extensions[pos + 1]);
+                }
+            }
+            entries[depth] = entry;
+        }
+
+        private void readAttributes() {
+            id = name = uri = caturi = prefer = base = nature = purpose = null;
+            publicId = systemId = systemIdStart = publicIdStart = uriStart = rewritePrefix = null;
+            systemIdSuffix = uriSuffix = null;
+            extensionCount = 0;
+
+            for (int pos = 0; pos < reader.getAttributeCount(); pos++) {
+                String ns = reader.getAttributeNamespace(pos);
+                String localName = reader.getAttributeLocalName(pos);
+                if (ns == null || ns.isEmpty()) {
+                    switch (localName) {
+                        case "id":
+                            id = reader.getAttributeValue(pos);
+                            break;
+                        case "name":
+                            name = reader.getAttributeValue(pos);
+                            break;
+                        case "uri":
+                            uri = reader.getAttributeValue(pos);
+                            break;
+                        case "catalog":
+                            caturi = reader.getAttributeValue(pos);
+                            break;
+                        case "prefer":
+                            prefer = reader.getAttributeValue(pos);
+                            break;
+                        case "publicId":
+                            publicId = reader.getAttributeValue(pos);
+                            break;
+                        case "systemId":
+                            systemId = reader.getAttributeValue(pos);
+                            break;
+                        case "systemIdStartString":
+                            systemIdStart = reader.getAttributeValue(pos);
+                            break;
+                        case "publicIdStartString":
+                            publicIdStart = reader.getAttributeValue(pos);
+                            break;
+                        case "uriStartString":
+                            uriStart = reader.getAttributeValue(pos);
+                            break;
+                        case "rewritePrefix":
+                            rewritePrefix = reader.getAttributeValue(pos);
+                            break;
+                        case "systemIdSuffix":
+                            systemIdSuffix = reader.getAttributeValue(pos);
+                            break;
+                        case "uriSuffix":
+                            uriSuffix = reader.getAttributeValue(pos);
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (ResolverConstants.XML_NS.equals(ns)) {
+                    if ("base".equals(localName)) {
+                        base = reader.getAttributeValue(pos);
+                    }
+                } else if (ResolverConstants.RDDL_NS.equals(ns)) {
+                    if ("nature".equals(localName)) {
+                        nature = reader.getAttributeValue(pos);
+                    } else if ("purpose".equals(localName)) {
+                        purpose = reader.getAttributeValue(pos);
+                    }
+                } else if (ResolverConstants.XMLRESOURCE_EXT_NS.equals(ns)) {
+                    if (extensionCount == extensions.length) {
+                        extensions = Arrays.copyOf(extensions, extensionCount * 2);
+                    }
+                    extensions[extensionCount++] = localName;
+                    extensions[extensionCount++] = reader.getAttributeValue(pos);
+                }
+            }
+        }
+
+        private String patched(String systemId) {
+            if (systemId != null && fixWindows) {
+                systemId = systemId.replace("\\", "/");
+            }
+            return systemId;
+        }
+
+        private String qName() {
+            String prefix = reader.getPrefix();
+            return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+        }
+    }
+
+    /**
+     * Reports the location of the stream reader, for the messages about errors in the catalog.
+     */
+    private static class StreamLocator implements Locator {
+        private final XMLStreamReader reader;
+
+        StreamLocator(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public String getPublicId() {
+            return reader.getLocation().getPublicId();
+        }
+
+        @Override
+        public String getSystemId() {
+            return reader.getLocation().getSystemId();
+        }
+
+        @Override
+        public int getLineNumber() {
+            return reader.getLocation().getLineNumber();
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return reader.getLocation().getColumnNumber();
+        }
+    }
+}
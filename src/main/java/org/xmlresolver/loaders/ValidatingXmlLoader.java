@@ -2,7 +2,11 @@ package org.xmlresolver.loaders;
 
 import com.thaiopensource.util.PropertyMapBuilder;
 import com.thaiopensource.validate.ValidateProperty;
-import com.thaiopensource.validate.ValidationDriver;
+import com.thaiopensource.validate.IncorrectSchemaException;
+import com.thaiopensource.validate.Schema;
+import com.thaiopensource.validate.Validator;
+import com.thaiopensource.validate.rng.SAXSchemaReader;
+import com.thaiopensource.xml.sax.ForkContentHandler;
 import org.xml.sax.*;
 import org.xmlresolver.*;
 import org.xmlresolver.catalog.entry.EntryCatalog;
@@ -11,11 +15,19 @@ import org.xmlresolver.exceptions.CatalogUnavailableException;
 import org.xmlresolver.logging.ResolverLogger;
 import org.xmlresolver.utils.SaxProducer;
 
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.HashMap;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /** A validating catalog loader.
  *
@@ -25,9 +37,12 @@ import java.util.HashMap;
 public class ValidatingXmlLoader implements CatalogLoader {
     protected final ResolverConfiguration config;
     protected final ResolverLogger logger;
-    protected final HashMap<URI, EntryCatalog> catalogMap;
-    private final XMLResolver resolver;
+    protected final ConcurrentHashMap<URI, CompletableFuture<EntryCatalog>> catalogMap;
+    private static Schema catalogSchema = null;
     private final XmlLoader underlyingLoader;
+    private final CatalogWatcher<ValidatingXmlLoader> watcher;
+    private final CatalogRevalidator revalidator;
+    private final AtomicLong generation = new AtomicLong();
 
     /**
      * Create a validating loader with the specified configuration.
@@ -37,9 +52,16 @@ public class ValidatingXmlLoader implements CatalogLoader {
         this.config = config;
         logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
 
-        underlyingLoader = new XmlLoader(config);
-        resolver = XmlLoader.getLoaderResolver();
-        catalogMap = new HashMap<>();
+        // This loader watches the catalogs; the underlying loader only parses them
+        underlyingLoader = new XmlLoader(config, false);
+        catalogMap = new ConcurrentHashMap<>();
+        if (config.getFeature(ResolverFeature.WATCH_CATALOGS)) {
+            watcher = new CatalogWatcher<>(logger, this, ValidatingXmlLoader::reloadCatalog);
+        } else {
+            watcher = null;
+        }
+        long ttl = TimeUnit.SECONDS.toMillis(Math.max(0, config.getFeature(ResolverFeature.REMOTE_CATALOG_TTL)));
+        revalidator = ttl > 0 ? new CatalogRevalidator(config, logger, ttl, this::replaceCatalog) : null;
     }
 
     @Override
@@ -61,39 +83,85 @@ public class ValidatingXmlLoader implements CatalogLoader {
      */
     @Override
     public EntryCatalog loadCatalog(URI catalog) {
-        if (catalogMap.containsKey(catalog)) {
-            return catalogMap.get(catalog);
+        return XmlLoader.load(catalogMap, config, catalog, () -> {
+            if (watcher != null) {
+                watcher.watch(catalog);
+            }
+            return readCatalog(catalog);
+        });
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Revalidate the <code>http:</code> and <code>https:</code> catalogs that have expired.
+     * <p>This works as it does for the {@link XmlLoader}, except that a changed catalog only
+     * replaces the old one if it's valid.</p>
+     * @param executor Supplies the executor to run refreshes on.
+     */
+    @Override
+    public void revalidateCatalogs(Supplier<Executor> executor) {
+        if (revalidator != null) {
+            revalidator.revalidate(executor);
         }
+    }
 
-        synchronized (catalogMap) {
-            if (catalogMap.containsKey(catalog)) {
-                return catalogMap.get(catalog);
+    private EntryCatalog readCatalog(URI catalog) {
+        try {
+            ResourceRequest request = new ResourceRequestImpl(config);
+            request.setURI(catalog);
+            request.setOpenStream(true);
+            ResourceResponse resp = config.getResource(request);
+            InputStream stream = resp.getInputStream();
+            MessageDigest digest = stream == null || revalidator == null ? null : revalidator.track(catalog);
+            if (digest != null) {
+                stream = new DigestInputStream(stream, digest);
             }
-            try {
-                ResourceRequest request = new ResourceRequestImpl(config);
-                request.setURI(catalog);
-                request.setOpenStream(true);
-                ResourceResponse resp = config.getResource(request);
-                InputSource source = new InputSource(resp.getInputStream());
-                source.setSystemId(catalog.toString());
-                return loadCatalog(catalog, source);
-            } catch (CatalogUnavailableException ex) {
-                if (ex.getCause() instanceof FileNotFoundException) {
-                    logger.warn("Failed to load catalog: %s: %s", catalog, ex.getMessage());
-                    catalogMap.put(catalog, new EntryCatalog(config, catalog, null, false));
-                    return catalogMap.get(catalog);
-                }
-                logger.error("Failed to load catalog: %s: %s", catalog, ex.getMessage());
-                catalogMap.put(catalog, new EntryCatalog(config, catalog, null, false));
-                throw ex;
-            } catch (URISyntaxException | IOException ex) {
-                logger.error("Failed to load catalog: %s: %s", catalog, ex.getMessage());
-                catalogMap.put(catalog, new EntryCatalog(config, catalog, null, false));
-                throw new CatalogUnavailableException(ex);
+            InputSource source = new InputSource(stream);
+            source.setSystemId(catalog.toString());
+            EntryCatalog entries = validateCatalog(catalog, source);
+            if (digest != null) {
+                revalidator.loaded(catalog, resp.getConnection(), digest);
             }
+            return entries;
+        } catch (CatalogUnavailableException ex) {
+            if (ex.getCause() instanceof FileNotFoundException) {
+                logger.warn("Failed to load catalog: %s: %s", catalog, ex.getMessage());
+                return new EntryCatalog(config, catalog, null, false);
+            }
+            logger.error("Failed to load catalog: %s: %s", catalog, ex.getMessage());
+            throw ex;
+        } catch (URISyntaxException | IOException ex) {
+            logger.error("Failed to load catalog: %s: %s", catalog, ex.getMessage());
+            throw new CatalogUnavailableException(ex);
         }
     }
 
+    /**
+     * Read and validate a catalog again and replace the one that was loaded before.
+     * <p>If the catalog can't be read or isn't valid, the old one is kept.</p>
+     * @param catalog The catalog URI.
+     */
+    private void reloadCatalog(URI catalog) {
+        try {
+            EntryCatalog entries = readCatalog(catalog);
+            catalogMap.put(catalog, CompletableFuture.completedFuture(entries));
+            generation.incrementAndGet();
+            logger.info("Reloaded catalog: %s", catalog);
+        } catch (RuntimeException ex) {
+            logger.error("Failed to reload catalog, keeping the old one: %s: %s", catalog, ex.getMessage());
+        }
+    }
+
+    private void replaceCatalog(URI catalog, InputSource source) {
+        EntryCatalog entries = validateCatalog(catalog, source);
+        catalogMap.put(catalog, CompletableFuture.completedFuture(entries));
+        generation.incrementAndGet();
+    }
+
     /** Load the specified catalog from the specified stream.
      *
      * @param catalog The catalog URI.
@@ -103,87 +171,28 @@ public class ValidatingXmlLoader implements CatalogLoader {
      */
     @Override
     public EntryCatalog loadCatalog(URI catalog, InputSource source) {
-        if (catalogMap.containsKey(catalog)) {
-            return catalogMap.get(catalog);
-        }
-
         if (!catalog.isAbsolute()) {
             throw new IllegalArgumentException("Catalog URIs must be absolute: " + catalog);
         }
 
-        // FIXME: it doesn't appear that the validating loader handles archived catalogs
-        synchronized (catalogMap) {
-            if (catalogMap.containsKey(catalog)) {
-                return catalogMap.get(catalog);
-            }
-
-            try {
-                // This is a bit of a hack, but I don't expect catalogs to be huge and I have
-                // to make sure that the stream can be read twice.
-                ByteArrayOutputStream baos = null;
-                if (source.getByteStream() != null) {
-                    baos = new ByteArrayOutputStream();
-                    InputStream instream = source.getByteStream();
-                    byte[] buf = new byte[4096];
-                    int readLen = instream.read(buf, 0, buf.length);
-                    while (readLen >= 0) {
-                        baos.write(buf, 0, readLen);
-                        readLen = instream.read(buf, 0, buf.length);
-                    }
-                    source.setByteStream(new ByteArrayInputStream(baos.toByteArray()));
-                }
-
-                CharArrayWriter caw = null;
-                if (source.getCharacterStream() != null) {
-                    caw = new CharArrayWriter();
-                    Reader instream = source.getCharacterStream();
-                    char[] buf = new char[4096];
-                    int readLen = instream.read(buf, 0, buf.length);
-                    while (readLen >= 0) {
-                        caw.write(buf, 0, readLen);
-                        readLen = instream.read(buf, 0, buf.length);
-                    }
-                    source.setCharacterStream(new CharArrayReader(caw.toCharArray()));
-                }
-
-                MyErrorHandler errorHandler = new MyErrorHandler(config);
-                PropertyMapBuilder builder = new PropertyMapBuilder();
-                builder.put(ValidateProperty.ERROR_HANDLER, errorHandler);
-                builder.put(ValidateProperty.ENTITY_RESOLVER, resolver.getEntityResolver2());
-                builder.put(ValidateProperty.URI_RESOLVER, resolver.getURIResolver());
-
-                ValidationDriver driver = new ValidationDriver(builder.toPropertyMap(), builder.toPropertyMap(), null);
-                URL schemaUrl = ValidatingXmlLoader.class.getResource("/org/xmlresolver/schemas/oasis-xml-catalog-1.1.rng");
-                if (schemaUrl == null) {
-                    throw new CatalogInvalidException("Failed to read catalog schema resource");
-                }
-                InputStream schemaStream = schemaUrl.openStream();
-                InputSource schema = new InputSource(schemaStream);
-                if (!driver.loadSchema(schema)) {
-                    if (errorHandler.getMessage() == null) {
-                        throw new CatalogInvalidException("Failed to load catalog schema");
-                    } else {
-                        throw new CatalogInvalidException("Failed to load catalog schema: " + errorHandler.getMessage());
-                    }
-                }
-                if (!driver.validate(source)) {
-                    String msg = errorHandler.getMessage();
-                    throw new CatalogInvalidException("Catalog '" + catalog.toString() + "' is invalid: " + msg);
-                };
-
-                if (baos != null) {
-                    source.setByteStream(new ByteArrayInputStream(baos.toByteArray()));
-                }
+        return XmlLoader.load(catalogMap, config, catalog, () -> validateCatalog(catalog, source));
+    }
 
-                if (caw != null) {
-                    source.setCharacterStream(new CharArrayReader(caw.toCharArray()));
-                }
-            } catch (IOException | SAXException ex) {
-                throw new CatalogUnavailableException(ex);
-            }
+    private EntryCatalog validateCatalog(URI catalog, InputSource source) {
+        // FIXME: it doesn't appear that the validating loader handles archived catalogs
+        MyErrorHandler errorHandler = new MyErrorHandler(config);
+        Validator validator = validator(errorHandler);
+        EntryCatalog entries;
+        try {
+            entries = underlyingLoader.parseCatalog(catalog, source,
+                    handler -> new ForkContentHandler(handler, validator.getContentHandler()), errorHandler);
+        } catch (SAXException ex) {
+            // Not well-formed; the parser has already reported it
+            throw new CatalogInvalidException("Catalog '" + catalog.toString() + "' is invalid: " + errorHandler.getMessage(ex));
+        } catch (ParserConfigurationException | IOException ex) {
+            throw new CatalogUnavailableException(ex);
         }
-
-        return underlyingLoader.loadCatalog(catalog, source);
+        return valid(catalog, entries, errorHandler);
     }
 
     /** Load the specified catalog from the specified stream.
@@ -194,51 +203,75 @@ public class ValidatingXmlLoader implements CatalogLoader {
      */
     @Override
     public EntryCatalog loadCatalog(URI catalog, SaxProducer producer) {
-        if (catalogMap.containsKey(catalog)) {
-            return catalogMap.get(catalog);
-        }
-
         if (!catalog.isAbsolute()) {
             throw new IllegalArgumentException("Catalog URIs must be absolute: " + catalog);
         }
 
-        synchronized (catalogMap) {
-            if (catalogMap.containsKey(catalog)) {
-                return catalogMap.get(catalog);
-            }
+        return XmlLoader.load(catalogMap, config, catalog, () -> {
+            MyErrorHandler errorHandler = new MyErrorHandler(config);
+            Validator validator = validator(errorHandler);
+            EntryCatalog entries;
             try {
-                MyErrorHandler errorHandler = new MyErrorHandler(config);
-                PropertyMapBuilder builder = new PropertyMapBuilder();
-                builder.put(ValidateProperty.ERROR_HANDLER, errorHandler);
-                builder.put(ValidateProperty.ENTITY_RESOLVER, resolver.getEntityResolver2());
-                builder.put(ValidateProperty.URI_RESOLVER, resolver.getURIResolver());
-
-                ValidationDriver driver = new ValidationDriver(builder.toPropertyMap(), builder.toPropertyMap(), null);
-                URL schemaUrl = ValidatingXmlLoader.class.getResource("/org/xmlresolver/schemas/oasis-xml-catalog-1.1.rng");
-                if (schemaUrl == null) {
-                    throw new CatalogInvalidException("Failed to read catalog schema resource");
-                }
-                InputStream schemaStream = schemaUrl.openStream();
-                InputSource schema = new InputSource(schemaStream);
-                if (!driver.loadSchema(schema)) {
-                    if (errorHandler.getMessage() == null) {
-                        throw new CatalogInvalidException("Failed to load catalog schema");
-                    } else {
-                        throw new CatalogInvalidException("Failed to load catalog schema: " + errorHandler.getMessage());
-                    }
-                }
-
-                if (!driver.validate(SaxProducer.adaptForJing(producer))) {
-                    String msg = errorHandler.getMessage();
-                    throw new CatalogInvalidException("Catalog '" + catalog.toString() + "' is invalid: " + msg);
-                };
-
-            } catch (IOException| SAXException ex) {
+                entries = underlyingLoader.parseCatalog(catalog, producer,
+                        handler -> new ForkContentHandler(handler, validator.getContentHandler()),
+                        validator.getDTDHandler(), errorHandler);
+            } catch (SAXException ex) {
+                throw new CatalogInvalidException("Catalog '" + catalog.toString() + "' is invalid: " + errorHandler.getMessage(ex));
+            } catch (IOException ex) {
                 throw new CatalogUnavailableException(ex.getMessage());
             }
+            return valid(catalog, entries, errorHandler);
+        });
+    }
+
+    private EntryCatalog valid(URI catalog, EntryCatalog entries, MyErrorHandler errorHandler) {
+        if (errorHandler.isInvalid()) {
+            throw new CatalogInvalidException("Catalog '" + catalog.toString() + "' is invalid: " + errorHandler.getMessage());
         }
+        return entries;
+    }
 
-        return underlyingLoader.loadCatalog(catalog, producer);
+    private Validator validator(MyErrorHandler errorHandler) {
+        PropertyMapBuilder builder = new PropertyMapBuilder();
+        builder.put(ValidateProperty.ERROR_HANDLER, errorHandler);
+        return catalogSchema(config).createValidator(builder.toPropertyMap());
+    }
+
+    /**
+     * The catalog schema.
+     * <p>The schema is compiled the first time it's needed. A compiled schema is immutable,
+     * so all of the loaders share it.</p>
+     * @param config The configuration, used for reporting errors in the schema.
+     * @return The compiled schema.
+     */
+    private static synchronized Schema catalogSchema(ResolverConfiguration config) {
+        if (catalogSchema == null) {
+            MyErrorHandler errorHandler = new MyErrorHandler(config);
+            XMLResolver resolver = XmlLoader.getLoaderResolver();
+            PropertyMapBuilder builder = new PropertyMapBuilder();
+            builder.put(ValidateProperty.ERROR_HANDLER, errorHandler);
+            builder.put(ValidateProperty.ENTITY_RESOLVER, resolver.getEntityResolver2());
+            builder.put(ValidateProperty.URI_RESOLVER, resolver.getURIResolver());
+
+            URL schemaUrl = ValidatingXmlLoader.class.getResource("/org/xmlresolver/schemas/oasis-xml-catalog-1.1.rng");
+            if (schemaUrl == null) {
+                throw new CatalogInvalidException("Failed to read catalog schema resource");
+            }
+            try (InputStream schemaStream = schemaUrl.openStream()) {
+                InputSource schema = new InputSource(schemaStream);
+                schema.setSystemId(schemaUrl.toString());
+                catalogSchema = SAXSchemaReader.getInstance().createSchema(schema, builder.toPropertyMap());
+            } catch (IncorrectSchemaException | SAXException ex) {
+                if (errorHandler.getMessage() == null) {
+                    throw new CatalogInvalidException("Failed to load catalog schema");
+                } else {
+                    throw new CatalogInvalidException("Failed to load catalog schema: " + errorHandler.getMessage());
+                }
+            } catch (IOException ex) {
+                throw new CatalogUnavailableException(ex);
+            }
+        }
+        return catalogSchema;
     }
 
     @Override
@@ -297,5 +330,13 @@ public class ValidatingXmlLoader implements CatalogLoader {
         public String getMessage() {
             return firstError == null ? firstWarning : firstError;
         }
+
+        public String getMessage(SAXException ex) {
+            return firstError == null ? ex.getMessage() : firstError;
+        }
+
+        public boolean isInvalid() {
+            return firstError != null;
+        }
     }
 }
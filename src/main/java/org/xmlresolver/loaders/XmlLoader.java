@@ -6,36 +6,61 @@ import org.xmlresolver.*;
 import org.xmlresolver.catalog.entry.Entry;
 import org.xmlresolver.catalog.entry.EntryCatalog;
 import org.xmlresolver.catalog.entry.EntryNull;
+import org.xmlresolver.exceptions.CatalogInvalidException;
 import org.xmlresolver.exceptions.CatalogUnavailableException;
 import org.xmlresolver.logging.ResolverLogger;
 import org.xmlresolver.utils.PublicId;
+import org.xmlresolver.utils.SaxParserPool;
 import org.xmlresolver.utils.SaxProducer;
 import org.xmlresolver.utils.URIUtils;
+import org.xmlresolver.utils.ZipArchive;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.URLConnection;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.function.UnaryOperator;
+import java.util.zip.ZipException;
 
 /** An XML catalog loader.
  *
  * <p>This loader understands the XML Catalogs 1.1 specification XML catalog syntax.</p>
+ *
+ * <p>If {@link ResolverFeature#WATCH_CATALOGS} is true, <code>file:</code> catalogs are
+ * parsed again when they change. If {@link ResolverFeature#REMOTE_CATALOG_TTL} is greater than zero,
+ * <code>http:</code> and <code>https:</code> catalogs are revalidated when they expire.
+ * Otherwise, if {@link ResolverFeature#SHARE_CATALOGS} is true, catalogs are shared with the
+ * other loaders in the JVM.</p>
  */
 public class XmlLoader implements CatalogLoader {
     protected final ResolverConfiguration config;
+    /** The configuration given to the catalogs this loader builds; see {@link ResolverFeature#SHARE_CATALOGS}. */
+    protected final ResolverConfiguration catalogConfig;
     protected final ResolverLogger logger;
-    protected final HashMap<URI, EntryCatalog> catalogMap;
+    protected final ConcurrentHashMap<URI, CompletableFuture<EntryCatalog>> catalogMap;
 
     private static XMLResolver loaderResolver = null;
+    private static final ConcurrentHashMap<List<Object>, SoftReference<CompletableFuture<EntryCatalog>>> sharedCatalogs = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<List<Object>, ResolverConfiguration> sharedConfigs = new ConcurrentHashMap<>();
+    private final boolean shareCatalogs;
+    private final CatalogWatcher<XmlLoader> watcher;
+    private final AtomicLong generation = new AtomicLong();
+    private final CatalogRevalidator revalidator;
     private boolean preferPublic = true;
     private boolean archivedCatalogs = true;
     private EntityResolver entityResolver = null;
@@ -45,10 +70,47 @@ public class XmlLoader implements CatalogLoader {
      * @param config the configuration.
      */
     public XmlLoader(ResolverConfiguration config) {
+        this(config, config.getFeature(ResolverFeature.WATCH_CATALOGS));
+    }
+
+    /**
+     * Create an XML loader that may or may not watch its catalogs.
+     * @param config the configuration.
+     * @param watch true if changed catalogs should be reloaded.
+     */
+    XmlLoader(ResolverConfiguration config, boolean watch) {
         this.config = config;
         logger = config.getFeature(ResolverFeature.RESOLVER_LOGGER);
         entityResolver = new CatalogLoaderResolver();
-        catalogMap = new HashMap<>();
+        catalogMap = new ConcurrentHashMap<>();
+        watcher = watch ? new CatalogWatcher<>(logger, this, XmlLoader::reloadCatalog) : null;
+        long ttl = TimeUnit.SECONDS.toMillis(Math.max(0, config.getFeature(ResolverFeature.REMOTE_CATALOG_TTL)));
+        revalidator = ttl > 0 ? new CatalogRevalidator(config, logger, ttl, this::replaceCatalog) : null;
+        // A loader that replaces its catalogs when they change can't share them
+        shareCatalogs = config.getFeature(ResolverFeature.SHARE_CATALOGS) && watcher == null && revalidator == null;
+        catalogConfig = shareCatalogs ? sharedConfiguration(config) : config;
+    }
+
+    /**
+     * Get the configuration for catalogs shared by all loaders.
+     * <p>Shared catalogs outlive the loader that read them, so they mustn't refer to its configuration
+     * (or to its logger, or to the manager that owns it). They get an internal configuration that has
+     * only the settings that affect how a catalog is built.</p>
+     * @param config The loader's configuration.
+     * @return The configuration for shared catalogs with the same settings.
+     */
+    private static ResolverConfiguration sharedConfiguration(ResolverConfiguration config) {
+        boolean mergeHttps = config.getFeature(ResolverFeature.MERGE_HTTPS);
+        boolean fixWindows = config.getFeature(ResolverFeature.FIX_WINDOWS_SYSTEM_IDENTIFIERS);
+        boolean lazyUris = config.getFeature(ResolverFeature.LAZY_ENTRY_URIS);
+        return sharedConfigs.computeIfAbsent(Arrays.asList(mergeHttps, fixWindows, lazyUris), key -> {
+            XMLResolverConfiguration shared = new XMLResolverConfiguration(Collections.emptyList(), Collections.emptyList());
+            shared.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+            shared.setFeature(ResolverFeature.MERGE_HTTPS, mergeHttps);
+            shared.setFeature(ResolverFeature.FIX_WINDOWS_SYSTEM_IDENTIFIERS, fixWindows);
+            shared.setFeature(ResolverFeature.LAZY_ENTRY_URIS, lazyUris);
+            return shared;
+        });
     }
 
     /** Set the default "prefer public" status for this catalog.
@@ -108,44 +170,224 @@ public class XmlLoader implements CatalogLoader {
     }
 
     public EntryCatalog loadCatalog(URI catalog) {
-        if (catalogMap.containsKey(catalog)) {
-            return catalogMap.get(catalog);
+        return load(catalogMap, catalogConfig, catalog, () -> {
+            if (watcher != null) {
+                // Start watching before reading, so that a change made while it's read isn't missed
+                watcher.watch(catalog);
+            }
+            if (shareCatalogs) {
+                return loadSharedCatalog(catalog);
+            }
+            return readCatalog(catalog);
+        });
+    }
+
+    /**
+     * Load a catalog from the cache shared by all loaders.
+     *
+     * <p>The catalog is read if no loader has read it before with the same settings. Unlike
+     * {@link #load(ConcurrentHashMap, ResolverConfiguration, URI, Supplier)}, a read that fails
+     * isn't saved, so the next loader that needs the catalog tries again. Catalogs are held softly;
+     * if memory is short, one that no loader is using may be collected, and is read again when
+     * it's next needed.</p>
+     *
+     * @param catalog The catalog URI.
+     * @return The catalog.
+     */
+    private EntryCatalog loadSharedCatalog(URI catalog) {
+        List<Object> key = Arrays.asList(catalog, preferPublic, archivedCatalogs, catalogConfig);
+        CompletableFuture<EntryCatalog> loaded = null;
+        while (loaded == null) {
+            SoftReference<CompletableFuture<EntryCatalog>> ref = sharedCatalogs.get(key);
+            loaded = ref == null ? null : ref.get();
+            if (loaded == null) {
+                // Never read, or collected because memory was short
+                CompletableFuture<EntryCatalog> loading = new CompletableFuture<>();
+                SoftReference<CompletableFuture<EntryCatalog>> loadingRef = new SoftReference<>(loading);
+                boolean claimed = ref == null
+                        ? sharedCatalogs.putIfAbsent(key, loadingRef) == null
+                        : sharedCatalogs.replace(key, ref, loadingRef);
+                if (claimed) {
+                    try {
+                        EntryCatalog entries = readCatalog(catalog);
+                        loading.complete(entries);
+                        return entries;
+                    } catch (RuntimeException | Error ex) {
+                        sharedCatalogs.remove(key, loadingRef);
+                        loading.completeExceptionally(ex);
+                        throw ex;
+                    }
+                }
+            }
         }
-        
-        synchronized (catalogMap) {
-          if (catalogMap.containsKey(catalog)) {
-            return catalogMap.get(catalog);
-          }
-          try {
-              ResourceRequest request = new ResourceRequestImpl(config);
-              request.setURI(catalog);
-              request.setOpenStream(true);
-              ResourceResponse resp = config.getResource(request);
-              try(InputStream is = resp.getInputStream()) {
+
+        try {
+            return loaded.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Discard the catalogs shared by all loaders.
+     * <p>See {@link ResolverFeature#SHARE_CATALOGS}. Loaders that have already loaded a shared
+     * catalog continue to use it; loaders that load it later will read it again.</p>
+     */
+    public static void clearSharedCatalogs() {
+        sharedCatalogs.clear();
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Read a catalog again and replace the one that was loaded before.
+     * <p>If the catalog can't be read, the old one is kept.</p>
+     * @param catalog The catalog URI.
+     */
+    private void reloadCatalog(URI catalog) {
+        // Catalogs found inside the archive must be read again too
+        String archived = "jar:file://" + catalog.getPath() + "!";
+        catalogMap.keySet().removeIf(uri -> uri.toString().startsWith(archived));
+
+        try {
+            EntryCatalog entries = readCatalog(catalog, true);
+            catalogMap.put(catalog, CompletableFuture.completedFuture(entries));
+            generation.incrementAndGet();
+            logger.info("Reloaded catalog: %s", catalog);
+        } catch (RuntimeException ex) {
+            logger.error("Failed to reload catalog, keeping the old one: %s: %s", catalog, ex.getMessage());
+        }
+    }
+
+    /**
+     * Read the specified catalog.
+     *
+     * <p>This method does the work of {@link #loadCatalog(URI)}. It's called at most once for
+     * each catalog; the catalog it returns is saved and returned by subsequent loads.</p>
+     *
+     * @param catalog The catalog URI.
+     * @return The parsed catalog.
+     * @throws CatalogUnavailableException if the catalog could not be read.
+     */
+    protected EntryCatalog readCatalog(URI catalog) {
+        return readCatalog(catalog, false);
+    }
+
+    private EntryCatalog readCatalog(URI catalog, boolean replacing) {
+        try {
+            ResourceRequest request = new ResourceRequestImpl(config);
+            request.setURI(catalog);
+            request.setOpenStream(true);
+            ResourceResponse resp = config.getResource(request);
+            InputStream stream = resp.getInputStream();
+            MessageDigest digest = stream == null || revalidator == null ? null : revalidator.track(catalog);
+            if (digest != null) {
+                stream = new DigestInputStream(stream, digest);
+            }
+            try (InputStream is = stream) {
                 InputSource source = new InputSource(is);
                 source.setSystemId(catalog.toString());
-                EntryCatalog entries = loadCatalog(catalog, source);
+                EntryCatalog entries = parseCatalog(catalog, source, replacing);
+                if (digest != null) {
+                    revalidator.loaded(catalog, resp.getConnection(), digest);
+                }
                 logger.debug("Loaded catalog: %s", catalog);
                 return entries;
-              }
-          } catch (CatalogUnavailableException ex) {
-              if (ex.getCause() instanceof FileNotFoundException) {
-                  logger.debug("Failed to load catalog: %s: %s", catalog, ex.getMessage());
-                  catalogMap.put(catalog, new EntryCatalog(config, catalog, null, false));
-                  return catalogMap.get(catalog);
-              }
-              logger.error("Failed to load catalog: %s: %s", catalog, ex.getMessage());
-              catalogMap.put(catalog, new EntryCatalog(config, catalog, null, false));
-              throw ex;
-          } catch (URISyntaxException | IOException ex) {
-              if (ex.getCause() instanceof FileNotFoundException) {
-                  logger.debug("Failed to load catalog: %s: %s", catalog, ex.getMessage());
-              } else {
-                  logger.error("Failed to load catalog: %s: %s", catalog, ex.getMessage());
-              }
-              catalogMap.put(catalog, new EntryCatalog(config, catalog, null, false));
-              throw new CatalogUnavailableException(ex);
-          }
+            }
+        } catch (CatalogUnavailableException ex) {
+            if (ex.getCause() instanceof FileNotFoundException) {
+                logger.debug("Failed to load catalog: %s: %s", catalog, ex.getMessage());
+                return new EntryCatalog(catalogConfig, catalog, null, false);
+            }
+            logger.error("Failed to load catalog: %s: %s", catalog, ex.getMessage());
+            throw ex;
+        } catch (URISyntaxException | IOException ex) {
+            if (ex.getCause() instanceof FileNotFoundException) {
+                logger.debug("Failed to load catalog: %s: %s", catalog, ex.getMessage());
+            } else {
+                logger.error("Failed to load catalog: %s: %s", catalog, ex.getMessage());
+            }
+            throw new CatalogUnavailableException(ex);
+        }
+    }
+
+    /**
+     * Revalidate the <code>http:</code> and <code>https:</code> catalogs that have expired.
+     * <p>Each expired catalog is requested again, on the executor, with a conditional request.
+     * If the server reports that it hasn't changed, or if the new body is the same as the old one,
+     * the catalog already loaded is kept. Otherwise, the new catalog is parsed and replaces it.
+     * Either way, the catalog expires again after {@link ResolverFeature#REMOTE_CATALOG_TTL} seconds.</p>
+     * @param executor Supplies the executor to run refreshes on.
+     */
+    @Override
+    public void revalidateCatalogs(Supplier<Executor> executor) {
+        if (revalidator != null) {
+            revalidator.revalidate(executor);
+        }
+    }
+
+    private void replaceCatalog(URI catalog, InputSource source) {
+        EntryCatalog entries = parseCatalog(catalog, source, true);
+        catalogMap.put(catalog, CompletableFuture.completedFuture(entries));
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Load a catalog, reading it at most once.
+     *
+     * <p>Each catalog URI maps to a future for its catalog. The first thread to load a catalog
+     * reads it; any other thread that wants the same catalog waits for that read to finish.
+     * Different catalogs are read in parallel. If the read fails, an empty catalog is saved
+     * in its place, so the catalog isn't read again, and the exception is thrown to the
+     * thread that read it. An invalid catalog is the exception: it isn't saved, so every load
+     * reads it again and reports that it's invalid, and the threads waiting for it get the
+     * same {@link CatalogInvalidException}.</p>
+     *
+     * @param catalogMap The map of catalogs.
+     * @param config The configuration.
+     * @param catalog The catalog URI.
+     * @param reader Reads the catalog.
+     * @return The catalog.
+     */
+    static EntryCatalog load(ConcurrentHashMap<URI, CompletableFuture<EntryCatalog>> catalogMap,
+                             ResolverConfiguration config, URI catalog, Supplier<EntryCatalog> reader) {
+        CompletableFuture<EntryCatalog> loaded = catalogMap.get(catalog);
+        if (loaded == null) {
+            CompletableFuture<EntryCatalog> loading = new CompletableFuture<>();
+            loaded = catalogMap.putIfAbsent(catalog, loading);
+            if (loaded == null) {
+                try {
+                    EntryCatalog entries = reader.get();
+                    loading.complete(entries);
+                    return entries;
+                } catch (CatalogInvalidException ex) {
+                    catalogMap.remove(catalog, loading);
+                    loading.completeExceptionally(ex);
+                    throw ex;
+                } catch (RuntimeException | Error ex) {
+                    loading.complete(new EntryCatalog(config, catalog, null, false));
+                    throw ex;
+                }
+            }
+        }
+
+        try {
+            return loaded.join();
+        } catch (CompletionException ex) {
+            // Only an invalid catalog completes exceptionally
+            if (ex.getCause() instanceof CatalogInvalidException) {
+                throw (CatalogInvalidException) ex.getCause();
+            }
+            throw ex;
         }
     }
 
@@ -163,84 +405,177 @@ public class XmlLoader implements CatalogLoader {
      * @return The parsed catalog.
      */
     public EntryCatalog loadCatalog(URI catalog, InputSource source) {
-        if (catalogMap.containsKey(catalog)) {
-            return catalogMap.get(catalog);
-        }
-
         if (!catalog.isAbsolute()) {
             throw new IllegalArgumentException("Catalog URIs must be absolute: " + catalog);
         }
 
-        URI zipcatalog = null;
+        return load(catalogMap, catalogConfig, catalog, () -> parseCatalog(catalog, source, false));
+    }
 
-        synchronized (catalogMap) {
-            CatalogContentHandler handler = new CatalogContentHandler(config, catalog, preferPublic);
-            CatalogErrorHandler errorHandler = new CatalogErrorHandler();
+    /**
+     * Parse a catalog.
+     * @param catalog The catalog URI.
+     * @param source The input source.
+     * @param replacing True if the catalog will replace one that was loaded before.
+     * @return The parsed catalog. If it can't be parsed, and it isn't an archive, an empty catalog is returned.
+     * @throws CatalogUnavailableException if it can't be parsed and it's replacing another catalog.
+     */
+    private EntryCatalog parseCatalog(URI catalog, InputSource source, boolean replacing) {
+        CatalogErrorHandler errorHandler = new CatalogErrorHandler();
 
-            try {
-                if (catalogMap.containsKey(catalog)) {
-                  return catalogMap.get(catalog);
-                }
+        try {
+            return parseDocument(catalog, source, errorHandler);
+        } catch (ParserConfigurationException | SAXException | IOException ex) {
+            URI zipcatalog = null;
+            if (archivedCatalogs) {
+                zipcatalog = archiveCatalog(catalog);
+            }
 
-                Supplier<XMLReader> supplier = config.getFeature(ResolverFeature.XMLREADER_SUPPLIER);
-                if (supplier != null) {
-                    XMLReader reader = supplier.get();
-                    reader.setContentHandler(handler);
-                    reader.setEntityResolver(entityResolver);
-                    errorHandler.forwardsTo = reader.getErrorHandler();
-                    reader.setErrorHandler(errorHandler);
-                    reader.parse(source);
+            // Delay this error message until after we've tried to load the zip; if
+            // loading the zip succeeded, there's no error that needs reporting.
+            if (!archivedCatalogs || zipcatalog == null) {
+                for (SAXParseException exception : errorHandler.warnings) {
+                    logger.warn(exception.getMessage());
+                }
+                for (SAXParseException exception : errorHandler.errors) {
+                    logger.error(exception.getMessage());
+                }
+                for (SAXParseException exception : errorHandler.fatalErrors) {
+                    logger.error(exception.getMessage());
+                }
+                if (ex instanceof FileNotFoundException) {
+                    logger.debug("Failed to load catalog: " + catalog + ": " + ex.getMessage());
                 } else {
-                    // Wat?
-                    SAXParserFactory spf = SAXParserFactory.newInstance();
-                    spf.setNamespaceAware(true);
-                    spf.setValidating(false);
-                    spf.setXIncludeAware(false);
-                    SAXParser parser = spf.newSAXParser();
-                    XMLReader reader = parser.getXMLReader();
-                    reader.setEntityResolver(entityResolver);
-                    errorHandler.forwardsTo = reader.getErrorHandler();
-                    reader.setErrorHandler(errorHandler);
-                    parser.parse(source, handler);
+                    logger.error("Failed to load catalog: " + catalog + ": " + ex.getMessage());
                 }
+            }
 
-                EntryCatalog entry = handler.catalog();
-                catalogMap.put(catalog, entry);
-            } catch (ParserConfigurationException | SAXException | IOException ex) {
-                if (archivedCatalogs) {
-                    zipcatalog = archiveCatalog(catalog);
+            if (zipcatalog == null) {
+                if (replacing) {
+                    // Don't replace a catalog with an empty one just because the new one is broken
+                    throw new CatalogUnavailableException(ex);
                 }
+                return new EntryCatalog(catalogConfig, catalog, null, false);
+            }
 
-                // Delay this error message until after we've tried to load the zip; if
-                // loading the zip succeeded, there's no error that needs reporting.
-                if (!archivedCatalogs || zipcatalog == null) {
-                    for (SAXParseException exception : errorHandler.warnings) {
-                        logger.warn(exception.getMessage());
-                    }
-                    for (SAXParseException exception : errorHandler.errors) {
-                        logger.error(exception.getMessage());
-                    }
-                    for (SAXParseException exception : errorHandler.fatalErrors) {
-                        logger.error(exception.getMessage());
-                    }
-                    if (ex instanceof FileNotFoundException) {
-                        logger.debug("Failed to load catalog: " + catalog + ": " + ex.getMessage());
-                    } else {
-                        logger.error("Failed to load catalog: " + catalog + ": " + ex.getMessage());
-                    }
-                }
+            // Use the entries from the zip URL for the plain URL too
+            return loadCatalog(zipcatalog);
+        }
+    }
 
-                if (zipcatalog == null) {
-                  catalogMap.put(catalog, new EntryCatalog(config, catalog, null, false));
+    /**
+     * Parse a catalog document.
+     *
+     * <p>This method does the parsing for {@link #loadCatalog(URI)} and {@link #loadCatalog(URI, InputSource)}.
+     * Errors must be reported to the error handler as well as thrown; the loader logs them, unless it finds
+     * an archived catalog instead. Subclasses may override this method to parse catalogs some other way.</p>
+     *
+     * @param catalog The catalog URI.
+     * @param source The input source.
+     * @param errorHandler The error handler.
+     * @return The parsed catalog.
+     * @throws ParserConfigurationException if a parser can't be created.
+     * @throws SAXException if the catalog isn't well-formed.
+     * @throws IOException if the catalog can't be read.
+     */
+    protected EntryCatalog parseDocument(URI catalog, InputSource source, ErrorHandler errorHandler)
+            throws ParserConfigurationException, SAXException, IOException {
+        CatalogContentHandler handler = new CatalogContentHandler(catalogConfig, catalog, preferPublic);
+        CatalogErrorHandler forwarding = errorHandler instanceof CatalogErrorHandler ? (CatalogErrorHandler) errorHandler : null;
+
+        Supplier<XMLReader> supplier = config.getFeature(ResolverFeature.XMLREADER_SUPPLIER);
+        if (supplier != null && supplier != ResolverFeature.XMLREADER_SUPPLIER.getDefaultValue()) {
+            XMLReader reader = supplier.get();
+            reader.setContentHandler(handler);
+            reader.setEntityResolver(entityResolver);
+            if (forwarding != null) {
+                forwarding.forwardsTo = reader.getErrorHandler();
+            }
+            reader.setErrorHandler(errorHandler);
+            reader.parse(source);
+        } else {
+            // The default supplier would find and configure a new factory for every catalog
+            SaxParserPool pool = SaxParserPool.getDefault();
+            SAXParser parser = pool.acquire();
+            try {
+                XMLReader reader = parser.getXMLReader();
+                reader.setContentHandler(handler);
+                reader.setEntityResolver(entityResolver);
+                if (forwarding != null) {
+                    forwarding.forwardsTo = reader.getErrorHandler();
                 }
+                reader.setErrorHandler(errorHandler);
+                reader.parse(source);
+            } finally {
+                pool.release(parser);
             }
-            if (zipcatalog != null) {
-              EntryCatalog entries = loadCatalog(zipcatalog);
-              //Now put the entries from the zip URL to the entries for the plain URL
-              catalogMap.put(catalog, entries);
+        }
+
+        return handler.catalog();
+    }
+
+    /**
+     * Parse a catalog, passing the SAX events through another handler as well.
+     *
+     * <p>The validating loader uses this to validate a catalog in the same pass that builds it.
+     * Unlike loading, parsing doesn't save the catalog, report errors, or look for an archived
+     * catalog; errors are reported to the error handler and thrown.</p>
+     *
+     * @param catalog The catalog URI.
+     * @param source The input source.
+     * @param fork Returns the content handler for the parse, given the one that builds the catalog.
+     * @param errorHandler The error handler.
+     * @return The parsed catalog.
+     * @throws ParserConfigurationException if a parser can't be created.
+     * @throws SAXException if the catalog isn't well-formed, or a handler throws one.
+     * @throws IOException if the catalog can't be read.
+     */
+    EntryCatalog parseCatalog(URI catalog, InputSource source, UnaryOperator<ContentHandler> fork,
+                              ErrorHandler errorHandler) throws ParserConfigurationException, SAXException, IOException {
+        CatalogContentHandler handler = new CatalogContentHandler(catalogConfig, catalog, preferPublic);
+        Supplier<XMLReader> supplier = config.getFeature(ResolverFeature.XMLREADER_SUPPLIER);
+        SaxParserPool pool = null;
+        SAXParser parser = null;
+        XMLReader reader;
+        if (supplier != null && supplier != ResolverFeature.XMLREADER_SUPPLIER.getDefaultValue()) {
+            reader = supplier.get();
+        } else {
+            pool = SaxParserPool.getDefault();
+            parser = pool.acquire();
+            reader = parser.getXMLReader();
+        }
+        try {
+            reader.setContentHandler(fork.apply(handler));
+            reader.setEntityResolver(entityResolver);
+            reader.setErrorHandler(errorHandler);
+            reader.parse(source);
+        } finally {
+            if (pool != null) {
+                pool.release(parser);
             }
         }
-        return catalogMap.get(catalog);
+        return handler.catalog();
+    }
+
+    /**
+     * Parse a catalog from a producer, passing the SAX events through another handler as well.
+     *
+     * <p>See {@link #parseCatalog(URI, InputSource, UnaryOperator, ErrorHandler)}.</p>
+     *
+     * @param catalog The catalog URI.
+     * @param producer The producer.
+     * @param fork Returns the content handler for the parse, given the one that builds the catalog.
+     * @param dtdHandler The DTD handler, or null.
+     * @param errorHandler The error handler.
+     * @return The parsed catalog.
+     * @throws SAXException if the producer or a handler throws one.
+     * @throws IOException if the producer can't read the catalog.
+     */
+    EntryCatalog parseCatalog(URI catalog, SaxProducer producer, UnaryOperator<ContentHandler> fork,
+                              DTDHandler dtdHandler, ErrorHandler errorHandler) throws SAXException, IOException {
+        CatalogContentHandler handler = new CatalogContentHandler(catalogConfig, catalog, preferPublic);
+        producer.produce(fork.apply(handler), dtdHandler, errorHandler);
+        return handler.catalog();
     }
 
     /**
@@ -275,27 +610,15 @@ public class XmlLoader implements CatalogLoader {
      * @return The parsed catalog.
      */
     public EntryCatalog loadCatalog(URI catalog, SaxProducer producer) {
-        if (catalogMap.containsKey(catalog)) {
-            return catalogMap.get(catalog);
-        }
-
         if (!catalog.isAbsolute()) {
             throw new IllegalArgumentException("Catalog URIs must be absolute: " + catalog);
         }
 
-        URI zipcatalog = null;
-
-        synchronized (catalogMap) {
-            if (catalogMap.containsKey(catalog)) {
-              return catalogMap.get(catalog);
-            }
+        return load(catalogMap, catalogConfig, catalog, () -> {
             try {
-                CatalogContentHandler handler = new CatalogContentHandler(config, catalog, preferPublic);
-
+                CatalogContentHandler handler = new CatalogContentHandler(catalogConfig, catalog, preferPublic);
                 producer.produce(handler, null, null);
-
-                EntryCatalog entry = handler.catalog();
-                catalogMap.put(catalog, entry);
+                return handler.catalog();
             } catch (SAXException | IOException ex) {
                 if (ex instanceof FileNotFoundException) {
                     logger.debug("Failed to load catalog: " + catalog + ": " + ex.getMessage());
@@ -303,21 +626,19 @@ public class XmlLoader implements CatalogLoader {
                     logger.error("Failed to load catalog: " + catalog + ": " + ex.getMessage());
                 }
 
+                URI zipcatalog = null;
                 if (archivedCatalogs) {
                     zipcatalog = archiveCatalog(catalog);
                 }
 
                 if (zipcatalog == null) {
-                  catalogMap.put(catalog, new EntryCatalog(config, catalog, null, false));
+                    return new EntryCatalog(catalogConfig, catalog, null, false);
                 }
+
+                // Use the entries from the zip URL for the plain URL too
+                return loadCatalog(zipcatalog);
             }
-            if (zipcatalog != null) {
-                EntryCatalog entries = loadCatalog(zipcatalog);
-                //Now put the entries from the zip URL to the entries for the plain URL
-                catalogMap.put(catalog, entries);
-            } 
-        }
-        return catalogMap.get(catalog);
+        });
     }
 
     private URI archiveCatalog(URI catalog) {
@@ -346,56 +667,54 @@ public class XmlLoader implements CatalogLoader {
         String leadingDir = null;
 
         try {
-            URLConnection conn = catalog.toURL().openConnection();
-            try(InputStream is = conn.getInputStream();  ZipInputStream zip = new ZipInputStream(is);) {
-              ZipEntry entry = zip.getNextEntry();
-              while (entry != null) {
-                  if (firstEntry) {
-                      int pos = entry.getName().indexOf("/");
-                      if (pos >= 0) {
-                          leadingDir = entry.getName().substring(0, pos);
-                      }
-                      firstEntry = false;
-                  } else {
-                      if (leadingDir != null) {
-                          int pos = entry.getName().indexOf("/");
-                          if (pos < 0  || !leadingDir.equals(entry.getName().substring(0, pos))) {
-                              leadingDir = null;
-                          }
-                      }
-                  }
-  
-                  if (!entry.isDirectory() && entry.getName().endsWith("catalog.xml")) {
-                      catalogSet.add(entry.getName());
-                  }
-  
-                  entry = zip.getNextEntry();
-              }
-              zip.close();
-  
-              String catpath = null;
-              if (leadingDir != null) {
-                  if (catalogSet.contains(leadingDir + "/catalog.xml")) {
-                      catpath = "/" + leadingDir + "/catalog.xml";
-                  }
-                  if (catalogSet.contains(leadingDir + "/org/xmlresolver/catalog.xml")) {
-                      catpath = "/" + leadingDir + "/org/xmlresolver/catalog.xml";
-                  }
-              } else {
-                  if (catalogSet.contains("catalog.xml")) {
-                      catpath = "/catalog.xml";
-                  }
-                  if (catalogSet.contains("org/xmlresolver/catalog.xml")) {
-                      catpath = "/org/xmlresolver/catalog.xml";
-                  }
-              }
-  
-              if (catpath != null) {
-                  return new URI("jar:file://" +  catalog.getPath() + "!" + catpath);
-              }
+            // Only the central directory is read; the archive stays open for reading the catalogs in it
+            ZipArchive zip = ZipArchive.open(new File(catalog));
+            for (String name : zip.getNames()) {
+                if (firstEntry) {
+                    int pos = name.indexOf("/");
+                    if (pos >= 0) {
+                        leadingDir = name.substring(0, pos);
+                    }
+                    firstEntry = false;
+                } else {
+                    if (leadingDir != null) {
+                        int pos = name.indexOf("/");
+                        if (pos < 0  || !leadingDir.equals(name.substring(0, pos))) {
+                            leadingDir = null;
+                        }
+                    }
+                }
+
+                if (!name.endsWith("/") && name.endsWith("catalog.xml")) {
+                    catalogSet.add(name);
+                }
             }
+
+            String catpath = null;
+            if (leadingDir != null) {
+                if (catalogSet.contains(leadingDir + "/catalog.xml")) {
+                    catpath = "/" + leadingDir + "/catalog.xml";
+                }
+                if (catalogSet.contains(leadingDir + "/org/xmlresolver/catalog.xml")) {
+                    catpath = "/" + leadingDir + "/org/xmlresolver/catalog.xml";
+                }
+            } else {
+                if (catalogSet.contains("catalog.xml")) {
+                    catpath = "/catalog.xml";
+                }
+                if (catalogSet.contains("org/xmlresolver/catalog.xml")) {
+                    catpath = "/org/xmlresolver/catalog.xml";
+                }
+            }
+
+            if (catpath != null) {
+                return new URI("jar:file://" +  catalog.getPath() + "!" + catpath);
+            }
+            logger.error("Failed to find catalog in archived catalog: " + catalog);
+        } catch (ZipException ex) {
+            // It isn't an archive
             logger.error("Failed to find catalog in archived catalog: " + catalog);
-        } catch (IOException|URISyntaxException ex) {
+        } catch (IOException | URISyntaxException | IllegalArgumentException ex) {
             if (ex instanceof FileNotFoundException) {
                 logger.debug("Failed to load archived catalog: " + catalog + ": " + ex.getMessage());
             } else {
@@ -469,6 +788,14 @@ public class XmlLoader implements CatalogLoader {
             return catalog;
         }
 
+        @Override
+        public void endDocument() {
+            // The catalog is complete; it won't change again
+            if (catalog != null) {
+                catalog.freeze();
+            }
+        }
+
         @Override
         public void setDocumentLocator (Locator locator) {
             this.locator = locator;
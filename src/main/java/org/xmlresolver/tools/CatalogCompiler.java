@@ -0,0 +1,119 @@
+package org.xmlresolver.tools;
+
+import org.xmlresolver.CatalogManager;
+import org.xmlresolver.ResolverConfiguration;
+import org.xmlresolver.ResolverFeature;
+import org.xmlresolver.XMLResolverConfiguration;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.loaders.CatalogSnapshot;
+import org.xmlresolver.loaders.SnapshotLoader;
+import org.xmlresolver.utils.URIUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Compile a catalog, and all of the catalogs it refers to, into a snapshot.
+ *
+ * <p>The compiler loads a root catalog and, transitively, every catalog that it refers to with
+ * <code>nextCatalog</code> or <code>delegate*</code> entries. It writes all of them to a
+ * single {@link CatalogSnapshot}. By default, the snapshot is written next to the root catalog,
+ * where the {@link SnapshotLoader} will find it. Catalogs that aren't files, for example ones
+ * in a jar, can be compiled too, but the snapshot must be written somewhere else.</p>
+ *
+ * <p>From the command line:</p>
+ *
+ * <pre>java org.xmlresolver.tools.CatalogCompiler [-o snapshot] catalog.xml</pre>
+ *
+ * <p>URIs in the snapshot's directory tree are stored relative to it, so a snapshot compiled next
+ * to the root catalog can be packaged with the catalogs, for example in a jar, and read from there.</p>
+ *
+ * <p>The catalogs are loaded with the default configuration, so system properties such as
+ * <code>xml.catalog.prefer</code> apply. They must match the configuration that the snapshot
+ * will be read with, or the loader will parse the catalogs instead.</p>
+ */
+public class CatalogCompiler {
+    private final ResolverConfiguration config;
+
+    /**
+     * Create a compiler.
+     * @param config The configuration to load catalogs with.
+     */
+    public CatalogCompiler(ResolverConfiguration config) {
+        this.config = config;
+    }
+
+    /**
+     * Compile a catalog.
+     * @param catalog The root catalog.
+     * @param snapshot The snapshot file.
+     * @return The catalogs written to the snapshot.
+     * @throws IOException if the snapshot can't be written.
+     */
+    public List<URI> compile(URI catalog, Path snapshot) throws IOException {
+        ResolverConfiguration rootConfig = config.copy();
+        rootConfig.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList(catalog.toString()));
+        rootConfig.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        CatalogManager manager = rootConfig.getFeature(ResolverFeature.CATALOG_MANAGER);
+
+        LinkedHashMap<URI, EntryCatalog> catalogs = new LinkedHashMap<>();
+        for (URI loaded : manager.loadCatalogGraph().join().keySet()) {
+            catalogs.put(loaded, manager.loadCatalog(loaded));
+        }
+
+        return CatalogSnapshot.write(rootConfig, manager.getCatalogLoader().getPreferPublic(), catalogs, snapshot);
+    }
+
+    /**
+     * Compile a catalog from the command line.
+     * @param args The arguments: an optional <code>-o</code> and snapshot file name, followed by the root catalog.
+     */
+    public static void main(String[] args) {
+        String output = null;
+        String input = null;
+        for (int pos = 0; pos < args.length; pos++) {
+            if ("-o".equals(args[pos]) && pos + 1 < args.length) {
+                pos++;
+                output = args[pos];
+            } else if (input == null && !args[pos].startsWith("-")) {
+                input = args[pos];
+            } else {
+                usage();
+            }
+        }
+        if (input == null) {
+            usage();
+        }
+
+        URI catalog = URIUtils.resolve(URIUtils.cwd(), input);
+        if (output == null) {
+            if (!"file".equals(catalog.getScheme())) {
+                System.err.println("Specify the snapshot with -o for a catalog that isn't a file: " + catalog);
+                System.exit(1);
+            }
+            output = Paths.get(catalog).toString() + SnapshotLoader.SNAPSHOT_EXTENSION;
+        }
+
+        try {
+            CatalogCompiler compiler = new CatalogCompiler(new XMLResolverConfiguration());
+            List<URI> compiled = compiler.compile(catalog, Paths.get(output));
+            for (URI uri : compiled) {
+                System.out.println("Compiled " + uri);
+            }
+            System.out.println("Wrote " + compiled.size() + " catalog(s) to " + output);
+        } catch (IOException ex) {
+            System.err.println("Failed to write snapshot: " + output + ": " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: CatalogCompiler [-o snapshot] catalog.xml");
+        System.exit(1);
+    }
+}
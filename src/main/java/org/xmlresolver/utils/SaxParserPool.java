@@ -0,0 +1,100 @@
+package org.xmlresolver.utils;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A small pool of reusable SAX parsers.
+ *
+ * <p>Finding a {@link SAXParserFactory} with <code>SAXParserFactory.newInstance()</code> goes through the
+ * service loader, and creating a parser isn't free either. The pool creates its factory once, and keeps
+ * a bounded number of idle parsers. Parsers are namespace aware, not validating, and not XInclude aware.
+ * A parser is reset when it's returned, so the next user gets it in its initial state; if there are
+ * already enough idle parsers, or if it can't be reset, it's discarded.</p>
+ *
+ * <p>Parsers must only be used by one thread at a time: acquire a parser, use it, and release it
+ * (in a <code>finally</code> block) when you're done.</p>
+ */
+public class SaxParserPool {
+    private static SaxParserPool defaultPool = null;
+
+    private final SAXParserFactory factory;
+    private final ArrayBlockingQueue<SAXParser> idle;
+
+    /**
+     * Create a pool.
+     * @param factory The factory used to create parsers. It's configured by the pool.
+     * @param size The maximum number of idle parsers.
+     * @throws IllegalArgumentException if the size is less than one.
+     */
+    public SaxParserPool(SAXParserFactory factory, int size) {
+        this.factory = factory;
+        factory.setNamespaceAware(true);
+        factory.setValidating(false);
+        factory.setXIncludeAware(false);
+        idle = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * The pool shared by the resolver.
+     * <p>It uses the default factory, and keeps up to one idle parser per processor.</p>
+     * @return The pool.
+     */
+    public static synchronized SaxParserPool getDefault() {
+        if (defaultPool == null) {
+            defaultPool = new SaxParserPool(SAXParserFactory.newInstance(), Runtime.getRuntime().availableProcessors());
+        }
+        return defaultPool;
+    }
+
+    /**
+     * Get a parser.
+     * @return An idle parser, or a new one if there isn't one.
+     * @throws ParserConfigurationException if a parser can't be created.
+     * @throws SAXException if a parser can't be created.
+     */
+    public SAXParser acquire() throws ParserConfigurationException, SAXException {
+        SAXParser parser = idle.poll();
+        if (parser != null) {
+            return parser;
+        }
+        // Factories aren't guaranteed to be thread safe
+        synchronized (factory) {
+            return factory.newSAXParser();
+        }
+    }
+
+    /**
+     * Return a parser to the pool.
+     * <p>The parser must not be used after it has been released.</p>
+     * @param parser The parser, as returned by {@link #acquire()}.
+     */
+    public void release(SAXParser parser) {
+        try {
+            parser.reset();
+            // Don't keep the last user's handlers (and everything they refer to) alive
+            XMLReader reader = parser.getXMLReader();
+            reader.setContentHandler(null);
+            reader.setDTDHandler(null);
+            reader.setEntityResolver(null);
+            reader.setErrorHandler(null);
+        } catch (UnsupportedOperationException | NullPointerException | SAXException ex) {
+            // This parser can't be reused
+            return;
+        }
+        idle.offer(parser);
+    }
+
+    /**
+     * The number of idle parsers.
+     * @return The number of parsers waiting in the pool.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+}
@@ -143,6 +143,30 @@ public abstract class URIUtils {
         }
     }
 
+    /**
+     * Normalize a URI for comparison.
+     * <p>URIs with the {@code classpath:} scheme are returned without a leading slash and, if
+     * <code>mergeHttps</code> is true, {@code http:} URIs are returned as {@code https:}.</p>
+     * @param uri The URI, may be null.
+     * @param mergeHttps Are {@code http:} and {@code https:} URIs considered the same?
+     * @return The URI normalized for comparison.
+     */
+    public static String normalizedForComparison(String uri, boolean mergeHttps) {
+        if (uri == null) {
+            return null;
+        }
+
+        if (uri.startsWith("classpath:/")) {
+            return "classpath:" + uri.substring(11);
+        }
+
+        if (mergeHttps && uri.startsWith("http:")) {
+            return "https:" + uri.substring(5);
+        }
+
+        return uri;
+    }
+
     /**
      * Resolve a URI against a base URI.
      *
@@ -0,0 +1,260 @@
+package org.xmlresolver.utils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * An open ZIP archive.
+ *
+ * <p>Archives are opened with {@link ZipFile}, which reads the central directory at the end of the
+ * archive instead of inflating every entry. Each archive is opened once and shared: the index of its
+ * entries is built when it's opened, and the open file is used for every entry read from it later.
+ * If the file changes on disk (its size or modification time is different), it's opened again.</p>
+ *
+ * <p>At most {@link #MAX_OPEN_ARCHIVES} archives are kept open; when there are more, the least
+ * recently used one is retired. An archive that has been changed on disk is retired too, as are all of
+ * the archives when {@link #clear()} is called. A retired archive is closed as soon as no streams
+ * read from it are open. If it's used again after that, by a caller that opened it before it was
+ * retired, it's reopened for as long as that use lasts.</p>
+ */
+public class ZipArchive {
+    /** The maximum number of archives kept open. */
+    public static final int MAX_OPEN_ARCHIVES = 32;
+
+    // Access order, so that the eldest entry is the least recently used archive
+    private static final LinkedHashMap<File, ZipArchive> archives = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final File file;
+    private final long modified;
+    private final long length;
+    private final List<String> names;
+    private ZipFile zip;
+    private int streams = 0;
+    private boolean retired = false;
+
+    private ZipArchive(File file, long modified, long length) throws IOException {
+        this.file = file;
+        zip = new ZipFile(file);
+        this.modified = modified;
+        this.length = length;
+
+        ArrayList<String> entries = new ArrayList<>();
+        Enumeration<? extends ZipEntry> enumeration = zip.entries();
+        while (enumeration.hasMoreElements()) {
+            entries.add(enumeration.nextElement().getName());
+        }
+        names = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Open an archive.
+     * @param file The archive file.
+     * @return The archive. If it has already been opened, and it hasn't changed, the same archive is returned.
+     * @throws IOException if the file doesn't exist or isn't a ZIP archive.
+     */
+    public static ZipArchive open(File file) throws IOException {
+        File key = file.getAbsoluteFile();
+        long modified = key.lastModified();
+        long length = key.length();
+        if (modified == 0 && !key.exists()) {
+            synchronized (archives) {
+                ZipArchive removed = archives.remove(key);
+                if (removed != null) {
+                    removed.retire();
+                }
+            }
+            throw new FileNotFoundException(file.toString());
+        }
+
+        synchronized (archives) {
+            ZipArchive archive = archives.get(key);
+            if (archive != null && archive.modified == modified && archive.length == length) {
+                return archive;
+            }
+        }
+
+        // If two threads open a changed archive at the same time, both open it; that's harmless
+        ZipArchive archive = new ZipArchive(key, modified, length);
+        synchronized (archives) {
+            ZipArchive replaced = archives.put(key, archive);
+            if (replaced != null) {
+                replaced.retire();
+            }
+            Iterator<ZipArchive> iter = archives.values().iterator();
+            while (archives.size() > MAX_OPEN_ARCHIVES && iter.hasNext()) {
+                iter.next().retire();
+                iter.remove();
+            }
+        }
+        return archive;
+    }
+
+    /**
+     * Forget all of the archives that have been opened.
+     * <p>Each archive is closed as soon as no streams read from it are open. Archives opened
+     * after this are read again.</p>
+     */
+    public static void clear() {
+        synchronized (archives) {
+            for (ZipArchive archive : archives.values()) {
+                archive.retire();
+            }
+            archives.clear();
+        }
+    }
+
+    /**
+     * Open the archive identified by a <code>jar:file:</code> URI.
+     * @param uri The URI, for example <code>jar:file:/path/to/archive.zip!/catalog.xml</code>.
+     * @return The archive, or null if the URI isn't a <code>jar:</code> URI for a file, or has
+     * percent-encoded characters in the entry name.
+     * @throws IOException if the file doesn't exist or isn't a ZIP archive.
+     */
+    public static ZipArchive open(URI uri) throws IOException {
+        String entry = entryName(uri);
+        if (entry == null) {
+            return null;
+        }
+        String spec = uri.getRawSchemeSpecificPart();
+        File file;
+        try {
+            file = new File(URI.create(spec.substring(0, spec.indexOf("!/"))));
+        } catch (IllegalArgumentException ex) {
+            // For example, a file: URI with an authority
+            return null;
+        }
+        return open(file);
+    }
+
+    /**
+     * The name of the entry identified by a <code>jar:file:</code> URI.
+     * @param uri The URI.
+     * @return The entry name, or null if the URI isn't a <code>jar:</code> URI for a file, or has
+     * percent-encoded characters in the entry name.
+     */
+    public static String entryName(URI uri) {
+        if (!"jar".equals(uri.getScheme())) {
+            return null;
+        }
+        String spec = uri.getRawSchemeSpecificPart();
+        int pos = spec.indexOf("!/");
+        if (pos < 0 || !spec.startsWith("file:") || spec.indexOf('%', pos) >= 0) {
+            // Leave anything unusual to JarURLConnection
+            return null;
+        }
+        return spec.substring(pos + 2);
+    }
+
+    /**
+     * The names of the entries in the archive, in the order of its central directory.
+     * @return The names.
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Does the archive contain an entry?
+     * @param name The entry name.
+     * @return True if it does.
+     */
+    public synchronized boolean contains(String name) {
+        try {
+            return zip().getEntry(name) != null;
+        } catch (IOException ex) {
+            return false;
+        } finally {
+            closeIfUnused();
+        }
+    }
+
+    /**
+     * Read an entry.
+     * <p>The archive isn't closed while the stream is open, so the stream must be closed.</p>
+     * @param name The entry name.
+     * @return A stream to read the entry.
+     * @throws FileNotFoundException if there's no such entry.
+     * @throws IOException if the entry can't be read.
+     */
+    public synchronized InputStream getInputStream(String name) throws IOException {
+        try {
+            ZipEntry entry = zip().getEntry(name);
+            if (entry == null || entry.isDirectory()) {
+                throw new FileNotFoundException(name + " not found in " + zip.getName());
+            }
+            InputStream stream = new EntryInputStream(zip.getInputStream(entry));
+            streams++;
+            return stream;
+        } finally {
+            closeIfUnused();
+        }
+    }
+
+    /**
+     * Is the archive file open?
+     * @return False if the archive has been retired and closed.
+     */
+    public synchronized boolean isOpen() {
+        return zip != null;
+    }
+
+    private ZipFile zip() throws IOException {
+        if (zip == null) {
+            zip = new ZipFile(file);
+        }
+        return zip;
+    }
+
+    private synchronized void retire() {
+        retired = true;
+        closeIfUnused();
+    }
+
+    private synchronized void closed() {
+        streams--;
+        closeIfUnused();
+    }
+
+    private void closeIfUnused() {
+        if (retired && streams == 0 && zip != null) {
+            try {
+                zip.close();
+            } catch (IOException ex) {
+                // It's no use to anyone now
+            }
+            zip = null;
+        }
+    }
+
+    private class EntryInputStream extends FilterInputStream {
+        private boolean closed = false;
+
+        private EntryInputStream(InputStream stream) {
+            super(stream);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    closed();
+                }
+            }
+        }
+    }
+}
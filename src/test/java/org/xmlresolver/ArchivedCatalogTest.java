@@ -5,9 +5,17 @@ import org.junit.jupiter.api.Test;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xmlresolver.sources.ResolverInputSource;
+import org.xmlresolver.utils.ZipArchive;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
+import java.util.zip.ZipFile;
 
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -104,5 +112,64 @@ public class ArchivedCatalogTest {
             fail();
         }
     }
-}
 
+    @Test
+    public void archiveOpenedOnce() throws IOException {
+        Path copy = Files.createTempFile("archive", ".zip");
+        try {
+            Files.copy(Paths.get(catalog1), copy, StandardCopyOption.REPLACE_EXISTING);
+            ZipArchive archive = ZipArchive.open(copy.toFile());
+            Assertions.assertTrue(archive.contains("catalog.xml"));
+            Assertions.assertSame(archive, ZipArchive.open(copy.toFile()));
+            Assertions.assertSame(archive, ZipArchive.open(URI.create("jar:" + copy.toUri() + "!/catalog.xml")));
+
+            Files.copy(Paths.get(catalog3), copy, StandardCopyOption.REPLACE_EXISTING);
+            ZipArchive changed = ZipArchive.open(copy.toFile());
+            Assertions.assertNotSame(archive, changed);
+            try (ZipFile zip = new ZipFile(catalog3)) {
+                Assertions.assertEquals(zip.size(), changed.getNames().size());
+            }
+        } finally {
+            Files.delete(copy);
+        }
+    }
+
+    @Test
+    public void replacedArchiveClosed() throws IOException {
+        Path copy = Files.createTempFile("archive", ".zip");
+        try {
+            Files.copy(Paths.get(catalog1), copy, StandardCopyOption.REPLACE_EXISTING);
+            ZipArchive archive = ZipArchive.open(copy.toFile());
+            InputStream stream = archive.getInputStream("catalog.xml");
+
+            Files.copy(Paths.get(catalog3), copy, StandardCopyOption.REPLACE_EXISTING);
+            Assertions.assertNotSame(archive, ZipArchive.open(copy.toFile()));
+            // Still in use
+            Assertions.assertTrue(archive.isOpen());
+            Assertions.assertTrue(stream.read() >= 0);
+            stream.close();
+            Assertions.assertFalse(archive.isOpen());
+
+            // Reopened for a caller that still has it
+            Assertions.assertTrue(archive.contains("org/xmlresolver/catalog.xml"));
+            Assertions.assertFalse(archive.isOpen());
+        } finally {
+            Files.delete(copy);
+        }
+    }
+
+    @Test
+    public void clearArchives() throws IOException {
+        Path copy = Files.createTempFile("archive", ".zip");
+        try {
+            Files.copy(Paths.get(catalog1), copy, StandardCopyOption.REPLACE_EXISTING);
+            ZipArchive archive = ZipArchive.open(copy.toFile());
+            ZipArchive.clear();
+            Assertions.assertFalse(archive.isOpen());
+            Assertions.assertNotSame(archive, ZipArchive.open(copy.toFile()));
+        } finally {
+            ZipArchive.clear();
+            Files.delete(copy);
+        }
+    }
+}
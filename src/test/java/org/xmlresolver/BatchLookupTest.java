@@ -0,0 +1,95 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BatchLookupTest {
+    private XMLResolverConfiguration config = null;
+    private CatalogManager manager = null;
+    private XMLResolver resolver = null;
+
+    @BeforeEach
+    public void setup() {
+        config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES,
+                Arrays.asList("src/test/resources/cm/nextroot.xml", "src/test/resources/cm/indexed.xml"));
+        manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        resolver = new XMLResolver(config);
+    }
+
+    private ResourceRequest entity(XMLResolver resolver, String systemId, String publicId) {
+        ResourceRequest request = resolver.getRequest(systemId, ResolverConstants.EXTERNAL_ENTITY_NATURE, ResolverConstants.ANY_PURPOSE);
+        request.setPublicId(publicId);
+        return request;
+    }
+
+    @Test
+    public void lookupEntities() {
+        List<ResourceRequest> requests = new ArrayList<>();
+        requests.add(entity(resolver, "http://example.com/delegated/three/system.dtd", null));
+        requests.add(entity(resolver, "http://example.com/system.dtd", null));
+        requests.add(entity(resolver, "http://example.com/delegated/one/system.dtd", null));
+        requests.add(entity(resolver, "http://example.com/missing.dtd", null));
+        requests.add(entity(resolver, null, "-//EXAMPLE//DTD Example//EN"));
+        requests.add(entity(resolver, "http://example.com/delegated/two/system.dtd", null));
+
+        List<URI> found = manager.lookupEntities(requests);
+        Assertions.assertEquals(requests.size(), found.size());
+        Assertions.assertEquals(URI.create("file:/tmp/three-from-two.dtd"), found.get(0));
+        Assertions.assertEquals(URI.create("file:/tmp/system.dtd"), found.get(1));
+        Assertions.assertNull(found.get(3));
+        for (int pos = 0; pos < requests.size(); pos++) {
+            ResourceRequest request = requests.get(pos);
+            Assertions.assertEquals(manager.lookupEntity(null, request.getSystemId(), request.getPublicId()), found.get(pos));
+        }
+    }
+
+    @Test
+    public void lookupURIs() {
+        List<ResourceRequest> requests = new ArrayList<>();
+        for (String uri : Arrays.asList("http://example.com/rewrite/long/doc.xml", "http://example.com/doc.xml",
+                "http://example.com/missing.xml", "http://example.com/long/tail.xml", "http://example.com/doc.xml")) {
+            requests.add(resolver.getRequest(uri));
+        }
+
+        List<URI> found = manager.lookupURIs(requests);
+        Assertions.assertEquals(URI.create("file:///tmp/long/doc.xml"), found.get(0));
+        Assertions.assertEquals(URI.create("file:///tmp/first.xml"), found.get(1));
+        Assertions.assertNull(found.get(2));
+        Assertions.assertEquals(URI.create("file:///tmp/suffix/long.xml"), found.get(3));
+        Assertions.assertEquals(found.get(1), found.get(4));
+    }
+
+    @Test
+    public void resolverBatchMatchesSingleLookups() {
+        config.setFeature(ResolverFeature.LOOKUP_CACHE_SIZE, 16);
+
+        List<ResourceRequest> requests = new ArrayList<>();
+        requests.add(resolver.getRequest("doc.xml", "http://example.com/"));
+        requests.add(resolver.getRequest("http://example.com/later.xml"));
+        requests.add(resolver.getRequest("missing.xml", "http://example.com/"));
+        requests.add(entity(resolver, "http://example.com/delegated/one/test/system.dtd", null));
+        requests.add(resolver.getRequest("http://example.com/system.dtd"));
+        ResourceRequest relative = entity(resolver, "system.dtd", null);
+        relative.setBaseURI("http://example.com/delegated/two/");
+        requests.add(relative);
+
+        List<ResourceResponse> responses = resolver.lookup(requests);
+        Assertions.assertEquals(requests.size(), responses.size());
+        Assertions.assertEquals(URI.create("file:///tmp/first.xml"), responses.get(0).getResolvedURI());
+        Assertions.assertEquals(URI.create("file:/tmp/delegated-to-two.dtd"), responses.get(5).getResolvedURI());
+        for (int pos = 0; pos < requests.size(); pos++) {
+            ResourceResponse single = resolver.lookup(requests.get(pos));
+            Assertions.assertSame(requests.get(pos), responses.get(pos).getRequest());
+            Assertions.assertEquals(single.isResolved(), responses.get(pos).isResolved());
+            Assertions.assertEquals(single.getResolvedURI(), responses.get(pos).getResolvedURI());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.catalog.entry.Entry;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.catalog.entry.EntryDelegateUri;
+import org.xmlresolver.catalog.entry.EntrySystemSuffix;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+public class CMIndexTest {
+    private final URI baseURI = URI.create("file:///tmp/");
+
+    private CatalogManager manager(boolean mergeHttps) {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/indexed.xml"));
+        config.setFeature(ResolverFeature.MERGE_HTTPS, mergeHttps);
+        return new CatalogManager(config);
+    }
+
+    @Test
+    public void firstUriWins() {
+        Assertions.assertEquals(baseURI.resolve("first.xml"), manager(false).lookupURI("http://example.com/doc.xml"));
+    }
+
+    @Test
+    public void laterGroupUri() {
+        Assertions.assertEquals(baseURI.resolve("later/later.xml"), manager(false).lookupURI("http://example.com/later.xml"));
+    }
+
+    @Test
+    public void uriMiss() {
+        Assertions.assertNull(manager(false).lookupURI("http://example.com/missing.xml"));
+    }
+
+    @Test
+    public void mergedHttpsUri() {
+        Assertions.assertEquals(baseURI.resolve("merged.xml"), manager(true).lookupURI("http://example.com/merged.xml"));
+        Assertions.assertEquals(baseURI.resolve("first.xml"), manager(true).lookupURI("https://example.com/doc.xml"));
+    }
+
+    @Test
+    public void unmergedHttpsUri() {
+        Assertions.assertNull(manager(false).lookupURI("http://example.com/merged.xml"));
+        Assertions.assertNull(manager(false).lookupURI("https://example.com/doc.xml"));
+    }
+
+    @Test
+    public void firstSystemWins() {
+        Assertions.assertEquals(baseURI.resolve("first.dtd"), manager(false).lookupSystem("http://example.com/doc.dtd"));
+    }
+
+    @Test
+    public void systemCase() {
+        CatalogManager manager = manager(false);
+        Assertions.assertEquals(baseURI.resolve("mixed.dtd"), manager.lookupSystem("http://example.com/Mixed.dtd"));
+        String os = System.getProperty("os.name").toLowerCase();
+        if (!os.contains("windows") && !os.contains("mac")) {
+            Assertions.assertNull(manager.lookupSystem("http://example.com/mixed.dtd"));
+        }
+    }
+
+    @Test
+    public void firstPublicWins() {
+        Assertions.assertEquals(baseURI.resolve("first-public.dtd"), manager(false).lookupPublic(null, "-//EXAMPLE//DTD Indexed//EN"));
+    }
+
+    @Test
+    public void longestRewriteUri() {
+        CatalogManager manager = manager(false);
+        Assertions.assertEquals(baseURI.resolve("long/doc.xml"), manager.lookupURI("http://example.com/rewrite/long/doc.xml"));
+        Assertions.assertEquals(baseURI.resolve("short/doc.xml"), manager.lookupURI("http://example.com/rewrite/doc.xml"));
+        Assertions.assertEquals(baseURI.resolve("shorter/do/doc.xml"), manager.lookupURI("http://example.com/redo/doc.xml"));
+    }
+
+    @Test
+    public void longestRewriteSystem() {
+        CatalogManager manager = manager(true);
+        Assertions.assertEquals(baseURI.resolve("long/doc.dtd"), manager.lookupSystem("https://example.com/rewrite/long/doc.dtd"));
+        Assertions.assertEquals(baseURI.resolve("short/doc.dtd"), manager.lookupSystem("https://example.com/rewrite/doc.dtd"));
+    }
+
+    @Test
+    public void longestUriSuffix() {
+        CatalogManager manager = manager(false);
+        Assertions.assertEquals(baseURI.resolve("suffix/long.xml"), manager.lookupURI("http://example.com/path/long/tail.xml"));
+        Assertions.assertEquals(baseURI.resolve("suffix/short.xml"), manager.lookupURI("http://example.com/path/tail.xml"));
+        Assertions.assertNull(manager.lookupURI("http://example.com/path/tail.xml.bak"));
+    }
+
+    @Test
+    public void longestSystemSuffix() {
+        CatalogManager manager = manager(false);
+        Assertions.assertEquals(baseURI.resolve("suffix/long.dtd"), manager.lookupSystem("http://example.com/path/long/Tail.dtd"));
+        Assertions.assertEquals(baseURI.resolve("suffix/short.dtd"), manager.lookupSystem("http://example.com/path/Tail.dtd"));
+    }
+
+    @Test
+    public void foldedSuffixes() {
+        EntryCatalog catalog = new EntryCatalog(new XMLResolverConfiguration(), baseURI, null, false);
+        catalog.addSystemSuffix(baseURI, null, "Tail.dtd", "short.dtd");
+        catalog.addSystemSuffix(baseURI, null, "/LONG/tail.dtd", "long.dtd");
+
+        Assertions.assertEquals(1, catalog.suffixEntries(Entry.Type.SYSTEM_SUFFIX, "http://example.com/long/Tail.dtd").size());
+        List<Entry> entries = catalog.suffixEntries(Entry.Type.SYSTEM_SUFFIX, "http://example.com/long/Tail.dtd", true);
+        Assertions.assertEquals(2, entries.size());
+        Assertions.assertEquals(baseURI.resolve("long.dtd"), ((EntrySystemSuffix) entries.get(0)).uri);
+    }
+
+    @Test
+    public void delegatesOrderedByLength() {
+        EntryCatalog catalog = new EntryCatalog(new XMLResolverConfiguration(), baseURI, null, false);
+        catalog.addDelegateUri(baseURI, null, "http://example.com/", "one.xml");
+        catalog.addDelegateUri(baseURI, null, "http://example.com/a/b/", "two.xml");
+        catalog.addDelegateUri(baseURI, null, "http://example.com/a/", "three.xml");
+        catalog.addDelegateUri(baseURI, null, "http://example.com/a/b/", "four.xml");
+        catalog.addDelegateUri(baseURI, null, "http://example.org/", "five.xml");
+
+        List<Entry> entries = catalog.prefixEntries(Entry.Type.DELEGATE_URI, "http://example.com/a/b/c.xml");
+        Assertions.assertEquals(4, entries.size());
+        Assertions.assertEquals(baseURI.resolve("two.xml"), ((EntryDelegateUri) entries.get(0)).catalog);
+        Assertions.assertEquals(baseURI.resolve("four.xml"), ((EntryDelegateUri) entries.get(1)).catalog);
+        Assertions.assertEquals(baseURI.resolve("three.xml"), ((EntryDelegateUri) entries.get(2)).catalog);
+        Assertions.assertEquals(baseURI.resolve("one.xml"), ((EntryDelegateUri) entries.get(3)).catalog);
+    }
+}
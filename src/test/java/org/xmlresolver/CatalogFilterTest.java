@@ -0,0 +1,78 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.catalog.entry.Entry;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Collections;
+
+public class CatalogFilterTest {
+    private static final String longStart = "http://example.com/a/very/long/start/string/that/is/longer/than/the/fingerprint/";
+
+    private CatalogManager manager(String catalog) {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList(catalog));
+        return new CatalogManager(config);
+    }
+
+    private EntryCatalog load(CatalogManager manager, String catalog) {
+        return manager.loadCatalog(new File(catalog).toURI());
+    }
+
+    @Test
+    public void skippedCatalogFollowsNext() {
+        CatalogManager manager = manager("src/test/resources/cm/filtered.xml");
+        EntryCatalog catalog = load(manager, "src/test/resources/cm/filtered.xml");
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.URI, "http://example.com/next.xml"));
+        Assertions.assertEquals(URI.create("file:///tmp/next.xml"), manager.lookupURI("http://example.com/next.xml"));
+    }
+
+    @Test
+    public void longStartString() {
+        CatalogManager manager = manager("src/test/resources/cm/filtered.xml");
+        EntryCatalog catalog = load(manager, "src/test/resources/cm/filtered.xml");
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.REWRITE_URI, longStart + "doc.xml"));
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.REWRITE_URI, "http://example.com/a/"));
+        Assertions.assertEquals(URI.create("file:///tmp/long/doc.xml"), manager.lookupURI(longStart + "doc.xml"));
+    }
+
+    @Test
+    public void doctypeName() {
+        CatalogManager manager = manager("src/test/resources/cm/filtered.xml");
+        EntryCatalog catalog = load(manager, "src/test/resources/cm/filtered.xml");
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.DOCTYPE, "filtered"));
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.DOCTYPE, "other"));
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.SYSTEM, "http://example.com/filtered.dtd"));
+        Assertions.assertEquals(URI.create("file:///tmp/filtered.dtd"), manager.lookupDoctype("filtered", null, null));
+    }
+
+    @Test
+    public void everyKeyMightMatch() {
+        CatalogManager manager = manager("src/test/resources/cm/indexed.xml");
+        EntryCatalog catalog = load(manager, "src/test/resources/cm/indexed.xml");
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.URI, "http://example.com/doc.xml"));
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.URI, "https://example.com/doc.xml"));
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.SYSTEM, "HTTP://EXAMPLE.COM/MIXED.DTD"));
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.PUBLIC, "-//EXAMPLE//DTD Indexed//EN"));
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.REWRITE_URI, "https://example.com/rewrite/long/doc.xml"));
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.REWRITE_SYSTEM, "http://example.com/REWRITE/doc.dtd"));
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.URI_SUFFIX, "http://example.com/long/tail.xml"));
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.SYSTEM_SUFFIX, "http://example.com/LONG/TAIL.DTD"));
+    }
+
+    @Test
+    public void definiteMisses() {
+        CatalogManager manager = manager("src/test/resources/cm/indexed.xml");
+        EntryCatalog catalog = load(manager, "src/test/resources/cm/indexed.xml");
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.URI, "http://example.org/doc.xml"));
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.PUBLIC, "-//EXAMPLE//DTD Missing//EN"));
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.REWRITE_URI, "http://example.org/rewrite/doc.xml"));
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.URI_SUFFIX, "http://example.com/head.xml"));
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.DELEGATE_URI, "http://example.com/doc.xml"));
+        Assertions.assertNull(manager.lookupURI("http://example.org/doc.xml"));
+    }
+}
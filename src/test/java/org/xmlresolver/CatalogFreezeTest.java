@@ -0,0 +1,76 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.catalog.entry.Entry;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.catalog.entry.EntryUri;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Collections;
+
+public class CatalogFreezeTest {
+    private final URI baseURI = URI.create("file:///tmp/");
+
+    @Test
+    public void loadedCatalogIsFrozen() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/indexed.xml"));
+        CatalogManager manager = new CatalogManager(config);
+
+        EntryCatalog catalog = manager.loadCatalog(new File("src/test/resources/cm/indexed.xml").toURI());
+        Assertions.assertTrue(catalog.isFrozen());
+        Assertions.assertSame(catalog.entries(Entry.Type.URI), catalog.entries(Entry.Type.URI));
+        Assertions.assertEquals(4, catalog.entries(Entry.Type.URI).size());
+        Assertions.assertTrue(catalog.entries(Entry.Type.DOCTYPE).isEmpty());
+        Assertions.assertEquals(baseURI.resolve("long/doc.xml"), manager.lookupURI("http://example.com/rewrite/long/doc.xml"));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> catalog.addUri(baseURI, null, "http://example.com/added.xml", "added.xml", null, null));
+    }
+
+    @Test
+    public void sameAnswersWhenFrozen() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        EntryCatalog catalog = new EntryCatalog(config, baseURI, null, true);
+        catalog.addUri(baseURI, null, "http://example.com/doc.xml", "doc.xml", null, null);
+        catalog.addRewriteSystem(baseURI, null, "http://example.com/Rewrite/", "rewrite/");
+        catalog.addUriSuffix(baseURI, null, "/tail.xml", "tail.xml");
+        Assertions.assertFalse(catalog.isFrozen());
+
+        Assertions.assertEquals(1, catalog.entries(Entry.Type.URI, "http://example.com/doc.xml").size());
+        Assertions.assertEquals(1, catalog.prefixEntries(Entry.Type.REWRITE_SYSTEM, "http://example.com/rewrite/doc.dtd", true).size());
+        Assertions.assertEquals(1, catalog.suffixEntries(Entry.Type.URI_SUFFIX, "http://example.com/tail.xml").size());
+
+        catalog.freeze();
+        Assertions.assertTrue(catalog.isFrozen());
+        Assertions.assertEquals(3, catalog.entries().size());
+        Assertions.assertEquals(1, catalog.entries(Entry.Type.URI, "http://example.com/doc.xml").size());
+        Assertions.assertEquals(1, catalog.prefixEntries(Entry.Type.REWRITE_SYSTEM, "http://example.com/rewrite/doc.dtd", true).size());
+        Assertions.assertEquals(0, catalog.prefixEntries(Entry.Type.REWRITE_SYSTEM, "http://example.com/rewrite/doc.dtd").size());
+        Assertions.assertEquals(1, catalog.suffixEntries(Entry.Type.URI_SUFFIX, "http://example.com/tail.xml").size());
+        Assertions.assertTrue(catalog.mightMatch(Entry.Type.URI, "http://example.com/doc.xml"));
+        Assertions.assertFalse(catalog.mightMatch(Entry.Type.SYSTEM, "http://example.com/doc.xml"));
+    }
+
+    @Test
+    public void compactEntries() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        EntryCatalog catalog = new EntryCatalog(config, baseURI, null, true);
+        String nature = new String("http://www.w3.org/2001/XMLSchema");
+        EntryUri first = catalog.addUri(URI.create("http://example.com/base/"), null, "http://example.com/one.xsd", "one.xsd", nature, null);
+        EntryUri second = catalog.addUri(URI.create("http://example.com/base/"), null, "http://example.com/two.xsd", "two.xsd", new String(nature), null);
+        second.setProperty("color", "blue");
+
+        // Equal base URIs and natures are shared
+        Assertions.assertSame(first.baseURI, second.baseURI);
+        Assertions.assertSame(first.nature, second.nature);
+        Assertions.assertEquals(URI.create("http://example.com/base/two.xsd"), second.uri);
+
+        Assertions.assertTrue(first.getProperties().isEmpty());
+        Assertions.assertNull(first.getProperty("color"));
+        Assertions.assertEquals("blue", second.getProperty("color"));
+        Assertions.assertEquals(Collections.singletonMap("color", "blue"), second.getProperties());
+    }
+}
@@ -0,0 +1,93 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class CatalogGraphTest {
+    private XMLResolverConfiguration config = null;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+    @BeforeEach
+    public void setup() {
+        config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+    }
+
+    private URI catalog(String name) {
+        return new File("src/test/resources/cm/" + name).toURI();
+    }
+
+    @Test
+    public void loadWholeGraph() {
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/nextroot.xml"));
+        config.setFeature(ResolverFeature.CATALOG_EXECUTOR, tasks::add);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+
+        CompletableFuture<Map<URI, Duration>> future = manager.loadCatalogGraph();
+        Assertions.assertEquals(1, tasks.size());
+        while (!tasks.isEmpty()) {
+            Assertions.assertFalse(future.isDone());
+            tasks.remove().run();
+        }
+        Assertions.assertTrue(future.isDone());
+
+        Map<URI, Duration> times = future.join();
+        Assertions.assertEquals(5, times.size());
+        Assertions.assertTrue(times.containsKey(catalog("nextroot.xml")));
+        Assertions.assertTrue(times.containsKey(catalog("nextone.xml")));
+        Assertions.assertTrue(times.containsKey(catalog("nexttwo.xml")));
+        Assertions.assertTrue(times.containsKey(catalog("deltwo.xml")));
+        Assertions.assertTrue(times.containsKey(catalog("delone.xml")));
+
+        Assertions.assertEquals(URI.create("file:/tmp/five-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/five/system.dtd"));
+        Assertions.assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void loadCycle() {
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/cycle-one.xml"));
+        config.setFeature(ResolverFeature.CATALOG_EXECUTOR, Runnable::run);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+
+        CompletableFuture<Map<URI, Duration>> future = manager.loadCatalogGraph();
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertEquals(2, future.join().size());
+    }
+
+    @Test
+    public void loadMissingCatalog() {
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/does-not-exist.xml"));
+        config.setFeature(ResolverFeature.CATALOG_EXECUTOR, Runnable::run);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+
+        // A catalog that can't be loaded is empty, but it still took (a little) time
+        Assertions.assertEquals(1, manager.loadCatalogGraph().join().size());
+    }
+
+    @Test
+    public void eagerLoading() {
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/nextroot.xml"));
+        config.setFeature(ResolverFeature.CATALOG_EXECUTOR, tasks::add);
+        config.setFeature(ResolverFeature.EAGER_CATALOG_LOADING, true);
+        config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void eagerLoadingInBackground() {
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/nextroot.xml"));
+        config.setFeature(ResolverFeature.EAGER_CATALOG_LOADING, true);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/system-next.dtd"), manager.lookupSystem("http://example.com/system-next.dtd"));
+        Assertions.assertEquals(URI.create("file:/tmp/delegated-to-one.dtd"), manager.lookupSystem("http://example.com/delegated/one/system.dtd"));
+    }
+}
@@ -0,0 +1,80 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.loaders.XmlLoader;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collections;
+
+public class CatalogPrefetchTest {
+    private XMLResolverConfiguration config = null;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+    @BeforeEach
+    public void setup() {
+        config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/nextroot.xml"));
+    }
+
+    @Test
+    public void prefetchReferencedCatalogs() {
+        config.setFeature(ResolverFeature.PREFETCH_CATALOGS, true);
+        config.setFeature(ResolverFeature.CATALOG_EXECUTOR, tasks::add);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+
+        manager.loadCatalog(new File("src/test/resources/cm/nextroot.xml").toURI());
+        // nextone.xml, nexttwo.xml, deltwo.xml, and delone.xml
+        Assertions.assertEquals(4, tasks.size());
+
+        int count = 0;
+        while (!tasks.isEmpty()) {
+            tasks.remove().run();
+            count++;
+        }
+        // deltwo.xml refers to nexttwo.xml, but that's already been fetched
+        Assertions.assertEquals(4, count);
+
+        Assertions.assertEquals(URI.create("file:/tmp/five-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/five/system.dtd"));
+        Assertions.assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void prefetchAgainWithNewLoader() {
+        config.setFeature(ResolverFeature.PREFETCH_CATALOGS, true);
+        config.setFeature(ResolverFeature.CATALOG_EXECUTOR, tasks::add);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+
+        Assertions.assertEquals(URI.create("file:/tmp/system-next.dtd"), manager.lookupSystem("http://example.com/system-next.dtd"));
+        Assertions.assertFalse(tasks.isEmpty());
+        while (!tasks.isEmpty()) {
+            tasks.remove().run();
+        }
+
+        // The new loader hasn't loaded anything, so its catalogs are prefetched again
+        manager.setCatalogLoader(new XmlLoader(config));
+        Assertions.assertEquals(URI.create("file:/tmp/system-next.dtd"), manager.lookupSystem("http://example.com/system-next.dtd"));
+        Assertions.assertFalse(tasks.isEmpty());
+    }
+
+    @Test
+    public void noPrefetchByDefault() {
+        config.setFeature(ResolverFeature.CATALOG_EXECUTOR, tasks::add);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+
+        Assertions.assertEquals(URI.create("file:/tmp/five-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/five/system.dtd"));
+        Assertions.assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void prefetchInBackground() {
+        config.setFeature(ResolverFeature.PREFETCH_CATALOGS, true);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/system-next.dtd"), manager.lookupSystem("http://example.com/system-next.dtd"));
+        Assertions.assertEquals(URI.create("file:/tmp/delegated-to-one.dtd"), manager.lookupSystem("http://example.com/delegated/one/system.dtd"));
+    }
+}
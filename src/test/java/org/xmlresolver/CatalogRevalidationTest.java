@@ -0,0 +1,175 @@
+package org.xmlresolver;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+public class CatalogRevalidationTest {
+    private static final String SYSTEM_ID = "http://example.com/system.dtd";
+    private HttpServer server = null;
+    private volatile String body = null;
+    private volatile String etag = null;
+    private final List<String> conditions = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/catalog.xml", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            conditions.add(ifNoneMatch);
+            if (etag != null) {
+                exchange.getResponseHeaders().set("ETag", etag);
+            }
+            if (etag != null && etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/xml");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void teardown() {
+        server.stop(0);
+    }
+
+    private CatalogManager manager() {
+        return manager(ResolverFeature.CATALOG_LOADER_CLASS.getDefaultValue());
+    }
+
+    private CatalogManager manager(String loaderClass) {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, loaderClass);
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList(
+                "http://localhost:" + server.getAddress().getPort() + "/catalog.xml"));
+        config.setFeature(ResolverFeature.LOOKUP_CACHE_SIZE, 16);
+        config.setFeature(ResolverFeature.REMOTE_CATALOG_TTL, 1);
+        // Revalidate on the lookup thread, so that the lookup sees the result
+        Executor executor = Runnable::run;
+        config.setFeature(ResolverFeature.CATALOG_EXECUTOR, executor);
+        return config.getFeature(ResolverFeature.CATALOG_MANAGER);
+    }
+
+    private String catalog(String uri) {
+        return "<catalog xmlns='urn:oasis:names:tc:entity:xmlns:xml:catalog'>"
+                + "<system systemId='" + SYSTEM_ID + "' uri='" + uri + "'/></catalog>";
+    }
+
+    private void expire() throws InterruptedException {
+        Thread.sleep(1100);
+    }
+
+    @Test
+    public void notModified() throws InterruptedException {
+        body = catalog("file:/tmp/before.dtd");
+        etag = "\"v1\"";
+        CatalogManager manager = manager();
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals(Collections.singletonList(null), conditions);
+
+        // Lookups before the catalog expires don't make a request
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals(1, conditions.size());
+
+        expire();
+        body = catalog("file:/tmp/ignored.dtd");
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals(2, conditions.size());
+        Assertions.assertEquals("\"v1\"", conditions.get(1));
+        Assertions.assertEquals(0, manager.getCatalogLoader().getGeneration());
+    }
+
+    @Test
+    public void modified() throws InterruptedException {
+        body = catalog("file:/tmp/before.dtd");
+        etag = "\"v1\"";
+        CatalogManager manager = manager();
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        expire();
+        body = catalog("file:/tmp/after.dtd");
+        etag = "\"v2\"";
+        // This lookup starts the revalidation; with the executor above, it finishes first
+        Assertions.assertEquals(URI.create("file:/tmp/after.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals("\"v1\"", conditions.get(1));
+        Assertions.assertEquals(1, manager.getCatalogLoader().getGeneration());
+
+        expire();
+        Assertions.assertEquals(URI.create("file:/tmp/after.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals("\"v2\"", conditions.get(2));
+        Assertions.assertEquals(1, manager.getCatalogLoader().getGeneration());
+    }
+
+    @Test
+    public void unchangedWithoutValidators() throws InterruptedException {
+        body = catalog("file:/tmp/before.dtd");
+        CatalogManager manager = manager();
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        expire();
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals(2, conditions.size());
+        Assertions.assertEquals(0, manager.getCatalogLoader().getGeneration());
+
+        expire();
+        body = catalog("file:/tmp/after.dtd");
+        Assertions.assertEquals(URI.create("file:/tmp/after.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals(1, manager.getCatalogLoader().getGeneration());
+    }
+
+    @Test
+    public void keepCatalogWhenServerFails() throws InterruptedException {
+        body = catalog("file:/tmp/before.dtd");
+        etag = "\"v1\"";
+        CatalogManager manager = manager();
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        expire();
+        etag = "\"v2\"";
+        body = "<catalog";
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals(0, manager.getCatalogLoader().getGeneration());
+    }
+
+    @Test
+    public void validatingLoader() throws InterruptedException {
+        body = catalog("file:/tmp/before.dtd");
+        etag = "\"v1\"";
+        CatalogManager manager = manager("org.xmlresolver.loaders.ValidatingXmlLoader");
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        // An invalid catalog doesn't replace the valid one
+        expire();
+        etag = "\"v2\"";
+        body = "<catalog xmlns='urn:oasis:names:tc:entity:xmlns:xml:catalog'><invalid/></catalog>";
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals("\"v1\"", conditions.get(1));
+        Assertions.assertEquals(0, manager.getCatalogLoader().getGeneration());
+
+        expire();
+        etag = "\"v3\"";
+        body = catalog("file:/tmp/after.dtd");
+        Assertions.assertEquals(URI.create("file:/tmp/after.dtd"), manager.lookupSystem(SYSTEM_ID));
+        Assertions.assertEquals(1, manager.getCatalogLoader().getGeneration());
+    }
+}
@@ -0,0 +1,68 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.catalog.query.CatalogSet;
+import org.xmlresolver.loaders.XmlLoader;
+
+import java.net.URI;
+import java.util.Collections;
+
+public class CatalogSetTest {
+    private final URI baseURI = URI.create("file:///tmp/");
+
+    @Test
+    public void nextCatalogCycle() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/cycle-one.xml"));
+        CatalogManager manager = new CatalogManager(config);
+
+        Assertions.assertEquals(baseURI.resolve("two.xml"), manager.lookupURI("http://example.com/two.xml"));
+        Assertions.assertNull(manager.lookupURI("http://example.com/three.xml"));
+
+        CatalogSet catalogs = manager.catalogSet();
+        Assertions.assertTrue(catalogs.loaded());
+        Assertions.assertNotNull(catalogs.catalog(1));
+        Assertions.assertNull(catalogs.catalog(2));
+    }
+
+    @Test
+    public void reusedUntilCatalogsChange() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.addCatalog("src/test/resources/cm/cycle-one.xml");
+        CatalogManager manager = new CatalogManager(config);
+
+        CatalogSet catalogs = manager.catalogSet();
+        Assertions.assertSame(catalogs, manager.catalogSet());
+        Assertions.assertNull(manager.lookupURI("http://example.com/document.xml"));
+
+        config.addCatalog("src/test/resources/cm/simple.xml");
+        Assertions.assertNotSame(catalogs, manager.catalogSet());
+        Assertions.assertEquals(URI.create("file:///path/document.xml"), manager.lookupURI("http://example.com/document.xml"));
+
+        catalogs = manager.catalogSet();
+        config.removeCatalog("src/test/resources/cm/simple.xml");
+        Assertions.assertNotSame(catalogs, manager.catalogSet());
+        Assertions.assertNull(manager.lookupURI("http://example.com/document.xml"));
+    }
+
+    @Test
+    public void rebuiltWhenLoaderChanges() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/cycle-one.xml"));
+        CatalogManager manager = new CatalogManager(config);
+        Assertions.assertNull(manager.lookupURI("http://example.com/document.xml"));
+
+        // A loader that reads a different catalog in place of the first one
+        manager.setCatalogLoader(new XmlLoader(config) {
+            @Override
+            protected EntryCatalog readCatalog(URI catalog) {
+                return super.readCatalog(URI.create(catalog.toString().replace("cycle-one.xml", "simple.xml")));
+            }
+        });
+        Assertions.assertEquals(URI.create("file:///path/document.xml"), manager.lookupURI("http://example.com/document.xml"));
+    }
+}
@@ -0,0 +1,284 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.catalog.entry.Entry;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.loaders.CatalogSnapshot;
+import org.xmlresolver.loaders.SnapshotLoader;
+import org.xmlresolver.loaders.XmlLoader;
+import org.xmlresolver.logging.ResolverLogger;
+import org.xmlresolver.tools.CatalogCompiler;
+import org.xmlresolver.utils.URIUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class CatalogSnapshotTest {
+    private static final String[] catalogs = { "nextroot.xml", "nextone.xml", "nexttwo.xml", "delone.xml", "deltwo.xml" };
+    private Path dir = null;
+    private XMLResolverConfiguration config = null;
+    private final List<URI> fromSnapshot = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("snapshot");
+        for (String catalog : catalogs) {
+            Files.copy(Paths.get("src/test/resources/cm", catalog), dir.resolve(catalog));
+        }
+        config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList(dir.resolve("nextroot.xml").toString()));
+        config.setFeature(ResolverFeature.RESOLVER_LOGGER, new ResolverLogger() {
+            @Override
+            public void error(String message, Object... params) {
+                // nop
+            }
+
+            @Override
+            public void warn(String message, Object... params) {
+                // nop
+            }
+
+            @Override
+            public void info(String message, Object... params) {
+                // nop
+            }
+
+            @Override
+            public void debug(String message, Object... params) {
+                if (message.startsWith("Loaded catalog from snapshot")) {
+                    fromSnapshot.add((URI) params[1]);
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        for (File file : dir.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(dir);
+    }
+
+    private List<URI> compile() throws IOException {
+        XmlLoader loader = new XmlLoader(config);
+        LinkedHashMap<URI, EntryCatalog> loaded = new LinkedHashMap<>();
+        for (String catalog : catalogs) {
+            URI uri = dir.resolve(catalog).toUri();
+            loaded.put(uri, loader.loadCatalog(uri));
+        }
+        return CatalogSnapshot.write(config, loader.getPreferPublic(), loaded,
+                dir.resolve("nextroot.xml" + SnapshotLoader.SNAPSHOT_EXTENSION));
+    }
+
+    private boolean readFromSnapshot(String catalog) {
+        return fromSnapshot.contains(dir.resolve(catalog).toUri());
+    }
+
+    private void edit(String catalog, String from, String to) throws IOException {
+        // Make a change that neither alters the length nor the modification time of the catalog
+        Path path = dir.resolve(catalog);
+        long modified = path.toFile().lastModified();
+        String text = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        Assertions.assertEquals(from.length(), to.length());
+        Files.write(path, text.replace(from, to).getBytes(StandardCharsets.UTF_8));
+        Assertions.assertTrue(path.toFile().setLastModified(modified));
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        Assertions.assertEquals(5, compile().size());
+
+        XmlLoader xmlLoader = new XmlLoader(config);
+        SnapshotLoader snapshotLoader = new SnapshotLoader(config);
+        for (String catalog : catalogs) {
+            URI uri = dir.resolve(catalog).toUri();
+            EntryCatalog parsed = xmlLoader.loadCatalog(uri);
+            EntryCatalog read = snapshotLoader.loadCatalog(uri);
+            Assertions.assertNotSame(parsed, read);
+            Assertions.assertTrue(read.isFrozen());
+            Assertions.assertEquals(parsed.baseURI, read.baseURI);
+            Assertions.assertEquals(parsed.preferPublic, read.preferPublic);
+            Assertions.assertEquals(parsed.entries().size(), read.entries().size());
+            for (int pos = 0; pos < parsed.entries().size(); pos++) {
+                Entry expected = parsed.entries().get(pos);
+                Entry actual = read.entries().get(pos);
+                Assertions.assertEquals(expected.getType(), actual.getType());
+                Assertions.assertEquals(expected.baseURI, actual.baseURI);
+                Assertions.assertEquals(expected.toString(), actual.toString());
+            }
+            Assertions.assertTrue(readFromSnapshot(catalog));
+        }
+    }
+
+    @Test
+    public void readFromSnapshot() throws IOException {
+        compile();
+
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.SnapshotLoader");
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/three-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/three/system.dtd"));
+        Assertions.assertEquals(URI.create("file:/tmp/five-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/five/system.dtd"));
+        Assertions.assertEquals(URI.create("file:/tmp/found-in-one.xml"), manager.lookupURI("http://example.com/document.xml"));
+        Assertions.assertTrue(readFromSnapshot("deltwo.xml"));
+        Assertions.assertTrue(readFromSnapshot("nexttwo.xml"));
+    }
+
+    @Test
+    public void staleSnapshot() throws IOException {
+        compile();
+        edit("deltwo.xml", "/tmp/three-from-two.dtd", "/tmp/33333-from-two.dtd");
+
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.SnapshotLoader");
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/33333-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/three/system.dtd"));
+        Assertions.assertEquals(URI.create("file:/tmp/found-in-one.xml"), manager.lookupURI("http://example.com/document.xml"));
+        Assertions.assertFalse(readFromSnapshot("deltwo.xml"));
+        Assertions.assertTrue(readFromSnapshot("nextroot.xml"));
+    }
+
+    @Test
+    public void relocatedSnapshot() throws IOException {
+        compile();
+        Path moved = Files.createTempDirectory("snapshot");
+        try {
+            for (File file : dir.toFile().listFiles()) {
+                Files.move(file.toPath(), moved.resolve(file.getName()));
+            }
+            SnapshotLoader loader = new SnapshotLoader(config);
+            EntryCatalog catalog = loader.loadCatalog(moved.resolve("nextroot.xml").toUri());
+            Assertions.assertEquals(moved.resolve("nextroot.xml").toUri(), fromSnapshot.get(0));
+            Assertions.assertEquals(moved.resolve("nextroot.xml").toUri(), catalog.baseURI);
+            Assertions.assertTrue(catalog.entries().toString().contains(moved.resolve("nextone.xml").toUri().getPath()));
+        } finally {
+            for (File file : moved.toFile().listFiles()) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(moved);
+        }
+    }
+
+    @Test
+    public void snapshotCompiledLater() throws IOException {
+        SnapshotLoader loader = new SnapshotLoader(config);
+        loader.loadCatalog(dir.resolve("nextroot.xml").toUri());
+
+        // The snapshot didn't exist when the first catalog was loaded
+        compile();
+        loader.loadCatalog(dir.resolve("deltwo.xml").toUri());
+        Assertions.assertFalse(readFromSnapshot("nextroot.xml"));
+        Assertions.assertTrue(readFromSnapshot("deltwo.xml"));
+    }
+
+    @Test
+    public void snapshotRecompiled() throws IOException {
+        compile();
+        SnapshotLoader loader = new SnapshotLoader(config);
+        loader.loadCatalog(dir.resolve("nextroot.xml").toUri());
+
+        Path path = dir.resolve("nexttwo.xml");
+        String text = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        Files.write(path, text.replace("/tmp/five-from-two.dtd", "/tmp/changed-five-from-two.dtd").getBytes(StandardCharsets.UTF_8));
+        compile();
+
+        // The new snapshot is read, not the stale one that was opened first
+        EntryCatalog catalog = loader.loadCatalog(path.toUri());
+        Assertions.assertTrue(catalog.entries().toString().contains("/tmp/changed-five-from-two.dtd"));
+        Assertions.assertTrue(readFromSnapshot("nexttwo.xml"));
+    }
+
+    @Test
+    public void compileGraph() throws IOException {
+        CatalogCompiler compiler = new CatalogCompiler(config);
+        List<URI> compiled = compiler.compile(dir.resolve("nextroot.xml").toUri(),
+                dir.resolve("nextroot.xml" + SnapshotLoader.SNAPSHOT_EXTENSION));
+        Assertions.assertEquals(5, compiled.size());
+        Assertions.assertEquals(dir.resolve("nextroot.xml").toUri(), compiled.get(0));
+
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.SnapshotLoader");
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/five-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/five/system.dtd"));
+        Assertions.assertTrue(readFromSnapshot("nexttwo.xml"));
+    }
+
+    @Test
+    public void noSnapshot() {
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.SnapshotLoader");
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/three-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/three/system.dtd"));
+    }
+
+    @Test
+    public void corruptSnapshot() throws IOException {
+        compile();
+        Path snapshot = dir.resolve("nextroot.xml" + SnapshotLoader.SNAPSHOT_EXTENSION);
+        Files.write(snapshot, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.SnapshotLoader");
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/three-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/three/system.dtd"));
+    }
+
+    @Test
+    public void differentSettings() throws IOException {
+        compile();
+
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.SnapshotLoader");
+        config.setFeature(ResolverFeature.PREFER_PUBLIC, false);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/three-from-two.dtd"), manager.lookupSystem("http://example.com/delegated/three/system.dtd"));
+        Assertions.assertFalse(readFromSnapshot("deltwo.xml"));
+    }
+
+    @Test
+    public void snapshotInJar() throws URISyntaxException {
+        // The snapshot in snapshot.jar was compiled from the catalogs on disk, before they were packaged
+        URI root = getClass().getClassLoader().getResource("snapshot/catalog.xml").toURI();
+        Assertions.assertEquals("jar", root.getScheme());
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList(root.toString()));
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.SnapshotLoader");
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+
+        Assertions.assertEquals(URIUtils.resolve(root, "dtd/doc.dtd"), manager.lookupSystem("http://example.com/snapshot/doc.dtd"));
+        Assertions.assertEquals(URI.create("http://example.com/dtd/remote.dtd"), manager.lookupSystem("http://example.com/snapshot/remote.dtd"));
+        Assertions.assertEquals(URIUtils.resolve(root, "docs/next.xml"), manager.lookupURI("http://example.com/snapshot/next.xml"));
+        Assertions.assertEquals(URIUtils.resolve(root, "other/other.dtd"), manager.lookupSystem("http://example.com/snapshot/other.dtd"));
+        Assertions.assertEquals(root, fromSnapshot.get(0));
+        Assertions.assertEquals(URIUtils.resolve(root, "sub/next.xml"), fromSnapshot.get(1));
+    }
+
+    @Test
+    public void snapshotOnClasspath() {
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("classpath:snapshot/catalog.xml"));
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.SnapshotLoader");
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+
+        Assertions.assertEquals(URI.create("classpath:snapshot/schema.xsd"), manager.lookupURI("http://example.com/snapshot/schema.xsd"));
+        Assertions.assertEquals(URI.create("classpath:snapshot/docs/next.xml"), manager.lookupURI("http://example.com/snapshot/next.xml"));
+        Assertions.assertEquals(2, fromSnapshot.size());
+    }
+
+    @Test
+    public void configuredSnapshot() {
+        // The catalog has no snapshot of its own, it's found in the configured one
+        config.setFeature(ResolverFeature.CATALOG_SNAPSHOT, "classpath:snapshot/catalog.xml.snapshot");
+        SnapshotLoader loader = new SnapshotLoader(config);
+        EntryCatalog catalog = loader.loadCatalog(URI.create("classpath:snapshot/sub/next.xml"));
+        Assertions.assertEquals(URI.create("classpath:snapshot/sub/next.xml"), catalog.baseURI);
+        Assertions.assertEquals(Collections.singletonList(URI.create("classpath:snapshot/sub/next.xml")), fromSnapshot);
+    }
+}
@@ -0,0 +1,121 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class CatalogWatchTest {
+    private static final String SYSTEM_ID = "http://example.com/system.dtd";
+    private static final long TIMEOUT_MILLIS = 10000;
+    private Path dir = null;
+    private XMLResolverConfiguration config = null;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("watch");
+        config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList(dir.resolve("catalog.xml").toString()));
+        config.setFeature(ResolverFeature.LOOKUP_CACHE_SIZE, 16);
+        config.setFeature(ResolverFeature.WATCH_CATALOGS, true);
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        for (File file : dir.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(dir);
+    }
+
+    private void write(String catalog, String body) throws IOException {
+        String text = "<catalog xmlns='urn:oasis:names:tc:entity:xmlns:xml:catalog'>" + body + "</catalog>";
+        Files.write(dir.resolve(catalog), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String system(String uri) {
+        return "<system systemId='" + SYSTEM_ID + "' uri='" + uri + "'/>";
+    }
+
+    private URI await(CatalogManager manager, URI expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        URI found = manager.lookupSystem(SYSTEM_ID);
+        while (!expected.equals(found) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            found = manager.lookupSystem(SYSTEM_ID);
+        }
+        return found;
+    }
+
+    @Test
+    public void reloadChangedCatalog() throws IOException, InterruptedException {
+        write("catalog.xml", system("/tmp/before.dtd"));
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        write("catalog.xml", system("/tmp/after.dtd"));
+        Assertions.assertEquals(URI.create("file:/tmp/after.dtd"), await(manager, URI.create("file:/tmp/after.dtd")));
+        Assertions.assertTrue(manager.getCatalogLoader().getGeneration() > 0);
+    }
+
+    @Test
+    public void reloadNextCatalog() throws IOException, InterruptedException {
+        write("catalog.xml", "<nextCatalog catalog='next.xml'/>");
+        write("next.xml", system("/tmp/before.dtd"));
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        write("next.xml", system("/tmp/after.dtd"));
+        Assertions.assertEquals(URI.create("file:/tmp/after.dtd"), await(manager, URI.create("file:/tmp/after.dtd")));
+    }
+
+    @Test
+    public void keepMalformedCatalog() throws IOException, InterruptedException {
+        write("catalog.xml", system("/tmp/before.dtd"));
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        write("catalog.xml", system("/tmp/malformed.dtd") + "<unclosed>");
+        Thread.sleep(1000);
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        write("catalog.xml", system("/tmp/after.dtd"));
+        Assertions.assertEquals(URI.create("file:/tmp/after.dtd"), await(manager, URI.create("file:/tmp/after.dtd")));
+    }
+
+    @Test
+    public void keepInvalidCatalog() throws IOException, InterruptedException {
+        write("catalog.xml", system("/tmp/before.dtd"));
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.ValidatingXmlLoader");
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        write("catalog.xml", system("/tmp/invalid.dtd") + "<notAnEntry/>");
+        Thread.sleep(1000);
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        write("catalog.xml", system("/tmp/after.dtd"));
+        Assertions.assertEquals(URI.create("file:/tmp/after.dtd"), await(manager, URI.create("file:/tmp/after.dtd")));
+    }
+
+    @Test
+    public void noWatching() throws IOException, InterruptedException {
+        write("catalog.xml", system("/tmp/before.dtd"));
+        config.setFeature(ResolverFeature.WATCH_CATALOGS, false);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+
+        write("catalog.xml", system("/tmp/after.dtd"));
+        Thread.sleep(1000);
+        Assertions.assertEquals(URI.create("file:/tmp/before.dtd"), manager.lookupSystem(SYSTEM_ID));
+    }
+}
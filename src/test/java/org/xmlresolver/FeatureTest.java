@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -42,6 +43,15 @@ public class FeatureTest {
         config.setFeature(feature, orig);
     }
 
+    private void integerFeature(ResolverFeature<Integer> feature) {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        knownFeature(config, feature);
+        Integer orig = config.getFeature(feature);
+        config.setFeature(feature, 17);
+        Assertions.assertEquals(17, config.getFeature(feature));
+        config.setFeature(feature, orig);
+    }
+
     @Test
     public void testFeatureAllowCatalogPi() {
         booleanFeature(ResolverFeature.ALLOW_CATALOG_PI);
@@ -198,6 +208,76 @@ public class FeatureTest {
         booleanFeature(ResolverFeature.URI_FOR_SYSTEM);
     }
 
+    @Test
+    public void testFeatureLookupCacheSize() {
+        integerFeature(ResolverFeature.LOOKUP_CACHE_SIZE);
+    }
+
+    @Test
+    public void testFeaturePrefetchCatalogs() {
+        booleanFeature(ResolverFeature.PREFETCH_CATALOGS);
+    }
+
+    @Test
+    public void testFeatureCatalogExecutor() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        knownFeature(config, ResolverFeature.CATALOG_EXECUTOR);
+        Assertions.assertNull(config.getFeature(ResolverFeature.CATALOG_EXECUTOR));
+        Executor executor = Runnable::run;
+        config.setFeature(ResolverFeature.CATALOG_EXECUTOR, executor);
+        Assertions.assertSame(executor, config.getFeature(ResolverFeature.CATALOG_EXECUTOR));
+    }
+
+    @Test
+    public void testFeatureEagerCatalogLoading() {
+        booleanFeature(ResolverFeature.EAGER_CATALOG_LOADING);
+    }
+
+    @Test
+    public void testFeatureWatchCatalogs() {
+        booleanFeature(ResolverFeature.WATCH_CATALOGS);
+    }
+
+    @Test
+    public void testFeatureRemoteCatalogTtl() {
+        integerFeature(ResolverFeature.REMOTE_CATALOG_TTL);
+    }
+
+    @Test
+    public void testFeatureShareCatalogs() {
+        booleanFeature(ResolverFeature.SHARE_CATALOGS);
+    }
+
+    @Test
+    public void testFeatureLazyEntryUris() {
+        booleanFeature(ResolverFeature.LAZY_ENTRY_URIS);
+    }
+
+    @Test
+    public void testFeatureResourceCacheSize() {
+        integerFeature(ResolverFeature.RESOURCE_CACHE_SIZE);
+    }
+
+    @Test
+    public void testFeatureResourceCacheSchemes() {
+        stringFeature(ResolverFeature.RESOURCE_CACHE_SCHEMES);
+    }
+
+    @Test
+    public void testFeatureHttpCacheDirectory() {
+        stringFeature(ResolverFeature.HTTP_CACHE_DIRECTORY);
+    }
+
+    @Test
+    public void testFeatureHttpCacheSize() {
+        integerFeature(ResolverFeature.HTTP_CACHE_SIZE);
+    }
+
+    @Test
+    public void testFeatureHttpCacheTtl() {
+        integerFeature(ResolverFeature.HTTP_CACHE_TTL);
+    }
+
     private static class MyClassLoader extends ClassLoader {
         MyClassLoader() {
         }
@@ -0,0 +1,234 @@
+package org.xmlresolver;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class HttpCacheTest {
+    private HttpServer server = null;
+    private Path directory = null;
+    private XMLResolverConfiguration config = null;
+    private volatile String body = null;
+    private volatile String etag = null;
+    private volatile String cacheControl = null;
+    private final List<String> conditions = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("httpcache");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/moved.dtd", exchange -> {
+            conditions.add(exchange.getRequestHeaders().getFirst("If-None-Match"));
+            exchange.getResponseHeaders().set("Location", uri("/schema.dtd").toString());
+            exchange.sendResponseHeaders(301, -1);
+            exchange.close();
+        });
+        server.createContext("/", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            conditions.add(ifNoneMatch);
+            if (etag != null) {
+                exchange.getResponseHeaders().set("ETag", etag);
+            }
+            if (cacheControl != null) {
+                exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+            }
+            if (etag != null && etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/xml-dtd");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+
+        config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.HTTP_CACHE_DIRECTORY, directory.toString());
+        config.setFeature(ResolverFeature.HTTP_CACHE_TTL, 3600);
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        server.stop(0);
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    private ResourceResponse get(XMLResolverConfiguration config, URI uri) throws Exception {
+        ResourceRequestImpl request = new ResourceRequestImpl(config);
+        request.setURI(uri);
+        return config.getResource(request);
+    }
+
+    private String read(XMLResolverConfiguration config, URI uri) throws Exception {
+        ResourceResponse resp = get(config, uri);
+        Assertions.assertTrue(resp.isResolved());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream stream = resp.getInputStream()) {
+            byte[] buffer = new byte[1024];
+            int count = stream.read(buffer);
+            while (count >= 0) {
+                bytes.write(buffer, 0, count);
+                count = stream.read(buffer);
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private int bodies() {
+        File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(".body"));
+        return files == null ? 0 : files.length;
+    }
+
+    @Test
+    public void fresh() throws Exception {
+        body = "<!ELEMENT doc (#PCDATA)>";
+        etag = "\"v1\"";
+        Assertions.assertEquals(body, read(config, uri("/schema.dtd")));
+
+        // A new configuration, as in the next run, uses the same cache
+        XMLResolverConfiguration next = new XMLResolverConfiguration();
+        next.setFeature(ResolverFeature.HTTP_CACHE_DIRECTORY, directory.toString());
+        next.setFeature(ResolverFeature.HTTP_CACHE_TTL, 3600);
+        ResourceResponse resp = get(next, uri("/schema.dtd"));
+        Assertions.assertEquals("application/xml-dtd", resp.getContentType());
+        Assertions.assertEquals("\"v1\"", resp.getConnection().getEtag());
+        Assertions.assertEquals(body, read(next, uri("/schema.dtd")));
+        Assertions.assertEquals(1, conditions.size());
+    }
+
+    @Test
+    public void notModified() throws Exception {
+        config.setFeature(ResolverFeature.HTTP_CACHE_TTL, 0);
+        body = "<!ELEMENT doc (#PCDATA)>";
+        etag = "\"v1\"";
+        Assertions.assertEquals(body, read(config, uri("/schema.dtd")));
+        body = "ignored";
+        Assertions.assertEquals("<!ELEMENT doc (#PCDATA)>", read(config, uri("/schema.dtd")));
+        Assertions.assertEquals(2, conditions.size());
+        Assertions.assertEquals("\"v1\"", conditions.get(1));
+    }
+
+    @Test
+    public void modified() throws Exception {
+        config.setFeature(ResolverFeature.HTTP_CACHE_TTL, 0);
+        body = "<!ELEMENT doc (#PCDATA)>";
+        etag = "\"v1\"";
+        Assertions.assertEquals(body, read(config, uri("/schema.dtd")));
+        body = "<!ELEMENT doc EMPTY>";
+        etag = "\"v2\"";
+        Assertions.assertEquals(body, read(config, uri("/schema.dtd")));
+        Assertions.assertEquals("\"v1\"", conditions.get(1));
+        Assertions.assertEquals(1, bodies());
+    }
+
+    @Test
+    public void maxAge() throws Exception {
+        body = "<!ELEMENT doc (#PCDATA)>";
+        etag = "\"v1\"";
+        cacheControl = "no-cache";
+        read(config, uri("/schema.dtd"));
+        read(config, uri("/schema.dtd"));
+        Assertions.assertEquals(2, conditions.size());
+
+        cacheControl = "max-age=3600";
+        XMLResolverConfiguration expiring = new XMLResolverConfiguration();
+        expiring.setFeature(ResolverFeature.HTTP_CACHE_DIRECTORY, directory.toString());
+        expiring.setFeature(ResolverFeature.HTTP_CACHE_TTL, 0);
+        read(expiring, uri("/schema.dtd"));
+        read(expiring, uri("/schema.dtd"));
+        Assertions.assertEquals(3, conditions.size());
+    }
+
+    @Test
+    public void staleWhenServerUnavailable() throws Exception {
+        config.setFeature(ResolverFeature.HTTP_CACHE_TTL, 0);
+        body = "<!ELEMENT doc (#PCDATA)>";
+        URI uri = uri("/schema.dtd");
+        Assertions.assertEquals(body, read(config, uri));
+        server.stop(0);
+        Assertions.assertEquals(body, read(config, uri));
+    }
+
+    @Test
+    public void noStore() throws Exception {
+        body = "<!ELEMENT doc (#PCDATA)>";
+        cacheControl = "no-store";
+        Assertions.assertEquals(body, read(config, uri("/schema.dtd")));
+        Assertions.assertEquals(body, read(config, uri("/schema.dtd")));
+        Assertions.assertEquals(2, conditions.size());
+        Assertions.assertEquals(0, bodies());
+    }
+
+    @Test
+    public void redirect() throws Exception {
+        body = "<!ELEMENT doc (#PCDATA)>";
+        Assertions.assertEquals(body, read(config, uri("/moved.dtd")));
+        ResourceResponse resp = get(config, uri("/moved.dtd"));
+        Assertions.assertEquals(uri("/schema.dtd"), resp.getURI());
+        resp.getInputStream().close();
+        Assertions.assertEquals(2, conditions.size());
+    }
+
+    @Test
+    public void leastRecentlyUsed() throws Exception {
+        body = "<!ELEMENT doc (#PCDATA)>";
+        config.setFeature(ResolverFeature.HTTP_CACHE_SIZE, 60);
+        read(config, uri("/one.dtd"));
+        Thread.sleep(20);
+        read(config, uri("/two.dtd"));
+        Assertions.assertEquals(2, bodies());
+        read(config, uri("/three.dtd"));
+        Assertions.assertEquals(2, bodies());
+
+        // One was used least recently, so it was removed
+        read(config, uri("/two.dtd"));
+        read(config, uri("/three.dtd"));
+        Assertions.assertEquals(3, conditions.size());
+        read(config, uri("/one.dtd"));
+        Assertions.assertEquals(4, conditions.size());
+    }
+
+    @Test
+    public void conditionalRequestsBypassTheCache() throws Exception {
+        body = "<!ELEMENT doc (#PCDATA)>";
+        etag = "\"v1\"";
+        read(config, uri("/schema.dtd"));
+
+        ResourceRequestImpl request = new ResourceRequestImpl(config);
+        request.setURI(uri("/schema.dtd"));
+        request.setIfNoneMatch("\"v1\"");
+        ResourceResponse resp = config.getResource(request);
+        Assertions.assertEquals(304, resp.getStatusCode());
+        Assertions.assertEquals(2, conditions.size());
+    }
+}
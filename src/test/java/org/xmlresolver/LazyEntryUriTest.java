@@ -0,0 +1,68 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.catalog.entry.Entry;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.catalog.entry.EntrySystem;
+import org.xmlresolver.catalog.entry.EntryUri;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Collections;
+
+public class LazyEntryUriTest {
+    private final URI baseURI = URI.create("file:///tmp/");
+    private XMLResolverConfiguration eagerConfig = null;
+    private XMLResolverConfiguration lazyConfig = null;
+
+    @BeforeEach
+    public void setup() {
+        eagerConfig = new XMLResolverConfiguration();
+        eagerConfig.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        eagerConfig.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/indexed.xml"));
+
+        lazyConfig = new XMLResolverConfiguration();
+        lazyConfig.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        lazyConfig.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/indexed.xml"));
+        lazyConfig.setFeature(ResolverFeature.LAZY_ENTRY_URIS, true);
+    }
+
+    @Test
+    public void resolvedOnFirstMatch() {
+        EntryCatalog catalog = new EntryCatalog(lazyConfig, baseURI, null, true);
+        EntrySystem entry = catalog.addSystem(URI.create("http://example.com/base/"), null, "http://example.com/doc.dtd", "doc.dtd");
+        Assertions.assertNull(entry.uri);
+
+        URI uri = entry.getUri();
+        Assertions.assertEquals(URI.create("http://example.com/base/doc.dtd"), uri);
+        Assertions.assertSame(uri, entry.getUri());
+    }
+
+    @Test
+    public void eagerByDefault() {
+        EntryCatalog catalog = new EntryCatalog(eagerConfig, baseURI, null, true);
+        EntryUri entry = catalog.addUri(baseURI, null, "http://example.com/doc.xml", "doc.xml", null, null);
+        Assertions.assertEquals(baseURI.resolve("doc.xml"), entry.uri);
+        Assertions.assertSame(entry.uri, entry.getUri());
+    }
+
+    @Test
+    public void sameLookups() {
+        CatalogManager eager = new CatalogManager(eagerConfig);
+        CatalogManager lazy = new CatalogManager(lazyConfig);
+
+        EntryCatalog catalog = lazy.loadCatalog(new File("src/test/resources/cm/indexed.xml").toURI());
+        for (Entry entry : catalog.entries(Entry.Type.URI)) {
+            Assertions.assertNull(((EntryUri) entry).uri);
+        }
+
+        for (String uri : new String[] {"http://example.com/rewrite/long/doc.xml", "http://example.com/doc.xml",
+                "http://example.com/merged.xml", "http://example.com/long/tail.xml", "http://example.com/not-there.xml"}) {
+            Assertions.assertEquals(eager.lookupURI(uri), lazy.lookupURI(uri));
+        }
+        Assertions.assertEquals(eager.lookupSystem("http://example.com/doc.dtd"), lazy.lookupSystem("http://example.com/doc.dtd"));
+        Assertions.assertEquals(eager.lookupPublic(null, "-//EXAMPLE//DTD Indexed//EN"), lazy.lookupPublic(null, "-//EXAMPLE//DTD Indexed//EN"));
+    }
+}
@@ -0,0 +1,112 @@
+package org.xmlresolver;
+
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.loaders.StaxLoader;
+import org.xmlresolver.loaders.XmlLoader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.function.Function;
+
+/**
+ * Compares the time and memory it takes the {@link XmlLoader} and the {@link StaxLoader} to load a
+ * large catalog.
+ *
+ * <p>This isn't a test, run it with <code>./gradlew loaderBenchmark [-Pentries=N] [-Prounds=N]</code>.
+ * The catalog is generated; it has groups, ignored elements, and the usual mix of entries.</p>
+ */
+public class LoaderBenchmark {
+    public static void main(String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Path catalog = Files.createTempFile("benchmark", ".xml");
+        try {
+            generate(catalog, entries);
+            System.out.printf("Loading a catalog of %d entries, %d rounds%n", entries, rounds);
+            // Alternate the loaders, so that neither one gets all of the warm-up
+            for (int round = 0; round < 3; round++) {
+                measure("XmlLoader", XmlLoader::new, catalog, rounds);
+                measure("StaxLoader", StaxLoader::new, catalog, rounds);
+            }
+        } finally {
+            Files.delete(catalog);
+        }
+    }
+
+    private static XMLResolverConfiguration config() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration(Collections.emptyList(), Collections.emptyList());
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        return config;
+    }
+
+    private static void measure(String name, Function<ResolverConfiguration, XmlLoader> loaders, Path catalog, int rounds) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocated = allocatedBytes(threads);
+        long start = System.nanoTime();
+        int size = 0;
+        for (int count = 0; count < rounds; count++) {
+            // A new configuration each time, so that nothing is cached
+            EntryCatalog entries = loaders.apply(config()).loadCatalog(catalog.toUri());
+            size = entries.entries().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = allocatedBytes(threads) - allocated;
+
+        System.out.printf("%-10s %8.1f ms/load %8d entries", name, elapsed / 1e6 / rounds, size);
+        if (allocated >= 0) {
+            System.out.printf(" %10.1f MB allocated/load", allocated / 1e6 / rounds);
+        }
+        System.out.println();
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void generate(Path catalog, int entries) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(catalog, StandardCharsets.UTF_8)) {
+            writer.write("<catalog xmlns='urn:oasis:names:tc:entity:xmlns:xml:catalog' prefer='public'\n");
+            writer.write("         xmlns:rddl='http://www.rddl.org/'>\n");
+            for (int count = 0; count < entries; count++) {
+                if (count % 100 == 0) {
+                    if (count > 0) {
+                        writer.write("</group>\n");
+                    }
+                    writer.write("<group xml:base='http://example.com/group" + count + "/'>\n");
+                    writer.write("<div xmlns='http://www.w3.org/1999/xhtml'><p>Ignored</p></div>\n");
+                }
+                switch (count % 4) {
+                    case 0:
+                        writer.write("<system systemId='http://example.com/dtd/" + count + ".dtd' uri='" + count + ".dtd'/>\n");
+                        break;
+                    case 1:
+                        writer.write("<public publicId='-//Example//DTD " + count + "//EN' uri='" + count + ".dtd'/>\n");
+                        break;
+                    case 2:
+                        writer.write("<uri name='http://example.com/ns/" + count + "' uri='" + count + ".xsd'"
+                                + " rddl:nature='http://www.w3.org/2001/XMLSchema'"
+                                + " rddl:purpose='http://www.rddl.org/purposes#validation'/>\n");
+                        break;
+                    default:
+                        writer.write("<rewriteURI uriStartString='http://example.com/rewrite/" + count + "/'"
+                                + " rewritePrefix='rewrite/" + count + "/'/>\n");
+                        break;
+                }
+            }
+            if (entries > 0) {
+                writer.write("</group>\n");
+            }
+            writer.write("</catalog>\n");
+        }
+    }
+}
@@ -3,7 +3,10 @@ package org.xmlresolver;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.xml.sax.*;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.exceptions.CatalogInvalidException;
 import org.xmlresolver.exceptions.CatalogUnavailableException;
+import org.xmlresolver.loaders.XmlLoader;
 import org.xmlresolver.utils.SaxProducer;
 import org.xmlresolver.utils.URIUtils;
 
@@ -12,6 +15,9 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -86,6 +92,20 @@ public class LoaderTest {
         }
     }
 
+    @Test
+    public void validatingInvalidCatalogReportedEveryTime() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration(Collections.emptyList(), Collections.emptyList());
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("classpath:/invalid-catalog.xml"));
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.ValidatingXmlLoader");
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        // A failed validation isn't saved; the second lookup doesn't quietly search an empty catalog
+        for (int count = 0; count < 2; count++) {
+            Assertions.assertThrows(CatalogInvalidException.class,
+                    () -> manager.lookupSystem("https://xmlresolver.org/ns/sample/sample.dtd"));
+        }
+    }
+
     @Test
     public void validatingMissingCatalog() {
         // File not found isn't a validation error
@@ -102,6 +122,25 @@ public class LoaderTest {
         }
     }
 
+    @Test
+    public void validatingSharedSchema() {
+        // The schema is compiled once; an invalid catalog mustn't affect the next one validated with it
+        for (String catalog : Arrays.asList("classpath:/manual-catalog.xml", "classpath:/invalid-catalog.xml", "classpath:/manual-catalog.xml")) {
+            XMLResolverConfiguration config = new XMLResolverConfiguration(Collections.emptyList(), Collections.emptyList());
+            config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList(catalog));
+            config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, "org.xmlresolver.loaders.ValidatingXmlLoader");
+            config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+            CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+            try {
+                URI rsrc = manager.lookupSystem("https://xmlresolver.org/ns/sample/sample.dtd");
+                Assertions.assertNotNull(rsrc);
+                Assertions.assertFalse(catalog.contains("invalid"));
+            } catch (CatalogUnavailableException ex) {
+                Assertions.assertTrue(catalog.contains("invalid"));
+            }
+        }
+    }
+
     @Test
     public void constructCatalogWithSAX() {
         XMLResolverConfiguration config = new XMLResolverConfiguration(Collections.emptyList(), Collections.emptyList());
@@ -129,6 +168,41 @@ public class LoaderTest {
         }
     }
 
+    @Test
+    public void concurrentCatalogLoading() throws Exception {
+        XMLResolverConfiguration config = new XMLResolverConfiguration(Collections.emptyList(), Collections.emptyList());
+        XmlLoader loader = new XmlLoader(config);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SaxProducer slowProducer = (contentHandler, dtdHandler, errorHandler) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                throw new SAXException(ex);
+            }
+            new CatalogProducer().produce(contentHandler, dtdHandler, errorHandler);
+        };
+
+        URI slow = URIUtils.cwd().resolve("src/test/resources/sample10/generated-catalog.xml");
+        CompletableFuture<EntryCatalog> first = CompletableFuture.supplyAsync(() -> loader.loadCatalog(slow, slowProducer));
+        Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+        CompletableFuture<EntryCatalog> second = CompletableFuture.supplyAsync(() -> loader.loadCatalog(slow));
+
+        // A different catalog doesn't have to wait for the slow one
+        EntryCatalog other = loader.loadCatalog(URIUtils.cwd().resolve("src/test/resources/cm/nextone.xml"));
+        Assertions.assertEquals(2, other.entries().size());
+        Assertions.assertFalse(first.isDone());
+        Assertions.assertFalse(second.isDone());
+
+        // The same catalog waits for the load that's already in progress
+        release.countDown();
+        EntryCatalog loaded = first.get(10, TimeUnit.SECONDS);
+        Assertions.assertSame(loaded, second.get(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, loaded.entries().size());
+    }
+
     private static class CatalogProducer implements SaxProducer {
         private static final String ns = "urn:oasis:names:tc:entity:xmlns:xml:catalog";
 
@@ -0,0 +1,65 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LookupCacheTest {
+    private final URI baseURI = URI.create("file:///tmp/");
+
+    @Test
+    public void cachedLookups() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/simple.xml"));
+        config.setFeature(ResolverFeature.PREFER_PUBLIC, true);
+        config.setFeature(ResolverFeature.LOOKUP_CACHE_SIZE, 100);
+        CatalogManager manager = new CatalogManager(config);
+
+        for (int count = 0; count < 2; count++) {
+            Assertions.assertEquals(baseURI.resolve("public.dtd"),
+                    manager.lookupPublic("http://example.com/miss", "-//EXAMPLE//DTD Example//EN"));
+            Assertions.assertEquals(baseURI.resolve("system.dtd"), manager.lookupSystem("http://example.com/system.dtd"));
+            Assertions.assertEquals(URI.create("file:///path/rddl.xml"),
+                    manager.lookupNamespaceURI("http://example.com/rddl.xml", "nature", "purpose"));
+            Assertions.assertNull(manager.lookupURI("http://example.com/not-in-the-catalog.xml"));
+        }
+    }
+
+    @Test
+    public void invalidatedWhenCatalogsChange() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList("src/test/resources/cm/cycle-one.xml"));
+        config.setFeature(ResolverFeature.LOOKUP_CACHE_SIZE, 100);
+        CatalogManager manager = new CatalogManager(config);
+
+        Assertions.assertNull(manager.lookupURI("http://example.com/document.xml"));
+        config.addCatalog("src/test/resources/cm/simple.xml");
+        Assertions.assertEquals(URI.create("file:///path/document.xml"), manager.lookupURI("http://example.com/document.xml"));
+    }
+
+    @Test
+    public void missesAreCached() {
+        LookupCache cache = new LookupCache(10);
+        AtomicInteger searches = new AtomicInteger(0);
+        for (int count = 0; count < 3; count++) {
+            Assertions.assertNull(cache.lookup(new LookupCache.Key(LookupCache.Kind.URI, "http://example.com/", null, null), () -> {
+                searches.incrementAndGet();
+                return null;
+            }));
+        }
+        Assertions.assertEquals(1, searches.get());
+    }
+
+    @Test
+    public void bounded() {
+        LookupCache cache = new LookupCache(1000);
+        for (int count = 0; count < 5000; count++) {
+            URI uri = URI.create("http://example.com/" + count);
+            Assertions.assertEquals(uri, cache.lookup(new LookupCache.Key(LookupCache.Kind.SYSTEM, uri.toString(), null, null), () -> uri));
+        }
+        Assertions.assertEquals(1000, cache.size());
+    }
+}
@@ -0,0 +1,149 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.utils.URIUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class ResourceCacheTest {
+    private Path file = null;
+    private XMLResolverConfiguration config = null;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        file = Files.createTempFile("cached", ".dtd");
+        Files.write(file, "<!ELEMENT doc (#PCDATA)>".getBytes(StandardCharsets.UTF_8));
+        config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.RESOURCE_CACHE_SIZE, 1024 * 1024);
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        Files.delete(file);
+    }
+
+    private String read(XMLResolverConfiguration config, URI uri) throws IOException, URISyntaxException {
+        ResourceRequestImpl request = new ResourceRequestImpl(config);
+        request.setURI(uri);
+        ResourceResponse resp = config.getResource(request);
+        Assertions.assertTrue(resp.isResolved());
+        return read(resp.getInputStream());
+    }
+
+    private String read(InputStream stream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int count = stream.read(buffer);
+        while (count >= 0) {
+            bytes.write(buffer, 0, count);
+            count = stream.read(buffer);
+        }
+        stream.close();
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void notCachedByDefault() throws Exception {
+        XMLResolverConfiguration uncached = new XMLResolverConfiguration();
+        Assertions.assertEquals("<!ELEMENT doc (#PCDATA)>", read(uncached, file.toUri()));
+        Assertions.assertNull(uncached.getResourceCache());
+    }
+
+    @Test
+    public void fileCached() throws Exception {
+        Assertions.assertEquals("<!ELEMENT doc (#PCDATA)>", read(config, file.toUri()));
+        Assertions.assertEquals("<!ELEMENT doc (#PCDATA)>", read(config, file.toUri()));
+
+        ResourceRequestImpl request = new ResourceRequestImpl(config);
+        request.setURI(file.toUri());
+        ResourceResponse resp = config.getResource(request);
+        Assertions.assertTrue(resp.getInputStream() instanceof ByteArrayInputStream);
+        Assertions.assertEquals(file.toUri(), resp.getURI());
+
+        ResourceCache cache = config.getResourceCache();
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(1, cache.getResourceCount());
+        Assertions.assertEquals(24, cache.getSize());
+    }
+
+    @Test
+    public void fileChanged() throws Exception {
+        Assertions.assertEquals("<!ELEMENT doc (#PCDATA)>", read(config, file.toUri()));
+
+        Files.write(file, "<!ELEMENT doc EMPTY>".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+        Assertions.assertEquals("<!ELEMENT doc EMPTY>", read(config, file.toUri()));
+        Assertions.assertEquals(2, config.getResourceCache().getMisses());
+        Assertions.assertEquals(20, config.getResourceCache().getSize());
+    }
+
+    @Test
+    public void jarEntryCached() throws Exception {
+        URI uri = URI.create("jar:" + URIUtils.cwd().resolve("src/test/resources/sample.zip") + "!/catalog.xml");
+        String text = read(config, uri);
+        Assertions.assertEquals(text, read(config, uri));
+        Assertions.assertEquals(1, config.getResourceCache().getHits());
+    }
+
+    @Test
+    public void leastRecentlyUsed() throws Exception {
+        Path other = Files.createTempFile("cached", ".dtd");
+        try {
+            Files.write(other, "<!ELEMENT other (#PCDATA)>".getBytes(StandardCharsets.UTF_8));
+            config.setFeature(ResolverFeature.RESOURCE_CACHE_SIZE, 40);
+            read(config, file.toUri());
+            read(config, other.toUri());
+            // Only one of them fits
+            Assertions.assertEquals(1, config.getResourceCache().getResourceCount());
+            read(config, other.toUri());
+            Assertions.assertEquals(1, config.getResourceCache().getHits());
+            read(config, file.toUri());
+            Assertions.assertEquals(3, config.getResourceCache().getMisses());
+        } finally {
+            Files.delete(other);
+        }
+    }
+
+    @Test
+    public void tooBig() throws Exception {
+        config.setFeature(ResolverFeature.RESOURCE_CACHE_SIZE, 10);
+        Assertions.assertEquals("<!ELEMENT doc (#PCDATA)>", read(config, file.toUri()));
+        Assertions.assertEquals(0, config.getResourceCache().getResourceCount());
+        Assertions.assertEquals("<!ELEMENT doc (#PCDATA)>", read(config, file.toUri()));
+        Assertions.assertEquals(2, config.getResourceCache().getMisses());
+    }
+
+    @Test
+    public void schemePolicy() throws Exception {
+        config.setFeature(ResolverFeature.RESOURCE_CACHE_SCHEMES, "jar, classpath");
+        read(config, file.toUri());
+        read(config, file.toUri());
+        Assertions.assertEquals(0, config.getResourceCache().getHits());
+        Assertions.assertEquals(0, config.getResourceCache().getMisses());
+    }
+
+    @Test
+    public void conditionalRequestsBypassTheCache() throws Exception {
+        read(config, file.toUri());
+        ResourceRequestImpl request = new ResourceRequestImpl(config);
+        request.setURI(file.toUri());
+        request.setIfNoneMatch("\"v1\"");
+        ResourceResponse resp = config.getResource(request);
+        Assertions.assertFalse(resp.getInputStream() instanceof ByteArrayInputStream);
+        resp.getInputStream().close();
+        Assertions.assertEquals(0, config.getResourceCache().getHits());
+    }
+}
@@ -0,0 +1,83 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.loaders.XmlLoader;
+import org.xmlresolver.utils.SaxParserPool;
+import org.xmlresolver.utils.URIUtils;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class SaxParserPoolTest {
+    @Test
+    public void reused() throws Exception {
+        SaxParserPool pool = new SaxParserPool(SAXParserFactory.newInstance(), 2);
+        SAXParser parser = pool.acquire();
+        Assertions.assertTrue(parser.isNamespaceAware());
+        Assertions.assertFalse(parser.isValidating());
+        parser.parse(new InputSource(new StringReader("<doc/>")), new DefaultHandler());
+        pool.release(parser);
+        Assertions.assertEquals(1, pool.getIdleCount());
+        Assertions.assertSame(parser, pool.acquire());
+        Assertions.assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void resetOnRelease() throws Exception {
+        SaxParserPool pool = new SaxParserPool(SAXParserFactory.newInstance(), 2);
+        SAXParser parser = pool.acquire();
+        parser.parse(new InputSource(new StringReader("<doc/>")), new DefaultHandler());
+        pool.release(parser);
+        XMLReader reader = pool.acquire().getXMLReader();
+        Assertions.assertNull(reader.getContentHandler());
+        Assertions.assertNull(reader.getEntityResolver());
+        Assertions.assertNull(reader.getErrorHandler());
+    }
+
+    @Test
+    public void bounded() throws Exception {
+        SaxParserPool pool = new SaxParserPool(SAXParserFactory.newInstance(), 2);
+        SAXParser first = pool.acquire();
+        SAXParser second = pool.acquire();
+        SAXParser third = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        Assertions.assertEquals(2, pool.getIdleCount());
+    }
+
+    @Test
+    public void catalogsUseThePool() {
+        XMLResolverConfiguration config = new XMLResolverConfiguration(Collections.emptyList(), Collections.emptyList());
+        XmlLoader loader = new XmlLoader(config);
+        EntryCatalog catalog = loader.loadCatalog(URIUtils.cwd().resolve("src/test/resources/cm/nextone.xml"));
+        Assertions.assertEquals(2, catalog.entries().size());
+        Assertions.assertTrue(SaxParserPool.getDefault().getIdleCount() > 0);
+    }
+
+    @Test
+    public void customSupplier() {
+        AtomicInteger count = new AtomicInteger(0);
+        Supplier<XMLReader> defaultSupplier = ResolverFeature.XMLREADER_SUPPLIER.getDefaultValue();
+        Supplier<XMLReader> supplier = () -> {
+            count.incrementAndGet();
+            return defaultSupplier.get();
+        };
+
+        XMLResolverConfiguration config = new XMLResolverConfiguration(Collections.emptyList(), Collections.emptyList());
+        config.setFeature(ResolverFeature.XMLREADER_SUPPLIER, supplier);
+        XmlLoader loader = new XmlLoader(config);
+        EntryCatalog catalog = loader.loadCatalog(URIUtils.cwd().resolve("src/test/resources/cm/nextone.xml"));
+        Assertions.assertEquals(2, catalog.entries().size());
+        Assertions.assertEquals(1, count.get());
+    }
+}
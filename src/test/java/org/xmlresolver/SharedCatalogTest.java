@@ -0,0 +1,91 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.loaders.XmlLoader;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class SharedCatalogTest {
+    private static final String SYSTEM_ID = "http://example.com/system.dtd";
+    private Path catalog = null;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        catalog = Files.createTempFile("shared", ".xml");
+        String text = "<catalog xmlns='urn:oasis:names:tc:entity:xmlns:xml:catalog'>"
+                + "<system systemId='" + SYSTEM_ID + "' uri='/tmp/shared.dtd'/></catalog>";
+        Files.write(catalog, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        XmlLoader.clearSharedCatalogs();
+        Files.delete(catalog);
+    }
+
+    private CatalogManager manager(boolean share) {
+        XMLResolverConfiguration config = new XMLResolverConfiguration();
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_FILES, Collections.singletonList(catalog.toString()));
+        config.setFeature(ResolverFeature.SHARE_CATALOGS, share);
+        return config.getFeature(ResolverFeature.CATALOG_MANAGER);
+    }
+
+    private EntryCatalog load(CatalogManager manager) {
+        return manager.getCatalogLoader().loadCatalog(catalog.toUri());
+    }
+
+    @Test
+    public void shared() {
+        CatalogManager first = manager(true);
+        CatalogManager second = manager(true);
+        Assertions.assertSame(load(first), load(second));
+        Assertions.assertEquals(URI.create("file:/tmp/shared.dtd"), second.lookupSystem(SYSTEM_ID));
+    }
+
+    @Test
+    public void notShared() {
+        Assertions.assertNotSame(load(manager(false)), load(manager(false)));
+        Assertions.assertNotSame(load(manager(true)), load(manager(false)));
+    }
+
+    @Test
+    public void sharedWithSameSettings() {
+        CatalogManager first = manager(true);
+        CatalogManager second = manager(true);
+        second.getCatalogLoader().setPreferPublic(!first.getCatalogLoader().getPreferPublic());
+        Assertions.assertNotSame(load(first), load(second));
+    }
+
+    @Test
+    public void cleared() {
+        EntryCatalog entries = load(manager(true));
+        XmlLoader.clearSharedCatalogs();
+        Assertions.assertNotSame(entries, load(manager(true)));
+    }
+
+    @Test
+    public void sharedCatalogsDontKeepTheirConfiguration() throws InterruptedException {
+        CatalogManager first = manager(true);
+        WeakReference<ResolverConfiguration> config = new WeakReference<>(first.getResolverConfiguration());
+        EntryCatalog entries = load(first);
+        first = null;
+
+        for (int count = 0; count < 50 && config.get() != null; count++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertNull(config.get());
+        Assertions.assertSame(entries, load(manager(true)));
+    }
+}
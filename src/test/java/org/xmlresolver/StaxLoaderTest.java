@@ -0,0 +1,126 @@
+package org.xmlresolver;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xmlresolver.catalog.entry.Entry;
+import org.xmlresolver.catalog.entry.EntryCatalog;
+import org.xmlresolver.loaders.StaxLoader;
+import org.xmlresolver.loaders.XmlLoader;
+import org.xmlresolver.utils.URIUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class StaxLoaderTest {
+    private XMLResolverConfiguration config = null;
+
+    @BeforeEach
+    public void setup() {
+        config = new XMLResolverConfiguration(Collections.emptyList(), Collections.emptyList());
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+    }
+
+    private List<String> describe(EntryCatalog catalog) {
+        ArrayList<String> entries = new ArrayList<>();
+        for (Entry entry : catalog.entries()) {
+            entries.add(entry.baseURI + " " + entry + " " + entry.getProperty("extra"));
+        }
+        return entries;
+    }
+
+    private void compare(URI catalog) {
+        EntryCatalog sax = new XmlLoader(config).loadCatalog(catalog);
+        EntryCatalog stax = new StaxLoader(config).loadCatalog(catalog);
+        Assertions.assertEquals(describe(sax), describe(stax));
+        Assertions.assertEquals(sax.preferPublic, stax.preferPublic);
+    }
+
+    @Test
+    public void sameEntries() {
+        URI cwd = URIUtils.cwd();
+        compare(cwd.resolve("src/test/resources/manual-catalog.xml"));
+        compare(cwd.resolve("src/test/resources/cm/indexed.xml"));
+        compare(cwd.resolve("src/test/resources/cm/prefer-system.xml"));
+        compare(cwd.resolve("src/test/resources/rewrite.xml"));
+    }
+
+    @Test
+    public void sameEntriesWithDoctype() {
+        compare(URIUtils.cwd().resolve("src/test/resources/dtd10catalog.xml"));
+        compare(URIUtils.cwd().resolve("src/test/resources/dtd11catalog.xml"));
+    }
+
+    @Test
+    public void notACatalog() {
+        EntryCatalog catalog = new StaxLoader(config).loadCatalog(URIUtils.cwd().resolve("src/test/resources/notcatalog.xml"));
+        Assertions.assertTrue(catalog.entries().isEmpty());
+    }
+
+    @Test
+    public void nestedAndExtended() throws IOException {
+        Path path = Files.createTempFile("stax", ".xml");
+        try {
+            String text = "<catalog xmlns='urn:oasis:names:tc:entity:xmlns:xml:catalog'"
+                    + " xmlns:ext='http://xmlresolver.org/ns/catalog'"
+                    + " xmlns:tr='urn:oasis:names:tc:entity:xmlns:tr9401:catalog'"
+                    + " xmlns:rddl='http://www.rddl.org/' xml:base='http://example.com/base/'>"
+                    + "<group prefer='system' xml:base='group/'>"
+                    + "<public publicId='  -//Example//DTD  One//EN ' uri='one.dtd' ext:extra='one'/>"
+                    + "<uri name='http://example.com/ns' uri='ns.xsd' rddl:nature='http://www.w3.org/2001/XMLSchema'"
+                    + " rddl:purpose='http://www.rddl.org/purposes#validation'/>"
+                    + "<other xmlns='http://example.com/other'><system systemId='ignored' uri='ignored'/></other>"
+                    + "<unknown><system systemId='also-ignored' uri='ignored'/></unknown>"
+                    + "</group>"
+                    + "<systemSuffix systemIdSuffix='two.dtd' uri='two.dtd'/>"
+                    + "<tr:doctype name='doc' uri='doc.dtd'/>"
+                    + "<tr:system systemId='wrong-namespace' uri='ignored'/>"
+                    + "<nextCatalog catalog='next.xml'/>"
+                    + "</catalog>";
+            Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+            compare(path.toUri());
+
+            EntryCatalog catalog = new StaxLoader(config).loadCatalog(path.toUri());
+            Assertions.assertEquals(6, catalog.entries().size());
+            Assertions.assertEquals("one", catalog.entries().get(1).getProperty("extra"));
+            Assertions.assertEquals(URI.create("http://example.com/base/group/"), catalog.entries().get(1).baseURI);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void malformed() throws IOException {
+        Path path = Files.createTempFile("stax", ".xml");
+        try {
+            Files.write(path, "<catalog xmlns='urn:oasis:names:tc:entity:xmlns:xml:catalog'><system".getBytes(StandardCharsets.UTF_8));
+            EntryCatalog catalog = new StaxLoader(config).loadCatalog(path.toUri());
+            Assertions.assertTrue(catalog.entries().isEmpty());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private URI lookup(String loaderClass) {
+        // Each loader needs its own manager, and so its own configuration
+        XMLResolverConfiguration config = new XMLResolverConfiguration(Collections.emptyList(), Collections.singletonList("classpath:/manual-catalog.xml"));
+        config.setFeature(ResolverFeature.CLASSPATH_CATALOGS, false);
+        config.setFeature(ResolverFeature.CATALOG_LOADER_CLASS, loaderClass);
+        CatalogManager manager = config.getFeature(ResolverFeature.CATALOG_MANAGER);
+        Assertions.assertEquals(loaderClass, manager.getCatalogLoader().getClass().getName());
+        return manager.lookupSystem("https://xmlresolver.org/ns/sample/sample.dtd");
+    }
+
+    @Test
+    public void lookups() {
+        URI rsrc = lookup("org.xmlresolver.loaders.StaxLoader");
+        Assertions.assertNotNull(rsrc);
+        Assertions.assertEquals(lookup("org.xmlresolver.loaders.XmlLoader"), rsrc);
+    }
+}
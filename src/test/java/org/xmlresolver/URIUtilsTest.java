@@ -188,4 +188,13 @@ public class URIUtilsTest {
             fail();
         }
     }
+
+    @Test
+    public void normalizedForComparison() {
+        Assertions.assertEquals("classpath:path/to/thing", URIUtils.normalizedForComparison("classpath:/path/to/thing", false));
+        Assertions.assertEquals("http://example.com/", URIUtils.normalizedForComparison("http://example.com/", false));
+        Assertions.assertEquals("https://example.com/", URIUtils.normalizedForComparison("http://example.com/", true));
+        Assertions.assertEquals("https://example.com/", URIUtils.normalizedForComparison("https://example.com/", true));
+        Assertions.assertNull(URIUtils.normalizedForComparison(null, true));
+    }
 }